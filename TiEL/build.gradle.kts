@@ -3,6 +3,7 @@ import com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar
 plugins {
     id("java")
     id("com.gradleup.shadow") version "8.3.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "de.thm.asc.tiel"
@@ -17,6 +18,36 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter")
 }
 
+// The vector built-in functions use the incubating Vector API if the module is available at run time
+val vectorModule = "--add-modules=jdk.incubator.vector"
+
+tasks.withType<JavaCompile> {
+    options.compilerArgs.add(vectorModule)
+}
+
+jmh {
+    jvmArgs.add(vectorModule)
+}
+
+// The program cache keys its entries by the Implementation-Version of the jar, which therefore has to change with
+// every change of the interpreter. The project version does not, so a hash of the compiled classes is used.
+val mainClasses = sourceSets.main.get().output.classesDirs
+
+tasks.withType<Jar>().configureEach {
+    doFirst {
+        val files = sortedMapOf<String, File>()
+        mainClasses.asFileTree.visit {
+            if (!isDirectory) files[relativePath.pathString] = file
+        }
+        val digest = java.security.MessageDigest.getInstance("SHA-256")
+        files.forEach { (path, file) ->
+            digest.update(path.toByteArray())
+            digest.update(file.readBytes())
+        }
+        manifest.attributes["Implementation-Version"] = java.util.HexFormat.of().formatHex(digest.digest(), 0, 16)
+    }
+}
+
 tasks {
     named<ShadowJar>("shadowJar") {
         archiveBaseName.set("TiEL")
@@ -33,6 +64,7 @@ tasks {
 
 tasks.test {
     useJUnitPlatform()
+    jvmArgs(vectorModule)
     include("**/de/thm/asc/tiel/interpreter/**")
     testLogging {
         events("passed", "skipped", "failed")
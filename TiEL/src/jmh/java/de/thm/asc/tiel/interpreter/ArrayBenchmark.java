@@ -0,0 +1,55 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling an array with 100,000 numbers and summing it up. With {@code mixed}, the array starts with a
+ * string, so it stores boxed numbers in an {@code Object[]} instead of a {@code double[]}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArrayBenchmark {
+
+    private static final String SOURCE = """
+var a = [];
+if mixed then push(a, "start"); else push(a, 0);
+var i = 1;
+while i < 100000 do {
+    push(a, i);
+    i = i + 1;
+}
+var sum = 0;
+i = 1;
+while i < len(a) do {
+    sum = sum + a[i];
+    i = i + 1;
+}
+""";
+
+    @Param({"false", "true"})
+    public boolean mixed;
+
+    private CompiledProgram program;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(SOURCE);
+    }
+
+    @Benchmark
+    public Object fillAndSum() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("mixed", mixed);
+        program.execute(context);
+        return context.declarations().get("sum");
+    }
+}
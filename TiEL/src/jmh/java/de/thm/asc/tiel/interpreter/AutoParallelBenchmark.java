@@ -0,0 +1,53 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.analysis.PurityAnalysis;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how computing {@code fib(30)} with the plain recursive definition speeds up in the
+ * {@code --auto-parallel} mode, which forks the independent recursive calls without any change to the program.
+ * Compare with {@link ParallelFibBenchmark}, where the program splits the work by {@code spawn} explicitly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AutoParallelBenchmark {
+
+    private static final String SOURCE = """
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+var result = fib(30);
+""";
+
+    @Param({"false", "true"})
+    public boolean autoParallel;
+
+    private CompiledProgram program;
+    private PurityAnalysis analysis;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(SOURCE);
+        analysis = new PurityAnalysis(program.statements());
+    }
+
+    @Benchmark
+    public Object fib() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        if (autoParallel) {
+            context.setAutoParallel(analysis);
+        }
+        program.execute(context);
+        return context.declarations().get("result");
+    }
+}
@@ -0,0 +1,52 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures nested counting loops with integer counters, or with double counters as before TiEL had integers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CounterBenchmark {
+
+    private static final String SOURCE = """
+var sum = zero;
+var i = zero;
+while i < 1000 do {
+    var j = zero;
+    while j < 1000 do {
+        sum = sum + j;
+        j = j + one;
+    }
+    i = i + one;
+}
+""";
+
+    @Param({"false", "true"})
+    public boolean integers;
+
+    private CompiledProgram program;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(SOURCE);
+    }
+
+    @Benchmark
+    public Object count() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("zero", integers ? (Object) 0L : 0.0);
+        context.define("one", integers ? (Object) 1L : 1.0);
+        program.execute(context);
+        return context.declarations().get("sum");
+    }
+}
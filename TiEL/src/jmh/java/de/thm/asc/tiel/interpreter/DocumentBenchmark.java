@@ -0,0 +1,61 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.editor.Document;
+import de.thm.asc.tiel.interpreter.error.Diagnostic;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of an edit on a 20000-line document: a character is typed in the middle of the document
+ * and deleted again, and the diagnostics are computed after each edit. Analyzing the whole text from scratch
+ * serves as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DocumentBenchmark {
+
+    @Param({"4000"})
+    public int functions;
+
+    private String source;
+    private Document document;
+    private int offset;
+
+    @Setup
+    public void setUp() {
+        var sb = new StringBuilder();
+        for (var i = 0; i < functions; i++) {
+            if (i == functions / 2) {
+                offset = sb.length() + "fun helper".length();
+            }
+            sb.append("fun helper").append(i).append("(a, b) {\n")
+                    .append("    var c = a * (b + 2) - 1;\n")
+                    .append("    while c < 10 do { c = c + a / 2; }\n")
+                    .append("    return (c + a) * (b - c) / 2;\n")
+                    .append("}\n");
+        }
+        source = sb.toString();
+        document = new Document(source);
+    }
+
+    @Benchmark
+    public List<Diagnostic> incremental() {
+        document.change(offset, 0, "x");
+        document.diagnostics();
+        document.change(offset, 1, "");
+        return document.diagnostics();
+    }
+
+    @Benchmark
+    public Object fromScratch() {
+        return new Parser(new Scanner(source)).parse();
+    }
+}
@@ -0,0 +1,49 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing throughput of expression-heavy programs: a mix of typical statements, and one long
+ * left-associative sum as produced by code generators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExpressionParsingBenchmark {
+
+    @Param({"100000"})
+    public int statements;
+
+    private List<Token> mixed;
+    private List<Token> sum;
+
+    @Setup
+    public void setUp() {
+        var sb = new StringBuilder();
+        for (var i = 0; i < statements; i++) {
+            sb.append("x = -a + b * (c - d) / 2 < f(1, g(y)) or not e and g == \"h\";\n");
+        }
+        mixed = new Scanner(sb.toString()).scanTokens();
+        sum = new Scanner("1" + " + 1".repeat(statements * 10) + ";").scanTokens();
+    }
+
+    @Benchmark
+    public List<Stmt> mixed() {
+        return new Parser(mixed).parse();
+    }
+
+    @Benchmark
+    public List<Stmt> longSum() {
+        return new Parser(sum).parse();
+    }
+}
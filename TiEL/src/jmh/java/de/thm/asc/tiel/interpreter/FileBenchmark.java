@@ -0,0 +1,91 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures counting the lines of a generated text file with {@code openLines} and {@code reduce}, reading it
+ * completely with {@code readAll}, and, as a baseline, counting its lines in Java with {@link Files#lines}. The
+ * size of the file is set in megabytes; with sizes above 2 GB, only {@code openLines} can read it, since
+ * {@code readAll} is limited to the length of a string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FileBenchmark {
+
+    private static final String OPEN_LINES = """
+fun count(n, line) { return n + 1; }
+var result = reduce(openLines("lines.txt"), count, 0);
+""";
+
+    private static final String READ_ALL = """
+var result = len(readAll("lines.txt"));
+""";
+
+    @Param({"64"})
+    public int megabytes;
+
+    private Path directory;
+    private Path file;
+    private CompiledProgram openLines;
+    private CompiledProgram readAll;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tiel-benchmark");
+        file = directory.resolve("lines.txt");
+        var size = (long) megabytes << 20;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (long i = 0, written = 0; written < size; i++) {
+                var line = "Zeile " + i + ": Lorem ipsum dolor sit amet, consectetur adipiscing elit";
+                writer.write(line);
+                writer.write('\n');
+                written += line.length() + 1;
+            }
+        }
+        openLines = CompiledProgram.compile(OPEN_LINES);
+        readAll = CompiledProgram.compile(READ_ALL);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Object openLines() {
+        return run(openLines);
+    }
+
+    @Benchmark
+    public Object readAll() {
+        return run(readAll);
+    }
+
+    @Benchmark
+    public long javaLines() throws IOException {
+        try (var lines = Files.lines(file)) {
+            return lines.count();
+        }
+    }
+
+    private Object run(CompiledProgram program) {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.setFileRoot(directory);
+        program.execute(context);
+        return context.declarations().get("result");
+    }
+}
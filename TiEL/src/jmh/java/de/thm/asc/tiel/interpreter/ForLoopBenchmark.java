@@ -0,0 +1,60 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures two nested loops of 1000 iterations each, written as {@code for} loops or as the equivalent
+ * {@code while} loops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ForLoopBenchmark {
+
+    private static final String FOR = """
+var sum = 0;
+for i = 0 to 999 do {
+    for j = 0 to 999 do {
+        sum = sum + j;
+    }
+}
+""";
+
+    private static final String WHILE = """
+var sum = 0;
+var i = 0;
+while i < 1000 do {
+    var j = 0;
+    while j < 1000 do {
+        sum = sum + j;
+        j = j + 1;
+    }
+    i = i + 1;
+}
+""";
+
+    @Param({"false", "true"})
+    public boolean forLoop;
+
+    private CompiledProgram program;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(forLoop ? FOR : WHILE);
+    }
+
+    @Benchmark
+    public Object nested() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        program.execute(context);
+        return context.declarations().get("sum");
+    }
+}
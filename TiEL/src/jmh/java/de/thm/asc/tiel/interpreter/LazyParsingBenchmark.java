@@ -0,0 +1,53 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares eager and lazy parsing of function bodies on a program with many helper functions of which
+ * only one is called.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LazyParsingBenchmark {
+
+    @Param({"10000"})
+    public int functions;
+
+    private List<Token> tokens;
+
+    @Setup
+    public void setUp() {
+        var sb = new StringBuilder();
+        for (var i = 0; i < functions; i++) {
+            sb.append("fun helper").append(i).append("(a, b) {\n")
+                    .append("    var c = a * (b + 2) - 1;\n")
+                    .append("    while c < 10 do { c = c + a / 2; }\n")
+                    .append("    if c == 3 or not b then { return helper").append(i).append("(c - 1, b); }\n")
+                    .append("    else { print(c); return (c + a) * (b - c) / 2; }\n")
+                    .append("}\n");
+        }
+        sb.append("print(helper0(1, 2));\n");
+        tokens = new Scanner(sb.toString()).scanTokens();
+    }
+
+    @Benchmark
+    public List<Stmt> eager() {
+        return new Parser(tokens).parse();
+    }
+
+    @Benchmark
+    public List<Stmt> lazy() {
+        return new Parser(tokens.iterator()::next, true).parse();
+    }
+}
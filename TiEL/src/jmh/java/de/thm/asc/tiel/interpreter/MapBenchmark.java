@@ -0,0 +1,73 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures 100,000 lookups in maps of different sizes, striding through the keys so that the lookups do not
+ * follow the insertion order. The maps and the keys to look up are created once, so that only the lookups are
+ * measured; their time should not depend on the size of the map beyond the effects of the CPU caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapBenchmark {
+
+    private static final String SETUP = """
+var m = map();
+var i = 0;
+while i < n do {
+    put(m, i, i);
+    i = i + 1;
+}
+var order = [];
+var key = 0;
+while len(order) < 100000 do {
+    push(order, key);
+    key = key + 7919;
+    while not (key < n) do key = key - n;
+}
+""";
+
+    private static final String LOOKUPS = """
+var sum = 0;
+var i = 0;
+while i < 100000 do {
+    sum = sum + get(m, order[i]);
+    i = i + 1;
+}
+""";
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private CompiledProgram program;
+    private Object map;
+    private Object order;
+
+    @Setup
+    public void setUp() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("n", (double) size);
+        CompiledProgram.compile(SETUP).execute(context);
+        map = context.declarations().get("m");
+        order = context.declarations().get("order");
+        program = CompiledProgram.compile(LOOKUPS);
+    }
+
+    @Benchmark
+    public Object lookups() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("m", map);
+        context.define("order", order);
+        program.execute(context);
+        return context.declarations().get("sum");
+    }
+}
@@ -0,0 +1,54 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how computing {@code fib(30)} speeds up when the recursion is split into {@code 2^depth} functions
+ * started by {@code spawn}. Depth 0 is the sequential baseline; with enough independent functions, the speedup
+ * should approach the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelFibBenchmark {
+
+    private static final String SOURCE = """
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+fun pfib(n, depth) {
+    if depth == 0 then return fib(n);
+    var a = spawn(pfib, n - 1, depth - 1);
+    var b = spawn(pfib, n - 2, depth - 1);
+    return await(a) + await(b);
+}
+var result = pfib(30, depth);
+""";
+
+    @Param({"0", "1", "2", "3", "4", "6"})
+    public int depth;
+
+    private CompiledProgram program;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(SOURCE);
+    }
+
+    @Benchmark
+    public Object fib() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("depth", (double) depth);
+        program.execute(context);
+        return context.declarations().get("result");
+    }
+}
@@ -0,0 +1,64 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.parsing.ParallelParser;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParallelParser} with the sequential {@link Parser} on a synthetic program consisting of
+ * 50k global function declarations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParserBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int cores;
+
+    @Param({"50000"})
+    public int functions;
+
+    private List<Token> tokens;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        var sb = new StringBuilder();
+        for (var i = 0; i < functions; i++) {
+            sb.append("fun f").append(i).append("(a, b) {\n")
+                    .append("    var c = a * (b + 2) - 1;\n")
+                    .append("    while c < 10 do { c = c + a / 2; }\n")
+                    .append("    if c == 3 or not b then return f").append(i).append("(c - 1, b); else return c;\n")
+                    .append("}\n");
+        }
+        sb.append("print(f0(1, 2));\n");
+        tokens = new Scanner(sb.toString()).scanTokens();
+        pool = new ForkJoinPool(cores);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Stmt> sequential() {
+        return new Parser(tokens).parse();
+    }
+
+    @Benchmark
+    public List<Stmt> parallel() {
+        return new ParallelParser(tokens, pool).parse();
+    }
+}
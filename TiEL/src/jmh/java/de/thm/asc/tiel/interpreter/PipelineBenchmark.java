@@ -0,0 +1,82 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time until a long generated program produces its first line of output when it is processed
+ * sequentially ({@link TiEL#process}) and in pipelined mode ({@link Pipeline#process}), as well as the total
+ * running time of both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"10000", "100000"})
+    public int statements;
+
+    private String source;
+
+    @Setup
+    public void generateSource() {
+        var sb = new StringBuilder("fun square(x) { return x * x; }\n");
+        for (var i = 0; i < statements; i++) {
+            sb.append("print(square(").append(i).append("));\n");
+        }
+        source = sb.toString();
+    }
+
+    @Benchmark
+    public void firstOutputSequential() {
+        try {
+            TiEL.process(new Scanner(source), firstOutputStream());
+        } catch (FirstOutput e) {
+            // Expected, stops the program at its first output
+        }
+    }
+
+    @Benchmark
+    public void firstOutputPipelined() {
+        try {
+            Pipeline.process(new Scanner(source), firstOutputStream());
+        } catch (FirstOutput e) {
+            // Expected, stops the program at its first output
+        }
+    }
+
+    @Benchmark
+    public void totalSequential() {
+        TiEL.process(new Scanner(source), new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public void totalPipelined() {
+        Pipeline.process(new Scanner(source), new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private static PrintStream firstOutputStream() {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new FirstOutput();
+            }
+        });
+    }
+
+    /**
+     * Thrown when the program writes its first output.
+     */
+    private static final class FirstOutput extends RuntimeException {
+        FirstOutput() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.scanning.ParallelScanner;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link ParallelScanner} scales with the number of cores compared to the sequential
+ * {@link Scanner} on a large generated source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScannerBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int cores;
+
+    @Param({"200000"})
+    public int functions;
+
+    private String source;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        var sb = new StringBuilder();
+        for (var i = 0; i < functions; i++) {
+            sb.append("// Function number ").append(i).append('\n')
+                    .append("fun f").append(i).append("(a, b) {\n")
+                    .append("    var s = \"multi\n    line\";\n")
+                    .append("    if a < 0x1F then return a * 2.5 + b; else return f").append(i).append("(a - 1, b);\n")
+                    .append("}\n");
+        }
+        source = sb.toString();
+        pool = new ForkJoinPool(cores);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Token> sequential() {
+        return new Scanner(source).scanTokens();
+    }
+
+    @Benchmark
+    public List<Token> parallel() {
+        return new ParallelScanner(source, pool).scanTokens();
+    }
+}
@@ -0,0 +1,69 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways a host can run a TiEL script through {@code javax.script}: evaluating the source (cached by
+ * the engine), evaluating a compiled script, and invoking a single function, with scanning, parsing and running
+ * the script by {@link TiEL#process(String, PrintStream)} as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptEngineBenchmark {
+
+    private static final String SCRIPT = """
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+var result = fib(input);
+""";
+
+    private ScriptEngine engine;
+    private CompiledScript compiled;
+    private PrintStream discard;
+
+    @Setup
+    public void setUp() throws ScriptException {
+        engine = new ScriptEngineManager().getEngineByName("tiel");
+        engine.getContext().setWriter(new StringWriter());
+        engine.put("input", 10);
+        compiled = ((Compilable) engine).compile(SCRIPT);
+        engine.eval(SCRIPT);
+        discard = new PrintStream(PrintStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void process() {
+        TiEL.process("var input = 10;" + SCRIPT, discard);
+    }
+
+    @Benchmark
+    public Object eval() throws ScriptException {
+        return engine.eval(SCRIPT);
+    }
+
+    @Benchmark
+    public Object compiled() throws ScriptException {
+        return compiled.eval();
+    }
+
+    @Benchmark
+    public Object invokeFunction() throws ScriptException, NoSuchMethodException {
+        return ((Invocable) engine).invokeFunction("fib", 10);
+    }
+}
@@ -0,0 +1,90 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures summing the squares below 10^10 of the integers below 200,000, as a fused sequence pipeline, as a
+ * pipeline of loops materializing each step in an array, and as a single hand-written {@code while} loop. All
+ * variants call the same functions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SequenceBenchmark {
+
+    private static final String FUNCTIONS = """
+fun square(x) { return x * x; }
+fun small(x) { return x < 10000000000; }
+fun add(sum, x) { return sum + x; }
+""";
+
+    private static final String SEQUENCE = FUNCTIONS + """
+var sum = reduce(filter(map(range(0, 200000), square), small), add, 0);
+""";
+
+    private static final String ARRAY = FUNCTIONS + """
+var numbers = [];
+var i = 0;
+while i < 200000 do {
+    push(numbers, i);
+    i = i + 1;
+}
+var squares = [];
+i = 0;
+while i < len(numbers) do {
+    push(squares, square(numbers[i]));
+    i = i + 1;
+}
+var filtered = [];
+i = 0;
+while i < len(squares) do {
+    if small(squares[i]) then push(filtered, squares[i]);
+    i = i + 1;
+}
+var sum = 0;
+i = 0;
+while i < len(filtered) do {
+    sum = add(sum, filtered[i]);
+    i = i + 1;
+}
+""";
+
+    private static final String WHILE = FUNCTIONS + """
+var sum = 0;
+var i = 0;
+while i < 200000 do {
+    var x = square(i);
+    if small(x) then sum = add(sum, x);
+    i = i + 1;
+}
+""";
+
+    @Param({"sequence", "array", "while"})
+    public String style;
+
+    private CompiledProgram program;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(switch (style) {
+            case "sequence" -> SEQUENCE;
+            case "array" -> ARRAY;
+            default -> WHILE;
+        });
+    }
+
+    @Benchmark
+    public Object sumOfSquares() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        program.execute(context);
+        return context.declarations().get("sum");
+    }
+}
@@ -0,0 +1,69 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.server.Response;
+import de.thm.asc.tiel.interpreter.server.ScriptClient;
+import de.thm.asc.tiel.interpreter.server.ScriptServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of running a small script on a {@link ScriptServer} with starting a new JVM for every
+ * script, as `java -jar TiEL.jar script.tiel` does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ServerBenchmark {
+
+    private static final String SCRIPT = """
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+print(fib(15));
+""";
+
+    private ScriptServer server;
+    private ScriptClient client;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = ScriptServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                ScriptServer.Limits.DEFAULT);
+        client = new ScriptClient(server.address());
+        file = Files.createTempFile("benchmark", ".tiel");
+        Files.writeString(file, SCRIPT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public Response server() throws IOException {
+        return client.run(file);
+    }
+
+    @Benchmark
+    public int jvmPerScript() throws IOException, InterruptedException {
+        var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                TiEL.class.getName(), file.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return process.waitFor();
+    }
+}
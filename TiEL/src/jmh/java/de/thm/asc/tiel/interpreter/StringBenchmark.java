@@ -0,0 +1,50 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures appending {@code count} fragments to a string in a {@code while} loop and printing the result. Since
+ * appends take amortized constant time, the time should grow linearly with the count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StringBenchmark {
+
+    private static final String SOURCE = """
+var s = "";
+var i = 0;
+while i < count do {
+    s = s + "fragment";
+    i = i + 1;
+}
+print(s);
+var length = len(s);
+""";
+
+    @Param({"10000", "100000", "1000000"})
+    public int count;
+
+    private CompiledProgram program;
+
+    @Setup
+    public void setUp() {
+        program = CompiledProgram.compile(SOURCE);
+    }
+
+    @Benchmark
+    public Object append() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("count", (double) count);
+        program.execute(context);
+        return context.declarations().get("length");
+    }
+}
@@ -0,0 +1,72 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dot product of two arrays of numbers, computed by an interpreted loop or by the built-in function
+ * {@code vdot}. The arrays are created once, so that only the computation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VectorBenchmark {
+
+    private static final String SETUP = """
+var a = [];
+var b = [];
+var i = 0;
+while i < size do {
+    push(a, i);
+    push(b, size - i);
+    i = i + 1;
+}
+""";
+
+    private static final String LOOP = """
+var result = 0;
+var i = 0;
+while i < len(a) do {
+    result = result + a[i] * b[i];
+    i = i + 1;
+}
+""";
+
+    private static final String BUILTIN = "var result = vdot(a, b);";
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean builtin;
+
+    private CompiledProgram program;
+    private Object a;
+    private Object b;
+
+    @Setup
+    public void setUp() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("size", (double) size);
+        CompiledProgram.compile(SETUP).execute(context);
+        a = context.declarations().get("a");
+        b = context.declarations().get("b");
+        program = CompiledProgram.compile(builtin ? BUILTIN : LOOP);
+    }
+
+    @Benchmark
+    public Object dot() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("a", a);
+        context.define("b", b);
+        program.execute(context);
+        return context.declarations().get("result");
+    }
+}
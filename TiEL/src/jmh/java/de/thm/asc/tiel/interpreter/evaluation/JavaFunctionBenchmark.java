@@ -0,0 +1,77 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.CompiledProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calls of {@link Math#sqrt(double)} bound as a {@link JavaFunction}, as a hand-written
+ * {@link NativeFunction} unpacking its argument list like the built-in functions do, and as a native function
+ * calling the method by reflection: 200,000 calls from a TiEL loop, and single calls of the function with a given
+ * argument list, which leave out the rest of the interpreter. This benchmark lives in the evaluation package, since
+ * native functions cannot be written outside of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JavaFunctionBenchmark {
+
+    private static final String SOURCE = """
+var sum = 0;
+for i = 0 to 200000 do sum = sum + sqrt(i);
+""";
+
+    @Param({"method-handle", "hand-written", "reflection"})
+    public String binding;
+
+    private CompiledProgram program;
+    private TiELCallable sqrt;
+    private final List<Object> arguments = new ArrayList<>(List.of(2.0));
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        program = CompiledProgram.compile(SOURCE);
+        var method = Math.class.getMethod("sqrt", double.class);
+        sqrt = switch (binding) {
+            case "method-handle" -> JavaFunction.of(method);
+            case "hand-written" -> new NativeFunction("sqrt", 1, (evaluator, arguments) -> {
+                if (!(arguments.getFirst() instanceof Number number)) {
+                    throw new RuntimeException("Expected a number.");
+                }
+                return Math.sqrt(number.doubleValue());
+            });
+            default -> new NativeFunction("sqrt", 1, (evaluator, arguments) -> invoke(method, arguments.getFirst()));
+        };
+    }
+
+    private static Object invoke(Method method, Object argument) {
+        try {
+            return method.invoke(null, ((Number) argument).doubleValue());
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Object sumOfRoots() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        context.define("sqrt", sqrt);
+        program.execute(context);
+        return context.declarations().get("sum");
+    }
+
+    @Benchmark
+    public Object call() {
+        return sqrt.call(null, arguments);
+    }
+}
@@ -0,0 +1,107 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+import de.thm.asc.tiel.interpreter.evaluation.Evaluator;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+
+import java.util.List;
+
+/**
+ * A CompiledProgram is a parsed program that can be executed any number of times, also concurrently by many
+ * threads. The program itself is immutable: every execution gets its own {@link ExecutionContext} with its own
+ * global variables and output stream, so executions neither interfere with each other nor need any locking.
+ */
+public final class CompiledProgram {
+
+    private final List<Stmt> statements;
+
+    private CompiledProgram(List<Stmt> statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Scans and parses the given source.
+     *
+     * @param source The source of the program.
+     * @return The compiled program.
+     * @throws de.thm.asc.tiel.interpreter.error.ScanningError If the source cannot be scanned.
+     * @throws de.thm.asc.tiel.interpreter.error.ParsingError  If the source cannot be parsed.
+     */
+    public static CompiledProgram compile(String source) {
+        return of(new Parser(new Scanner(source)).parse());
+    }
+
+    /**
+     * Wraps already parsed statements, e.g. loaded from the {@link de.thm.asc.tiel.interpreter.cache.ProgramCache}.
+     * The statements must not be modified afterwards.
+     *
+     * @param statements The statements of the program.
+     * @return The compiled program.
+     */
+    public static CompiledProgram of(List<Stmt> statements) {
+        return new CompiledProgram(List.copyOf(statements));
+    }
+
+    /**
+     * Returns the statements of the program.
+     *
+     * @return The unmodifiable list of statements.
+     */
+    public List<Stmt> statements() {
+        return statements;
+    }
+
+    /**
+     * Scans, parses and executes the given source in the given context. Unlike {@link #compile(String)} and
+     * {@link #execute(ExecutionContext)}, this method reports errors in the program by its result.
+     *
+     * @param source  The source of the program.
+     * @param context The context of the execution. It must not be used by another execution at the same time.
+     * @return The outcome of the execution.
+     */
+    public static ExecutionResult run(String source, ExecutionContext context) {
+        CompiledProgram program;
+        try {
+            program = compile(source);
+        } catch (ScanningError e) {
+            return ExecutionResult.of(e);
+        } catch (ParsingError e) {
+            return ExecutionResult.of(e);
+        }
+        return program.run(context);
+    }
+
+    /**
+     * Executes the program in the given context. Unlike {@link #execute(ExecutionContext)}, this method reports
+     * errors in the program by its result.
+     *
+     * @param context The context of the execution. It must not be used by another execution at the same time.
+     * @return The outcome of the execution.
+     */
+    public ExecutionResult run(ExecutionContext context) {
+        try {
+            execute(context);
+        } catch (RuntimeError e) {
+            return ExecutionResult.of(e);
+        } catch (StackOverflowError e) {
+            return ExecutionResult.of(new RuntimeError("Stack overflow."));
+        }
+        return ExecutionResult.SUCCESS;
+    }
+
+    /**
+     * Executes the program in the given context.
+     *
+     * @param context The context of the execution. It must not be used by another execution at the same time.
+     * @throws de.thm.asc.tiel.interpreter.error.RuntimeError If the execution fails or exceeds a limit of the
+     *                                                        context.
+     */
+    public void execute(ExecutionContext context) {
+        new Evaluator(context).interpret(statements);
+    }
+}
@@ -0,0 +1,119 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+import de.thm.asc.tiel.interpreter.error.StackFrame;
+
+import java.util.List;
+
+/**
+ * The outcome of running a program, as returned by {@link CompiledProgram#run}. Errors in a program are
+ * reported by the result instead of an exception or the termination of the JVM, so a host can run any number of
+ * programs and decide itself how to present their errors. The command line interpreter maps failed results to
+ * its exit code.
+ *
+ * @param kind      Whether the program ran to completion, or in which phase it failed.
+ * @param message   The error message, or {@code null} if the program ran to completion.
+ * @param line      The line number where the error occurred, or 0 if it is not known.
+ * @param callStack The function calls that were active when a runtime error occurred, starting with the innermost
+ *                  call. Empty for all other results.
+ */
+public record ExecutionResult(Kind kind, String message, int line, List<StackFrame> callStack) {
+
+    /**
+     * The kind of result.
+     */
+    public enum Kind {
+        /**
+         * The program ran to completion.
+         */
+        SUCCESS,
+        /**
+         * The source could not be scanned; the program has not been run.
+         */
+        SCANNING_ERROR,
+        /**
+         * The source could not be parsed; the program has not been run.
+         */
+        PARSING_ERROR,
+        /**
+         * The program failed while running, possibly after producing some output.
+         */
+        RUNTIME_ERROR
+    }
+
+    /**
+     * The result of a program that ran to completion.
+     */
+    public static final ExecutionResult SUCCESS = new ExecutionResult(Kind.SUCCESS, null, 0, List.of());
+
+    public ExecutionResult {
+        callStack = List.copyOf(callStack);
+    }
+
+    /**
+     * Creates the result of a program that could not be scanned.
+     *
+     * @param error The scanning error.
+     * @return The result.
+     */
+    public static ExecutionResult of(ScanningError error) {
+        return new ExecutionResult(Kind.SCANNING_ERROR, error.getMessage(), error.line, List.of());
+    }
+
+    /**
+     * Creates the result of a program that could not be parsed.
+     *
+     * @param error The parsing error.
+     * @return The result.
+     */
+    public static ExecutionResult of(ParsingError error) {
+        return new ExecutionResult(Kind.PARSING_ERROR, error.getMessage(), error.line, List.of());
+    }
+
+    /**
+     * Creates the result of a program that failed while running.
+     *
+     * @param error The runtime error.
+     * @return The result.
+     */
+    public static ExecutionResult of(RuntimeError error) {
+        return new ExecutionResult(Kind.RUNTIME_ERROR, error.getMessage(), error.line, error.callStack());
+    }
+
+    /**
+     * Checks whether the program ran to completion.
+     *
+     * @return True if the program ran to completion, false if it failed.
+     */
+    public boolean succeeded() {
+        return kind == Kind.SUCCESS;
+    }
+
+    /**
+     * Returns the error in the format used by the command line interpreter, with one line per stack frame.
+     *
+     * @return The formatted error, or an empty string if the program ran to completion.
+     */
+    @Override
+    public String toString() {
+        if (succeeded()) {
+            return "";
+        }
+
+        var text = new StringBuilder();
+        if (line > 0) {
+            text.append(String.format("Error on line %s: %s", line, message));
+        } else {
+            text.append(String.format("Error: %s", message));
+        }
+        for (var frame : callStack) {
+            text.append(System.lineSeparator()).append("    ").append(frame);
+        }
+        if (callStack.size() == RuntimeError.MAX_FRAMES) {
+            text.append(System.lineSeparator()).append("    ...");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.evaluation.Evaluator;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.TokenSource;
+
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs a program with scanning, parsing and evaluation overlapping each other. A producer thread scans and
+ * parses the global statements and hands them to the evaluator through a bounded queue, so every statement
+ * is executed as soon as it has been parsed instead of after the whole program has been read.
+ * <p>
+ * Global statements are executed in source order just like in {@link TiEL#process}, and function calls are
+ * resolved when they are evaluated, so functions declared further down remain callable from function bodies.
+ * The only observable difference is that the output of statements preceding a scanning or parsing error is
+ * produced before the error is reported.
+ */
+public class Pipeline {
+
+    /**
+     * The maximum number of parsed statements waiting for the evaluator.
+     */
+    private static final int CAPACITY = 64;
+
+    private Pipeline() {
+    }
+
+    /**
+     * Runs the program supplied by the given token source in pipelined mode.
+     *
+     * @param tokens The source supplying the tokens of the program.
+     * @param output The stream that receives the program output.
+     */
+    public static void process(TokenSource tokens, PrintStream output) {
+        process(new Parser(tokens), output);
+    }
+
+    /**
+     * Runs the program supplied by the given parser in pipelined mode.
+     *
+     * @param parser The parser supplying the statements of the program.
+     * @param output The stream that receives the program output.
+     */
+    public static void process(Parser parser, PrintStream output) {
+        process(parser, new ExecutionContext(output));
+    }
+
+    /**
+     * Runs the program supplied by the given parser in pipelined mode in the given context.
+     *
+     * @param parser  The parser supplying the statements of the program.
+     * @param context The context of the run.
+     */
+    public static void process(Parser parser, ExecutionContext context) {
+        var queue = new ArrayBlockingQueue<Item>(CAPACITY);
+        var producer = new Thread(() -> produce(parser, queue), "tiel-parser");
+        producer.setDaemon(true);
+        producer.start();
+
+        var evaluator = new Evaluator(context);
+        try {
+            while (true) {
+                var item = queue.take();
+                if (item.error != null) throw item.error;
+                if (item.statement == null) return;
+
+                evaluator.interpret(item.statement);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeError("Execution interrupted.");
+        } finally {
+            producer.interrupt();
+        }
+    }
+
+    /**
+     * Parses global statements and puts them into the queue until the end of the program or the first error.
+     *
+     * @param parser The parser supplying the statements.
+     * @param queue  The queue shared with the evaluator.
+     */
+    private static void produce(Parser parser, BlockingQueue<Item> queue) {
+        try {
+            Item item;
+            do {
+                try {
+                    item = new Item(parser.next(), null);
+                } catch (RuntimeException e) {
+                    item = new Item(null, e);
+                }
+                queue.put(item);
+            } while (item.statement != null);
+        } catch (InterruptedException e) {
+            // The evaluator has stopped, so nobody is waiting for further statements
+        }
+    }
+
+    /**
+     * An element passed from the parser to the evaluator: either the next statement, the end of the
+     * program (both fields {@code null}) or the error that stopped the front end.
+     */
+    private record Item(Stmt statement, RuntimeException error) {
+    }
+}
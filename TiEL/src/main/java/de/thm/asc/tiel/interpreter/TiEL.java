@@ -1,65 +1,357 @@
 package de.thm.asc.tiel.interpreter;
 
+import de.thm.asc.tiel.interpreter.analysis.PurityAnalysis;
 import de.thm.asc.tiel.interpreter.ast.AstPrinter;
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.cache.ProgramCache;
 import de.thm.asc.tiel.interpreter.cli.CommandLineParser;
-import de.thm.asc.tiel.interpreter.error.Error;
 import de.thm.asc.tiel.interpreter.error.ScanningError;
 import de.thm.asc.tiel.interpreter.evaluation.Evaluator;
 import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import de.thm.asc.tiel.interpreter.parsing.ParallelParser;
 import de.thm.asc.tiel.interpreter.parsing.Parser;
 import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.scanning.ParallelScanner;
 import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import de.thm.asc.tiel.interpreter.scanning.TokenSource;
+import de.thm.asc.tiel.interpreter.server.ScriptClient;
+import de.thm.asc.tiel.interpreter.server.ScriptServer;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main class to start the interpreter for Tiel
  */
 public class TiEL {
 
-    public static void main(String[] args) throws IOException {
-        var cli = CommandLineParser.parse(args);
+    /**
+     * The input name that makes the interpreter read the program from the standard input.
+     */
+    private static final String STDIN = "-";
 
-        var path = Path.of(cli.input);
-        var source = Files.readString(path, Charset.defaultCharset());
+    /**
+     * The time after which a daemon started by {@code --daemon} stops if it is not used.
+     */
+    private static final Duration DAEMON_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    /**
+     * The time a client waits for a daemon it has started to accept connections.
+     */
+    private static final Duration DAEMON_START_TIMEOUT = Duration.ofSeconds(10);
+
+    public static void main(String[] args) {
+        var code = run(args, Path.of("").toAbsolutePath(), System.in, System.out, System.err);
+        if (code != 0) {
+            System.exit(code);
+        }
+    }
+
+    /**
+     * Runs the command line interpreter. Unlike {@link #main}, this method does not terminate the JVM, so that
+     * a daemon can run many invocations in one process.
+     *
+     * @param args      The command line arguments.
+     * @param directory The working directory, against which relative input paths are resolved.
+     * @param in        The standard input.
+     * @param out       The standard output.
+     * @param err       The standard error output.
+     * @return The exit code: 0 on success, 1 on errors.
+     */
+    public static int run(String[] args, Path directory, InputStream in, PrintStream out, PrintStream err) {
+        CommandLineParser cli;
+        try {
+            cli = CommandLineParser.parse(args, out);
+        } catch (CommandLineParser.UsageError e) {
+            err.println("Usage error: " + e.getMessage());
+            CommandLineParser.showUsage(err);
+            return 1;
+        }
+
+        if (cli.fileRoot != null) {
+            // Relative to the directory of this invocation, which differs from that of a daemon
+            cli.fileRoot = directory.resolve(cli.fileRoot).toString();
+        }
 
         try {
-            if (cli.showTokens) {
-                printTokens(source);
+            if (cli.serve) {
+                serve(cli, out);
+                return 0;
             }
-            if (cli.showAst) {
-                printAst(source);
+            if (cli.daemon) {
+                return runInDaemon(args, directory, in, out, err);
             }
 
-            process(source, System.out);
+            if (cli.showTokens || cli.showAst || cli.parallelScan || cli.parallelParse || usesCache(cli)) {
+                // The source is needed several times, processed in parallel or hashed, so it is read completely
+                var source = readSource(cli.input, directory, in);
+                if (cli.showTokens) {
+                    printTokens(source, out);
+                }
+                if (cli.showAst) {
+                    printAst(source, out);
+                }
+
+                run(source, cli, out);
+            } else {
+                try (var input = openSource(cli.input, directory, in)) {
+                    run(new Scanner(input), cli, out);
+                }
+            }
         } catch (ScanningError e) {
-            Error.error(e.line, e.getMessage());
+            return exit(ExecutionResult.of(e), out);
         } catch (ParsingError e) {
-            Error.error(e.line, e.getMessage());
+            return exit(ExecutionResult.of(e), out);
         } catch (RuntimeError e) {
-            Error.error(e.getMessage());
+            return exit(ExecutionResult.of(e), out);
+        } catch (StackOverflowError e) {
+            return exit(ExecutionResult.of(new RuntimeError("Stack overflow.")), out);
+        } catch (IOException e) {
+            err.printf("Error: %s%n", e);
+            return 1;
+        }
+        return exit(ExecutionResult.SUCCESS, out);
+    }
+
+    /**
+     * Reports the result of a program and maps it to the exit code of the interpreter.
+     *
+     * @param result The result of the program.
+     * @param out    The stream receiving the error message.
+     * @return The exit code: 0 if the program ran to completion, 1 otherwise.
+     */
+    private static int exit(ExecutionResult result, PrintStream out) {
+        if (result.succeeded()) {
+            return 0;
         }
+        out.println(result);
+        return 1;
     }
 
-    private static void printTokens(String source) {
+    /**
+     * Runs a {@link ScriptServer} until the process is terminated or, with an idle timeout, until it has not
+     * been used for that long.
+     *
+     * @param cli The command line arguments.
+     * @param out The stream receiving the address the server listens on.
+     * @throws IOException If the server cannot listen on the requested address.
+     */
+    private static void serve(CommandLineParser cli, PrintStream out) throws IOException {
+        var address = cli.socket != null
+                ? UnixDomainSocketAddress.of(cli.socket)
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), cli.port);
+        var limits = new ScriptServer.Limits(cli.maxConcurrent, cli.queueDepth, Duration.ofMillis(cli.timeoutMillis));
+
+        var server = ScriptServer.start(address, limits, TiEL::run);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // The process is terminating anyway
+            }
+        }));
+        if (cli.idleTimeoutMillis > 0) {
+            server.closeWhenIdle(Duration.ofMillis(cli.idleTimeoutMillis));
+        }
+        out.println("Listening on " + server.address());
+        out.flush(); // The server runs until the process ends, so the line must not wait in a buffer
+
+        try {
+            server.awaitClose();
+        } catch (InterruptedException e) {
+            server.close();
+        }
+    }
+
+    /**
+     * Runs an invocation in the daemon, starting the daemon first if it is not running. The daemon listens on
+     * the socket {@code daemon.sock} in the cache directory and stops after ten idle minutes.
+     *
+     * @param args      The command line arguments, including {@code --daemon}.
+     * @param directory The working directory.
+     * @param in        The standard input. It is only forwarded if the program is read from it.
+     * @param out       The standard output.
+     * @param err       The standard error output.
+     * @return The exit code of the invocation.
+     * @throws IOException If the daemon cannot be started or the connection fails.
+     */
+    private static int runInDaemon(String[] args, Path directory, InputStream in, PrintStream out, PrintStream err)
+            throws IOException {
+        // Lambdas and streams are avoided on this path, since bootstrapping them would add to the startup time
+        var forwarded = new ArrayList<String>(args.length);
+        for (var arg : args) {
+            if (!arg.equals("--daemon")) forwarded.add(arg);
+        }
+        var input = forwarded.contains(STDIN) ? in.readAllBytes() : new byte[0];
+
+        var socket = UnixDomainSocketAddress.of(ProgramCache.defaultDirectory().resolve("daemon.sock"));
+        try (var client = connectToDaemon(socket)) {
+            return client.invoke(forwarded, directory, input, out, err);
+        }
+    }
+
+    private static ScriptClient connectToDaemon(UnixDomainSocketAddress socket) throws IOException {
+        try {
+            return new ScriptClient(socket);
+        } catch (IOException e) {
+            // The daemon is not running yet
+        }
+
+        Files.createDirectories(socket.getPath().getParent());
+        var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), TiEL.class.getName(),
+                "--serve", "--socket", socket.getPath().toString(),
+                "--idle-timeout", Long.toString(DAEMON_IDLE_TIMEOUT.toMillis()))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        // Another client may start a daemon at the same time, in which case one of both daemons gives up
+        var deadline = System.nanoTime() + DAEMON_START_TIMEOUT.toNanos();
+        while (true) {
+            try {
+                return new ScriptClient(socket);
+            } catch (IOException e) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IOException("The daemon did not start.", e);
+                }
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while starting the daemon.", e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the parsed program is looked up in and stored to the {@link ProgramCache}. The cache must be
+     * requested, since it needs the whole source in memory to hash it. Pipelined execution starts before the
+     * program has been parsed completely, and the standard input is streamed, so both bypass the cache. So do
+     * lazily parsed functions, since storing them would parse all of their bodies up front.
+     *
+     * @param cli The command line arguments.
+     * @return True if the cache is used, false otherwise.
+     */
+    private static boolean usesCache(CommandLineParser cli) {
+        return cli.cache && !cli.pipeline && !cli.lazyFunctions && !cli.input.equals(STDIN);
+    }
+
+    private static void run(String source, CommandLineParser cli, PrintStream out) {
+        if (!usesCache(cli) && !cli.parallelParse) {
+            run(tokens(source, cli), cli, out);
+            return;
+        }
+
+        var cache = usesCache(cli) ? new ProgramCache(ProgramCache.defaultDirectory()) : null;
+        var statements = cache != null ? cache.load(source) : null;
+        if (statements == null) {
+            statements = parse(source, cli);
+            if (cache != null) {
+                cache.store(source, statements);
+            }
+        }
+
+        execute(statements, cli, out);
+    }
+
+    private static void run(TokenSource tokens, CommandLineParser cli, PrintStream out) {
+        var parser = new Parser(tokens, cli.lazyFunctions);
+        if (cli.pipeline) {
+            Pipeline.process(parser, context(cli, out));
+        } else {
+            execute(parser.parse(), cli, out);
+        }
+    }
+
+    /**
+     * Executes a parsed program. With {@code --auto-parallel}, the program is analyzed first, so that independent
+     * calls of pure functions can be evaluated in parallel. Pipelined execution cannot be analyzed in advance and
+     * always runs sequentially.
+     *
+     * @param statements The statements of the program.
+     * @param cli        The command line arguments.
+     * @param out        The stream receiving the program output.
+     */
+    private static void execute(List<Stmt> statements, CommandLineParser cli, PrintStream out) {
+        var context = context(cli, out);
+        if (cli.autoParallel) {
+            context.setAutoParallel(new PurityAnalysis(statements));
+        }
+        new Evaluator(context).interpret(statements);
+    }
+
+    /**
+     * Creates the context of a run, allowing access to the files below the directory given by {@code --root}.
+     *
+     * @param cli The command line arguments.
+     * @param out The stream receiving the program output.
+     * @return The context.
+     */
+    private static ExecutionContext context(CommandLineParser cli, PrintStream out) {
+        var context = new ExecutionContext(out);
+        if (cli.fileRoot != null) {
+            context.setFileRoot(Path.of(cli.fileRoot));
+        }
+        return context;
+    }
+
+    private static TokenSource tokens(String source, CommandLineParser cli) {
+        return cli.parallelScan ? new ParallelScanner(source).scanTokens().iterator()::next : new Scanner(source);
+    }
+
+    private static List<Stmt> parse(String source, CommandLineParser cli) {
+        if (cli.parallelParse) {
+            var tokens = cli.parallelScan ? new ParallelScanner(source).scanTokens() : new Scanner(source).scanTokens();
+            return new ParallelParser(tokens, cli.lazyFunctions).parse();
+        }
+        return new Parser(tokens(source, cli), cli.lazyFunctions).parse();
+    }
+
+    private static String readSource(String input, Path directory, InputStream in) throws IOException {
+        if (input.equals(STDIN)) {
+            return new String(in.readAllBytes(), Charset.defaultCharset());
+        }
+        return Files.readString(directory.resolve(input), Charset.defaultCharset());
+    }
+
+    private static ReadableByteChannel openSource(String input, Path directory, InputStream in) throws IOException {
+        if (input.equals(STDIN)) {
+            return Channels.newChannel(in);
+        }
+        return FileChannel.open(directory.resolve(input));
+    }
+
+    private static void printTokens(String source, PrintStream out) {
         var tokens = new Scanner(source).scanTokens();
-        System.out.println("Tokens:");
+        out.println("Tokens:");
         for (var t : tokens) {
-            System.out.println(t);
+            out.println(t);
         }
-        System.out.println();
+        out.println();
     }
 
-    private static void printAst(String source) {
+    private static void printAst(String source, PrintStream out) {
         var tokens = new Scanner(source).scanTokens();
         var statements = new Parser(tokens).parse();
-        System.out.println("AST:");
-        System.out.println(new AstPrinter().print(statements));
-        System.out.println();
+        out.println("AST:");
+        out.println(new AstPrinter().print(statements));
+        out.println();
     }
 
     public static void process(String source, PrintStream output) {
@@ -71,4 +363,16 @@ public class TiEL {
 
     }
 
+    /**
+     * Runs the program supplied by the given token source. With a streaming {@link Scanner}, tokens are
+     * scanned on demand while parsing, so the front end never holds more than a small buffer of the source text.
+     *
+     * @param tokens The source supplying the tokens of the program.
+     * @param output The stream that receives the program output.
+     */
+    public static void process(TokenSource tokens, PrintStream output) {
+        var statements = new Parser(tokens).parse();
+        new Evaluator(output).interpret(statements);
+    }
+
 }
@@ -0,0 +1,417 @@
+package de.thm.asc.tiel.interpreter.analysis;
+
+import de.thm.asc.tiel.interpreter.ast.expr.*;
+import de.thm.asc.tiel.interpreter.ast.stmt.*;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+
+import java.util.*;
+
+/**
+ * The PurityAnalysis finds the operands of a program that can be evaluated in parallel without changing its
+ * behavior. It is the basis of the {@code --auto-parallel} mode.
+ * <p>
+ * A global function is <em>pure</em> if it neither assigns variables outside its own body nor calls a function
+ * that is not pure. Since the built-in functions print or start threads, and calls of variables other than global
+ * functions may call anything, both count as impure. A global function is only considered if its name is
+ * declared once and never assigned, so that every call of the name calls the same declaration.
+ * <p>
+ * A function is <em>expensive</em> if it is recursive, contains a loop or calls an expensive function. The
+ * operands of a binary expression, the arguments of a call or the elements of an array literal are evaluated in
+ * parallel if all of them are pure and at least two of them call expensive functions. Apart from the first, these
+ * expensive operands are <em>forked</em>, i.e. evaluated by other threads while the current thread evaluates the
+ * rest. Cheap operands are never forked, since starting a task would take longer than evaluating them.
+ * <p>
+ * Since pure operands neither print nor assign variables, they cannot observe each other, and the output of the
+ * program is the same as in sequential order. Function bodies that cannot be parsed are treated as impure, so
+ * that the error is reported when the function is called, as usual.
+ */
+public final class PurityAnalysis {
+
+    private static final int SIDE_EFFECT = 1; // Assigns a variable outside the current function or calls anything impure
+    private static final int ASSIGNS = 2; // Assigns a local variable
+    private static final int EXPENSIVE = 4; // Calls an expensive function or contains a loop
+
+    private final Map<String, FunctionDeclStmt> functions = new HashMap<>();
+    private final Set<String> pure = new HashSet<>();
+    private final Set<String> expensive = new HashSet<>();
+    private final Set<Expr> parallel = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Expr> forked = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Analyzes a program.
+     *
+     * @param statements The global statements of the program.
+     */
+    public PurityAnalysis(List<Stmt> statements) {
+        collectFunctions(statements);
+
+        var summaries = new HashMap<String, Walker>();
+        for (var function : functions.values()) {
+            var walker = new Walker(false);
+            walker.function(function);
+            summaries.put(function.name.lexeme(), walker);
+        }
+        computePurity(summaries);
+        computeCost(summaries);
+
+        var marker = new Walker(true);
+        for (var statement : statements) {
+            marker.statement(statement);
+        }
+    }
+
+    /**
+     * Checks whether a global function is pure.
+     *
+     * @param function The name of the function.
+     * @return True if the function is pure, false otherwise.
+     */
+    public boolean isPure(String function) {
+        return pure.contains(function);
+    }
+
+    /**
+     * Checks whether the operands of a binary expression, the arguments of a call or the elements of an array
+     * can be evaluated in parallel.
+     *
+     * @param expr The binary expression, call or array.
+     * @return True if the operands can be evaluated in parallel, false otherwise.
+     */
+    public boolean isParallel(Expr expr) {
+        return parallel.contains(expr);
+    }
+
+    /**
+     * Checks whether an operand of a parallel expression is evaluated by another thread.
+     *
+     * @param operand The operand.
+     * @return True if the operand is forked, false if it is evaluated by the current thread.
+     */
+    public boolean isForked(Expr operand) {
+        return forked.contains(operand);
+    }
+
+    /**
+     * Collects the global functions whose names are declared once and never assigned.
+     */
+    private void collectFunctions(List<Stmt> statements) {
+        var declarations = new HashMap<String, Integer>();
+        for (var statement : statements) {
+            if (statement instanceof FunctionDeclStmt function) {
+                functions.put(function.name.lexeme(), function);
+                declarations.merge(function.name.lexeme(), 1, Integer::sum);
+            } else if (statement instanceof VarDeclStmt variable) {
+                declarations.merge(variable.name.lexeme(), 1, Integer::sum);
+            }
+        }
+        declarations.forEach((name, count) -> {
+            if (count > 1) functions.remove(name);
+        });
+
+        var assigned = new Walker(false);
+        for (var statement : statements) {
+            assigned.statement(statement);
+        }
+        functions.keySet().removeAll(assigned.assignedNames);
+    }
+
+    /**
+     * Starts from all functions without side effects of their own and removes those calling impure functions
+     * until nothing changes, so that recursive functions can be pure.
+     */
+    private void computePurity(Map<String, Walker> summaries) {
+        summaries.forEach((name, summary) -> {
+            if ((summary.flags & SIDE_EFFECT) == 0) pure.add(name);
+        });
+
+        var changed = true;
+        while (changed) {
+            changed = pure.removeIf(name -> !pure.containsAll(summaries.get(name).callees));
+        }
+    }
+
+    /**
+     * Marks the functions that contain loops or can call themselves, and then the functions calling them.
+     */
+    private void computeCost(Map<String, Walker> summaries) {
+        summaries.forEach((name, summary) -> {
+            if ((summary.flags & EXPENSIVE) != 0 || reaches(name, name, summaries, new HashSet<>())) {
+                expensive.add(name);
+            }
+        });
+
+        var changed = true;
+        while (changed) {
+            changed = false;
+            for (var entry : summaries.entrySet()) {
+                if (!expensive.contains(entry.getKey())
+                        && !Collections.disjoint(entry.getValue().callees, expensive)) {
+                    changed |= expensive.add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private static boolean reaches(String from, String to, Map<String, Walker> summaries, Set<String> visited) {
+        for (var callee : summaries.get(from).callees) {
+            if (callee.equals(to)) return true;
+            if (visited.add(callee) && reaches(callee, to, summaries, visited)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Walks statements, resolving names against the enclosing local scopes. Every expression and statement
+     * yields the flags of its effects. Without marking, the walker records the global functions called and the
+     * names assigned; with marking, it also records the parallel expressions and forked operands.
+     */
+    private final class Walker implements ExprVisitor<Integer>, StmtVisitor<Integer> {
+
+        private final boolean mark;
+        private final Deque<Set<String>> scopes = new ArrayDeque<>();
+        private int functionScopes; // Number of scopes enclosing the current function body
+        private int flags;
+        private final Set<String> callees = new HashSet<>();
+        private final Set<String> assignedNames = new HashSet<>();
+
+        Walker(boolean mark) {
+            this.mark = mark;
+        }
+
+        /**
+         * Walks the body of a function and stores its flags.
+         */
+        void function(FunctionDeclStmt function) {
+            flags = body(function);
+        }
+
+        int statement(Stmt statement) {
+            return statement.accept(this);
+        }
+
+        private int expression(Expr expr) {
+            return expr.accept(this);
+        }
+
+        private int body(FunctionDeclStmt function) {
+            List<Stmt> body;
+            try {
+                body = function.body();
+            } catch (ParsingError e) {
+                return SIDE_EFFECT;
+            }
+
+            var outerFunctionScopes = functionScopes;
+            functionScopes = scopes.size();
+            var parameters = new HashSet<String>();
+            for (var param : function.params) {
+                parameters.add(param.lexeme());
+            }
+            scopes.push(parameters);
+            try {
+                return statements(body);
+            } finally {
+                scopes.pop();
+                functionScopes = outerFunctionScopes;
+            }
+        }
+
+        private int statements(List<Stmt> statements) {
+            var result = 0;
+            for (var statement : statements) {
+                result |= statement(statement);
+            }
+            return result;
+        }
+
+        /**
+         * Returns how many scopes enclose the innermost declaration of a name, or -1 if it is not local.
+         */
+        private int resolve(String name) {
+            var depth = scopes.size();
+            for (var scope : scopes) {
+                depth--;
+                if (scope.contains(name)) return depth;
+            }
+            return -1;
+        }
+
+        private void declare(String name) {
+            if (!scopes.isEmpty()) scopes.peek().add(name);
+        }
+
+        /**
+         * Records a binary expression, call or array whose operands can be evaluated in parallel.
+         */
+        private void markParallel(Expr expr, List<Expr> operands, int[] operandFlags) {
+            var expensiveOperands = 0;
+            for (var f : operandFlags) {
+                if ((f & (SIDE_EFFECT | ASSIGNS)) != 0) return;
+                if ((f & EXPENSIVE) != 0) expensiveOperands++;
+            }
+            if (expensiveOperands < 2) return;
+
+            parallel.add(expr);
+            var first = true;
+            for (var i = 0; i < operands.size(); i++) {
+                if ((operandFlags[i] & EXPENSIVE) == 0) continue;
+                if (!first) forked.add(operands.get(i));
+                first = false;
+            }
+        }
+
+        @Override
+        public Integer visitArrayExpr(ArrayExpr expr) {
+            var elements = new int[expr.elements.size()];
+            var result = 0;
+            for (var i = 0; i < elements.length; i++) {
+                elements[i] = expression(expr.elements.get(i));
+                result |= elements[i];
+            }
+            if (mark) markParallel(expr, expr.elements, elements);
+            return result;
+        }
+
+        @Override
+        public Integer visitAssignExpr(AssignExpr expr) {
+            var name = expr.name.lexeme();
+            var depth = resolve(name);
+            if (depth < 0) assignedNames.add(name);
+
+            var effect = depth >= functionScopes ? ASSIGNS : SIDE_EFFECT;
+            return expression(expr.value) | effect;
+        }
+
+        @Override
+        public Integer visitBinaryExpr(BinaryExpr expr) {
+            var left = expression(expr.left);
+            var right = expression(expr.right);
+            if (mark) markParallel(expr, List.of(expr.left, expr.right), new int[]{left, right});
+            return left | right;
+        }
+
+        @Override
+        public Integer visitCallExpr(CallExpr expr) {
+            var result = callee(expr.callee);
+
+            var arguments = new int[expr.arguments.size()];
+            for (var i = 0; i < arguments.length; i++) {
+                arguments[i] = expression(expr.arguments.get(i));
+                result |= arguments[i];
+            }
+            if (mark) markParallel(expr, expr.arguments, arguments);
+            return result;
+        }
+
+        private int callee(Expr callee) {
+            if (!(callee instanceof VariableExpr variable)) {
+                return expression(callee) | SIDE_EFFECT;
+            }
+
+            var name = variable.name.lexeme();
+            if (resolve(name) >= 0 || !functions.containsKey(name)) {
+                return SIDE_EFFECT;
+            }
+            callees.add(name);
+            if (!mark) return 0; // Not known yet
+
+            return (pure.contains(name) ? 0 : SIDE_EFFECT) | (expensive.contains(name) ? EXPENSIVE : 0);
+        }
+
+        @Override
+        public Integer visitIndexExpr(IndexExpr expr) {
+            return expression(expr.object) | expression(expr.index);
+        }
+
+        @Override
+        public Integer visitIndexAssignExpr(IndexAssignExpr expr) {
+            // The array may be shared with the caller, so modifying it is always a side effect
+            return expression(expr.object) | expression(expr.index) | expression(expr.value) | SIDE_EFFECT;
+        }
+
+        @Override
+        public Integer visitLiteralExpr(LiteralExpr expr) {
+            return 0;
+        }
+
+        @Override
+        public Integer visitLogicalExpr(LogicalExpr expr) {
+            return expression(expr.left) | expression(expr.right);
+        }
+
+        @Override
+        public Integer visitUnaryExpr(UnaryExpr expr) {
+            return expression(expr.right);
+        }
+
+        @Override
+        public Integer visitVariableExpr(VariableExpr expr) {
+            return 0;
+        }
+
+        @Override
+        public Integer visitBlockStmt(BlockStmt stmt) {
+            scopes.push(new HashSet<>());
+            try {
+                return statements(stmt.statements);
+            } finally {
+                scopes.pop();
+            }
+        }
+
+        @Override
+        public Integer visitExpressionStmt(ExpressionStmt stmt) {
+            return expression(stmt.expression);
+        }
+
+        @Override
+        public Integer visitForStmt(ForStmt stmt) {
+            var result = expression(stmt.start) | expression(stmt.end);
+            if (stmt.step != null) result |= expression(stmt.step);
+
+            scopes.push(new HashSet<>(Set.of(stmt.name.lexeme())));
+            try {
+                return result | statement(stmt.body) | EXPENSIVE;
+            } finally {
+                scopes.pop();
+            }
+        }
+
+        @Override
+        public Integer visitFunctionDeclStmt(FunctionDeclStmt stmt) {
+            declare(stmt.name.lexeme());
+            body(stmt); // Declaring a function has no effect; calling it is judged at the call
+            return 0;
+        }
+
+        @Override
+        public Integer visitIfStmt(IfStmt stmt) {
+            var result = expression(stmt.condition) | statement(stmt.thenBranch);
+            if (stmt.elseBranch != null) result |= statement(stmt.elseBranch);
+            return result;
+        }
+
+        @Override
+        public Integer visitReturnStmt(ReturnStmt stmt) {
+            return stmt.value == null ? 0 : expression(stmt.value);
+        }
+
+        @Override
+        public Integer visitVarDeclStmt(VarDeclStmt stmt) {
+            var result = expression(stmt.initializer);
+            declare(stmt.name.lexeme());
+            return result;
+        }
+
+        @Override
+        public Integer visitWhileStmt(WhileStmt stmt) {
+            return expression(stmt.condition) | statement(stmt.body) | EXPENSIVE;
+        }
+
+        @Override
+        public Integer visitYieldStmt(YieldStmt stmt) {
+            // Yielding hands a value to the thread calling next, so generators are never run in parallel
+            return (stmt.value == null ? 0 : expression(stmt.value)) | SIDE_EFFECT;
+        }
+    }
+}
@@ -47,6 +47,11 @@ public class AstPrinter implements ExprVisitor<String>, StmtVisitor<String> {
         return sb.toString();
     }
 
+    @Override
+    public String visitArrayExpr(ArrayExpr expr) {
+        return sExpr(ArrayExpr.class.getSimpleName(), expr.elements);
+    }
+
     @Override
     public String visitAssignExpr(AssignExpr expr) {
         return sExpr(AssignExpr.class.getSimpleName(), expr.name.lexeme(), expr.value);
@@ -62,6 +67,16 @@ public class AstPrinter implements ExprVisitor<String>, StmtVisitor<String> {
         return sExpr(CallExpr.class.getSimpleName(), expr.callee, expr.arguments);
     }
 
+    @Override
+    public String visitIndexExpr(IndexExpr expr) {
+        return sExpr(IndexExpr.class.getSimpleName(), expr.object, expr.index);
+    }
+
+    @Override
+    public String visitIndexAssignExpr(IndexAssignExpr expr) {
+        return sExpr(IndexAssignExpr.class.getSimpleName(), expr.object, expr.index, expr.value);
+    }
+
     @Override
     public String visitLiteralExpr(LiteralExpr expr) {
         if (expr.value == null) return sExpr(LiteralExpr.class.getSimpleName(), "nil");
@@ -93,12 +108,17 @@ public class AstPrinter implements ExprVisitor<String>, StmtVisitor<String> {
         return sExpr(ExpressionStmt.class.getSimpleName(), stmt.expression);
     }
 
+    @Override
+    public String visitForStmt(ForStmt stmt) {
+        return sExpr(ForStmt.class.getSimpleName(), stmt.name, stmt.start, stmt.end, stmt.step, stmt.body);
+    }
+
     @Override
     public String visitFunctionDeclStmt(FunctionDeclStmt stmt) {
         var params = stmt.params.stream()
                 .map(Token::lexeme)
                 .toArray();
-        var body = stmt.body.toArray();
+        var body = stmt.body().toArray();
 
         return sExpr(FunctionDeclStmt.class.getSimpleName(), stmt.name.lexeme(), sExpr("Params", params), sExpr("Body", body));
     }
@@ -126,6 +146,12 @@ public class AstPrinter implements ExprVisitor<String>, StmtVisitor<String> {
         return sExpr(WhileStmt.class.getSimpleName(), stmt.condition, stmt.body);
     }
 
+    @Override
+    public String visitYieldStmt(YieldStmt stmt) {
+        if (stmt.value == null) return sExpr(YieldStmt.class.getSimpleName());
+        return sExpr(YieldStmt.class.getSimpleName(), stmt.value);
+    }
+
     private String sExpr(String name, Object... parts) {
         var joinedParts = Arrays.stream(parts)
                 .map(this::stringify)
@@ -0,0 +1,196 @@
+package de.thm.asc.tiel.interpreter.ast;
+
+import de.thm.asc.tiel.interpreter.ast.expr.*;
+import de.thm.asc.tiel.interpreter.ast.stmt.*;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import de.thm.asc.tiel.interpreter.scanning.TokenType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.thm.asc.tiel.interpreter.ast.AstWriter.*;
+
+/**
+ * The AstReader class reads an abstract syntax tree that has been serialized by {@link AstWriter}.
+ */
+public class AstReader {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final ByteBuffer in;
+    private final List<String> strings = new ArrayList<>();
+
+    private AstReader(ByteBuffer in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads a list of statements from the given stream.
+     *
+     * @param in The stream to read from. It is read to its end but not closed.
+     * @return The statements that have been read.
+     * @throws IOException If reading from the stream fails, or if the stream does not contain an AST in the
+     *                     current version of the format.
+     */
+    public static List<Stmt> read(InputStream in) throws IOException {
+        return read(ByteBuffer.wrap(in.readAllBytes()));
+    }
+
+    /**
+     * Reads a list of statements from the given buffer.
+     *
+     * @param in The buffer to read from, starting at its position.
+     * @return The statements that have been read.
+     * @throws IOException If the buffer does not contain an AST in the current version of the format.
+     */
+    public static List<Stmt> read(ByteBuffer in) throws IOException {
+        var reader = new AstReader(in);
+        try {
+            if (reader.readInt() != MAGIC || reader.readInt() != VERSION) {
+                throw new IOException("Unsupported AST format.");
+            }
+
+            return reader.readStatements();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Truncated AST.");
+        }
+    }
+
+    private List<Stmt> readStatements() throws IOException {
+        var size = readCount();
+        var statements = new ArrayList<Stmt>(size);
+        for (var i = 0; i < size; i++) {
+            statements.add(readStmt());
+        }
+        return statements;
+    }
+
+    private Stmt readStmt() throws IOException {
+        var tag = in.get();
+        return switch (tag) {
+            case NULL -> null;
+            case BLOCK -> new BlockStmt(readStatements());
+            case EXPRESSION -> new ExpressionStmt(readExpr());
+            case FUNCTION -> {
+                var name = readToken();
+                var count = readCount();
+                var params = new ArrayList<Token>(count);
+                for (var i = 0; i < count; i++) {
+                    params.add(readToken());
+                }
+                var generator = in.get() != 0;
+                yield new FunctionDeclStmt(name, params, generator, readStatements());
+            }
+            case IF -> new IfStmt(readExpr(), readStmt(), readStmt());
+            case RETURN -> new ReturnStmt(readToken(), readExpr());
+            case VAR -> new VarDeclStmt(readToken(), readExpr());
+            case WHILE -> new WhileStmt(readExpr(), readStmt());
+            case FOR -> new ForStmt(readToken(), readExpr(), readExpr(), readExpr(), readStmt());
+            case YIELD -> new YieldStmt(readToken(), readExpr());
+            default -> throw new IOException("Unknown statement tag " + tag + ".");
+        };
+    }
+
+    private Expr readExpr() throws IOException {
+        var tag = in.get();
+        return switch (tag) {
+            case NULL -> null;
+            case ARRAY -> {
+                var bracket = readToken();
+                yield new ArrayExpr(bracket, readExprs());
+            }
+            case ASSIGN -> new AssignExpr(readToken(), readExpr());
+            case BINARY -> new BinaryExpr(readExpr(), readToken(), readExpr());
+            case CALL -> {
+                var callee = readExpr();
+                var paren = readToken();
+                yield new CallExpr(callee, paren, readExprs());
+            }
+            case INDEX -> new IndexExpr(readExpr(), readToken(), readExpr());
+            case INDEX_ASSIGN -> new IndexAssignExpr(readExpr(), readToken(), readExpr(), readExpr());
+            case LITERAL -> new LiteralExpr(readValue());
+            case LOGICAL -> new LogicalExpr(readExpr(), readToken(), readExpr());
+            case UNARY -> new UnaryExpr(readToken(), readExpr());
+            case VARIABLE -> new VariableExpr(readToken());
+            default -> throw new IOException("Unknown expression tag " + tag + ".");
+        };
+    }
+
+    private List<Expr> readExprs() throws IOException {
+        var count = readCount();
+        var expressions = new ArrayList<Expr>(count);
+        for (var i = 0; i < count; i++) {
+            expressions.add(readExpr());
+        }
+        return expressions;
+    }
+
+    private Token readToken() throws IOException {
+        var type = Byte.toUnsignedInt(in.get());
+        if (type >= TOKEN_TYPES.length) {
+            throw new IOException("Unknown token type " + type + ".");
+        }
+        return new Token(TOKEN_TYPES[type], readString(), readValue(), readInt());
+    }
+
+    private Object readValue() throws IOException {
+        var tag = in.get();
+        return switch (tag) {
+            case NIL_VALUE -> null;
+            case FALSE_VALUE -> false;
+            case TRUE_VALUE -> true;
+            case NUMBER_VALUE -> Double.longBitsToDouble((long) readInt() << 32 | readInt() & 0xFFFFFFFFL);
+            case STRING_VALUE -> readString();
+            case INTEGER_VALUE -> (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+            default -> throw new IOException("Unknown value tag " + tag + ".");
+        };
+    }
+
+    private String readString() throws IOException {
+        var index = readInt();
+        if (index >= 0 && index < strings.size()) {
+            return strings.get(index);
+        }
+        if (index != strings.size()) {
+            throw new IOException("Invalid string index " + index + ".");
+        }
+
+        var length = readInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new EOFException("Truncated AST.");
+        }
+        var s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        strings.add(s);
+        return s;
+    }
+
+    /**
+     * Reads the number of elements of a list. Every element takes at least one byte, so a larger number than the
+     * remaining bytes can only come from a corrupt entry and must not be used to size the list.
+     */
+    private int readCount() throws IOException {
+        var count = readInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new EOFException("Truncated AST.");
+        }
+        return count;
+    }
+
+    private int readInt() {
+        var value = 0;
+        for (var shift = 0; ; shift += 7) {
+            var b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package de.thm.asc.tiel.interpreter.ast;
+
+import de.thm.asc.tiel.interpreter.ast.expr.*;
+import de.thm.asc.tiel.interpreter.ast.stmt.*;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The AstWriter class serializes an abstract syntax tree into a compact binary format that can be read back by
+ * {@link AstReader}. Lazily parsed function bodies are parsed before they are written.
+ * <p>
+ * Every node is written as a one-byte tag followed by its children. Integers are written as variable-length
+ * quantities of seven bits per byte, and each distinct string (lexemes and string values) is written once and
+ * referred to by its index afterwards. The tree is encoded into memory and written to the stream at once.
+ */
+public class AstWriter implements ExprVisitor<Void>, StmtVisitor<Void> {
+
+    /**
+     * The version of the format. It has to be increased whenever the format or the AST classes change.
+     */
+    public static final int VERSION = 6;
+
+    static final int MAGIC = 0x5469454C; // "TiEL"
+
+    // Node tags
+    static final byte NULL = 0;
+    static final byte ASSIGN = 1;
+    static final byte BINARY = 2;
+    static final byte CALL = 3;
+    static final byte LITERAL = 4;
+    static final byte LOGICAL = 5;
+    static final byte UNARY = 6;
+    static final byte VARIABLE = 7;
+    static final byte BLOCK = 8;
+    static final byte EXPRESSION = 9;
+    static final byte FUNCTION = 10;
+    static final byte IF = 11;
+    static final byte RETURN = 12;
+    static final byte VAR = 13;
+    static final byte WHILE = 14;
+    static final byte ARRAY = 15;
+    static final byte INDEX = 16;
+    static final byte INDEX_ASSIGN = 17;
+    static final byte FOR = 18;
+    static final byte YIELD = 19;
+
+    // Value tags
+    static final byte NIL_VALUE = 0;
+    static final byte FALSE_VALUE = 1;
+    static final byte TRUE_VALUE = 2;
+    static final byte NUMBER_VALUE = 3;
+    static final byte STRING_VALUE = 4;
+    static final byte INTEGER_VALUE = 5;
+
+    private byte[] buffer = new byte[8192];
+    private int size;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private AstWriter() {
+    }
+
+    /**
+     * Writes a list of statements to the given stream.
+     *
+     * @param statements The statements to write.
+     * @param out        The stream to write to. It is flushed but not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    public static void write(List<Stmt> statements, OutputStream out) throws IOException {
+        var writer = new AstWriter();
+        writer.writeInt(MAGIC);
+        writer.writeInt(VERSION);
+        writer.writeStatements(statements);
+
+        out.write(writer.buffer, 0, writer.size);
+        out.flush();
+    }
+
+    @Override
+    public Void visitArrayExpr(ArrayExpr expr) {
+        writeTag(ARRAY);
+        writeToken(expr.bracket);
+        writeInt(expr.elements.size());
+        for (var element : expr.elements) {
+            writeExpr(element);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(AssignExpr expr) {
+        writeTag(ASSIGN);
+        writeToken(expr.name);
+        writeExpr(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(BinaryExpr expr) {
+        writeTag(BINARY);
+        writeExpr(expr.left);
+        writeToken(expr.operator);
+        writeExpr(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(CallExpr expr) {
+        writeTag(CALL);
+        writeExpr(expr.callee);
+        writeToken(expr.paren);
+        writeInt(expr.arguments.size());
+        for (var argument : expr.arguments) {
+            writeExpr(argument);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIndexExpr(IndexExpr expr) {
+        writeTag(INDEX);
+        writeExpr(expr.object);
+        writeToken(expr.bracket);
+        writeExpr(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visitIndexAssignExpr(IndexAssignExpr expr) {
+        writeTag(INDEX_ASSIGN);
+        writeExpr(expr.object);
+        writeToken(expr.bracket);
+        writeExpr(expr.index);
+        writeExpr(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(LiteralExpr expr) {
+        writeTag(LITERAL);
+        writeValue(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(LogicalExpr expr) {
+        writeTag(LOGICAL);
+        writeExpr(expr.left);
+        writeToken(expr.operator);
+        writeExpr(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(UnaryExpr expr) {
+        writeTag(UNARY);
+        writeToken(expr.operator);
+        writeExpr(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(VariableExpr expr) {
+        writeTag(VARIABLE);
+        writeToken(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(BlockStmt stmt) {
+        writeTag(BLOCK);
+        writeStatements(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(ExpressionStmt stmt) {
+        writeTag(EXPRESSION);
+        writeExpr(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitForStmt(ForStmt stmt) {
+        writeTag(FOR);
+        writeToken(stmt.name);
+        writeExpr(stmt.start);
+        writeExpr(stmt.end);
+        writeExpr(stmt.step);
+        writeStmt(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclStmt(FunctionDeclStmt stmt) {
+        writeTag(FUNCTION);
+        writeToken(stmt.name);
+        writeInt(stmt.params.size());
+        for (var param : stmt.params) {
+            writeToken(param);
+        }
+        writeTag((byte) (stmt.generator ? 1 : 0));
+        writeStatements(stmt.body());
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(IfStmt stmt) {
+        writeTag(IF);
+        writeExpr(stmt.condition);
+        writeStmt(stmt.thenBranch);
+        writeStmt(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(ReturnStmt stmt) {
+        writeTag(RETURN);
+        writeToken(stmt.keyword);
+        writeExpr(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclStmt(VarDeclStmt stmt) {
+        writeTag(VAR);
+        writeToken(stmt.name);
+        writeExpr(stmt.initializer);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(WhileStmt stmt) {
+        writeTag(WHILE);
+        writeExpr(stmt.condition);
+        writeStmt(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitYieldStmt(YieldStmt stmt) {
+        writeTag(YIELD);
+        writeToken(stmt.keyword);
+        writeExpr(stmt.value);
+        return null;
+    }
+
+    private void writeStatements(List<Stmt> statements) {
+        writeInt(statements.size());
+        for (var statement : statements) {
+            writeStmt(statement);
+        }
+    }
+
+    private void writeStmt(Stmt stmt) {
+        if (stmt == null) {
+            writeTag(NULL);
+        } else {
+            stmt.accept(this);
+        }
+    }
+
+    private void writeExpr(Expr expr) {
+        if (expr == null) {
+            writeTag(NULL);
+        } else {
+            expr.accept(this);
+        }
+    }
+
+    private void writeToken(Token token) {
+        writeTag((byte) token.type().ordinal());
+        writeString(token.lexeme());
+        writeValue(token.value());
+        writeInt(token.line());
+    }
+
+    private void writeValue(Object value) {
+        switch (value) {
+            case null -> writeTag(NIL_VALUE);
+            case Boolean b -> writeTag(b ? TRUE_VALUE : FALSE_VALUE);
+            case Double d -> {
+                writeTag(NUMBER_VALUE);
+                var bits = Double.doubleToRawLongBits(d);
+                writeInt((int) (bits >>> 32));
+                writeInt((int) bits);
+            }
+            case Long l -> {
+                writeTag(INTEGER_VALUE);
+                writeInt((int) (l >>> 32));
+                writeInt((int) (long) l);
+            }
+            case String s -> {
+                writeTag(STRING_VALUE);
+                writeString(s);
+            }
+            default -> throw new IllegalArgumentException("Cannot serialize value of " + value.getClass() + ".");
+        }
+    }
+
+    private void writeString(String s) {
+        var index = strings.get(s);
+        if (index != null) {
+            writeInt(index);
+            return;
+        }
+
+        // A new string is announced by the next free index and followed by its UTF-8 bytes
+        writeInt(strings.size());
+        strings.put(s, strings.size());
+        var bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void writeTag(byte tag) {
+        ensureCapacity(1);
+        buffer[size++] = tag;
+    }
+
+    /**
+     * Writes an integer as a variable-length quantity, least significant group of seven bits first.
+     *
+     * @param value The integer to write. Negative values take five bytes.
+     */
+    private void writeInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[size++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (size + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.thm.asc.tiel.interpreter.ast.expr;
+
+import de.thm.asc.tiel.interpreter.scanning.Token;
+
+import java.util.List;
+
+public class ArrayExpr extends Expr {
+
+    public final Token bracket;
+    public final List<Expr> elements;
+
+    public ArrayExpr(Token bracket, List<Expr> elements) {
+        this.bracket = bracket;
+        this.elements = elements;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visitArrayExpr(this);
+    }
+}
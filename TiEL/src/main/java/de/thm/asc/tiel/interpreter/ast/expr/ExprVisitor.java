@@ -6,9 +6,12 @@ package de.thm.asc.tiel.interpreter.ast.expr;
  */
 public interface ExprVisitor<R> {
 
+    R visitArrayExpr(ArrayExpr expr);
     R visitAssignExpr(AssignExpr expr);
     R visitBinaryExpr(BinaryExpr expr);
     R visitCallExpr(CallExpr expr);
+    R visitIndexExpr(IndexExpr expr);
+    R visitIndexAssignExpr(IndexAssignExpr expr);
     R visitLiteralExpr(LiteralExpr expr);
     R visitLogicalExpr(LogicalExpr expr);
     R visitUnaryExpr(UnaryExpr expr);
@@ -0,0 +1,23 @@
+package de.thm.asc.tiel.interpreter.ast.expr;
+
+import de.thm.asc.tiel.interpreter.scanning.Token;
+
+public class IndexAssignExpr extends Expr {
+
+    public final Expr object;
+    public final Token bracket;
+    public final Expr index;
+    public final Expr value;
+
+    public IndexAssignExpr(Expr object, Token bracket, Expr index, Expr value) {
+        this.object = object;
+        this.bracket = bracket;
+        this.index = index;
+        this.value = value;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visitIndexAssignExpr(this);
+    }
+}
@@ -0,0 +1,21 @@
+package de.thm.asc.tiel.interpreter.ast.expr;
+
+import de.thm.asc.tiel.interpreter.scanning.Token;
+
+public class IndexExpr extends Expr {
+
+    public final Expr object;
+    public final Token bracket;
+    public final Expr index;
+
+    public IndexExpr(Expr object, Token bracket, Expr index) {
+        this.object = object;
+        this.bracket = bracket;
+        this.index = index;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visitIndexExpr(this);
+    }
+}
@@ -0,0 +1,29 @@
+package de.thm.asc.tiel.interpreter.ast.stmt;
+
+import de.thm.asc.tiel.interpreter.ast.expr.Expr;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+
+/**
+ * A counted loop {@code for name = start to end step step do body}, whose step is null if omitted.
+ */
+public class ForStmt extends Stmt {
+
+    public final Token name;
+    public final Expr start;
+    public final Expr end;
+    public final Expr step;
+    public final Stmt body;
+
+    public ForStmt(Token name, Expr start, Expr end, Expr step, Stmt body) {
+        this.name = name;
+        this.start = start;
+        this.end = end;
+        this.step = step;
+        this.body = body;
+    }
+
+    @Override
+    public <T> T accept(StmtVisitor<T> visitor) {
+        return visitor.visitForStmt(this);
+    }
+}
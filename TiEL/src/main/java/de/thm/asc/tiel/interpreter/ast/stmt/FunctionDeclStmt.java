@@ -3,19 +3,50 @@ package de.thm.asc.tiel.interpreter.ast.stmt;
 import de.thm.asc.tiel.interpreter.scanning.Token;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public class FunctionDeclStmt extends Stmt {
 
     public final Token name;
     public final List<Token> params;
-    public final List<Stmt> body;
+    public final boolean generator; // Whether the body contains a yield statement
+    private volatile List<Stmt> body;
+    private Supplier<List<Stmt>> bodyParser; // Parses the body on first access, null once parsed
 
-    public FunctionDeclStmt(Token name, List<Token> params, List<Stmt> body) {
+    public FunctionDeclStmt(Token name, List<Token> params, boolean generator, List<Stmt> body) {
         this.name = name;
         this.params = params;
+        this.generator = generator;
         this.body = body;
     }
 
+    public FunctionDeclStmt(Token name, List<Token> params, boolean generator, Supplier<List<Stmt>> bodyParser) {
+        this.name = name;
+        this.params = params;
+        this.generator = generator;
+        this.bodyParser = bodyParser;
+    }
+
+    /**
+     * Returns the statements of the function body. A lazily parsed body is parsed on the first call.
+     *
+     * @return The statements of the function body.
+     */
+    public List<Stmt> body() {
+        var result = body;
+        if (result == null) {
+            synchronized (this) {
+                result = body;
+                if (result == null) {
+                    result = bodyParser.get();
+                    body = result;
+                    bodyParser = null;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public <T> T accept(StmtVisitor<T> visitor) {
         return visitor.visitFunctionDeclStmt(this);
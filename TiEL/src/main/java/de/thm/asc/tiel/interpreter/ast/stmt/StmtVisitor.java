@@ -7,9 +7,11 @@ public interface StmtVisitor<R> {
 
     R visitBlockStmt(BlockStmt stmt);
     R visitExpressionStmt(ExpressionStmt stmt);
+    R visitForStmt(ForStmt stmt);
     R visitFunctionDeclStmt(FunctionDeclStmt stmt);
     R visitIfStmt(IfStmt stmt);
     R visitReturnStmt(ReturnStmt stmt);
     R visitVarDeclStmt(VarDeclStmt stmt);
     R visitWhileStmt(WhileStmt stmt);
+    R visitYieldStmt(YieldStmt stmt);
 }
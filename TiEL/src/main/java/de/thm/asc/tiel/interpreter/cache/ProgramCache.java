@@ -0,0 +1,238 @@
+package de.thm.asc.tiel.interpreter.cache;
+
+import de.thm.asc.tiel.interpreter.ast.AstReader;
+import de.thm.asc.tiel.interpreter.ast.AstWriter;
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The ProgramCache stores parsed programs on disk, so that unchanged sources do not have to be scanned and
+ * parsed again. Entries are serialized with {@link AstWriter} and keyed by a SHA-256 hash of the source, the
+ * AST format version and the interpreter version.
+ * <p>
+ * A cache directory may be shared by several processes. Entries are written to a temporary file and atomically
+ * moved into place, so readers never observe partially written entries, and unreadable entries are treated as
+ * missing. Loading an entry updates its modification time, which serves as its time of last use: once the total
+ * size of all entries exceeds the limit, the least recently used entries are deleted.
+ * <p>
+ * {@link AstWriter} and {@link AstReader} recurse along the nesting of the AST, while the parser does not. A program
+ * nested too deeply to be written without a stack overflow is simply not cached, so caching never changes the
+ * outcome of a run.
+ */
+public class ProgramCache {
+
+    /**
+     * The default limit for the total size of all entries in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final String SUFFIX = ".ast";
+    private static final String TEMP_PREFIX = "tmp-";
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1); // Age after which temp files are orphans
+
+    private final Path directory;
+    private final long maxSize;
+
+    /**
+     * Constructs a cache in the given directory with the default size limit.
+     *
+     * @param directory The cache directory. It is created when the first entry is stored.
+     */
+    public ProgramCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a cache in the given directory.
+     *
+     * @param directory The cache directory. It is created when the first entry is stored.
+     * @param maxSize   The limit for the total size of all entries in bytes.
+     */
+    public ProgramCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the default cache directory. It is taken from the environment variable {@code TIEL_CACHE_DIR} if
+     * set, and is the directory {@code tiel} in {@code $XDG_CACHE_HOME} or {@code ~/.cache} otherwise.
+     *
+     * @return The default cache directory.
+     */
+    public static Path defaultDirectory() {
+        var directory = System.getenv("TIEL_CACHE_DIR");
+        if (directory != null && !directory.isEmpty()) {
+            return Path.of(directory);
+        }
+
+        var cacheHome = System.getenv("XDG_CACHE_HOME");
+        if (cacheHome != null && !cacheHome.isEmpty()) {
+            return Path.of(cacheHome, "tiel");
+        }
+        return Path.of(System.getProperty("user.home"), ".cache", "tiel");
+    }
+
+    /**
+     * Loads the parsed program for the given source.
+     *
+     * @param source The source of the program.
+     * @return The statements of the program, or {@code null} if the cache holds no usable entry for the source.
+     */
+    public List<Stmt> load(String source) {
+        var entry = entry(source);
+
+        List<Stmt> statements;
+        try (var in = new BufferedInputStream(Files.newInputStream(entry))) {
+            statements = AstReader.read(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            delete(entry);
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // The entry may have been evicted concurrently, which does not affect the loaded program
+        }
+        return statements;
+    }
+
+    /**
+     * Stores the parsed program for the given source and evicts the least recently used entries if the cache
+     * exceeds its size limit. Since the cache is only an optimization, failures are silently ignored.
+     *
+     * @param source     The source of the program.
+     * @param statements The statements of the program.
+     */
+    public void store(String source, List<Stmt> statements) {
+        try {
+            Files.createDirectories(directory);
+
+            var temp = Files.createTempFile(directory, TEMP_PREFIX, ".tmp");
+            try {
+                try (var out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    AstWriter.write(statements, out);
+                }
+                move(temp, entry(source));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            evict();
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            // Running the program does not depend on the cache
+        }
+    }
+
+    /**
+     * Returns the path of the entry for the given source.
+     *
+     * @param source The source of the program.
+     * @return The path of the entry.
+     */
+    private Path entry(String source) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, AstWriter.VERSION));
+            digest.update(interpreterVersion().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+
+            return directory.resolve(HexFormat.of().formatHex(digest.digest()) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+
+    /**
+     * Returns the version of the interpreter, which the build sets to a hash of the compiled classes in the
+     * manifest of the jar, so that entries written by a different build are never loaded. Classes not loaded from
+     * the jar, e.g. in tests, have no version, and their entries are only keyed by the AST format version.
+     *
+     * @return The version, or an empty string if it is not known.
+     */
+    private static String interpreterVersion() {
+        return Objects.requireNonNullElse(ProgramCache.class.getPackage().getImplementationVersion(), "");
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits into its size limit. Temporary files left
+     * behind by crashed processes are deleted as well.
+     *
+     * @throws IOException If the cache directory cannot be listed.
+     */
+    private void evict() throws IOException {
+        record Entry(Path path, long size, FileTime lastUsed) {
+        }
+
+        var entries = new ArrayList<Entry>();
+        var total = 0L;
+        var staleBefore = Instant.now().minus(STALE_TEMP_AGE);
+
+        try (var files = Files.newDirectoryStream(directory)) {
+            for (var file : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue; // Deleted by another process in the meantime
+                }
+
+                var name = file.getFileName().toString();
+                if (name.startsWith(TEMP_PREFIX)) {
+                    if (attributes.lastModifiedTime().toInstant().isBefore(staleBefore)) {
+                        delete(file);
+                    }
+                } else if (name.endsWith(SUFFIX)) {
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                    total += attributes.size();
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (var i = 0; i < entries.size() && total > maxSize; i++) {
+            delete(entries.get(i).path());
+            total -= entries.get(i).size();
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Another process may still use the file on platforms that lock open files
+        }
+    }
+}
@@ -7,52 +7,141 @@ public class CommandLineParser {
     public String input;
     public boolean showTokens = false;
     public boolean showAst = false;
+    public boolean pipeline = false;
+    public boolean parallelScan = false;
+    public boolean parallelParse = false;
+    public boolean lazyFunctions = false;
+    public boolean autoParallel = false;
+    public boolean cache = false;
+    public boolean daemon = false;
+    public String fileRoot;
+
+    public boolean serve = false;
+    public int port = 7878;
+    public String socket;
+    public int maxConcurrent = Runtime.getRuntime().availableProcessors();
+    public int queueDepth = 64;
+    public long timeoutMillis = 10_000;
+    public long idleTimeoutMillis = 0;
+
+    /**
+     * Thrown if the command line arguments are invalid.
+     */
+    public static class UsageError extends RuntimeException {
+
+        private UsageError(String message) {
+            super(message);
+        }
+    }
 
     private CommandLineParser() {
     }
 
-    private static void showUsage(PrintStream out) {
+    public static void showUsage(PrintStream out) {
         out.println("Usage: tiel [OPTIONS] INPUT");
+        out.println("       tiel --serve [SERVER OPTIONS]");
+        out.println();
+        out.println("Use '-' as INPUT to read the program from the standard input.");
         out.println();
         out.println("Options:");
-        out.println("  --tokens     Scans the source and prints the tokens.");
-        out.println("  --ast        Scans and parses the source and prints the AST.");
-        out.println("  --help       Shows this dialog.");
+        out.println("  --tokens         Scans the source and prints the tokens.");
+        out.println("  --ast            Scans and parses the source and prints the AST.");
+        out.println("  --pipeline       Executes each global statement as soon as it has been parsed.");
+        out.println("  --parallel-scan  Scans large sources in chunks on all available cores.");
+        out.println("  --parallel-parse Parses global function declarations on all available cores.");
+        out.println("  --lazy           Checks function bodies up front but parses them on first call.");
+        out.println("  --auto-parallel  Evaluates independent calls of pure functions in parallel.");
+        out.println("  --cache          Loads the parsed program from the cache, or stores it there.");
+        out.println("  --daemon         Runs the interpreter in a background daemon, starting it if necessary.");
+        out.println("  --root DIR       Allows the file functions to access the files below DIR.");
+        out.println("  --help           Shows this dialog.");
+        out.println();
+        out.println("Server options:");
+        out.println("  --port N           Listens on the local TCP port N (default: 7878).");
+        out.println("  --socket PATH      Listens on the Unix domain socket PATH instead.");
+        out.println("  --max-concurrent N Runs at most N scripts at the same time (default: number of cores).");
+        out.println("  --queue N          Lets at most N further scripts wait for a free slot (default: 64).");
+        out.println("  --timeout MS       Aborts scripts after MS milliseconds, including waiting (default: 10000).");
+        out.println("  --idle-timeout MS  Stops the server after MS milliseconds without connections.");
     }
 
-    private static void usageError(String format, Object... args) {
-        System.err.printf("Usage error: " + format, args);
-        System.err.println();
-        showUsage(System.err);
-        System.exit(1);
+    private static UsageError usageError(String format, Object... args) {
+        return new UsageError(String.format(format, args));
     }
 
-    public static CommandLineParser parse(String[] args) {
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args The command line arguments.
+     * @param out  The stream receiving the usage for {@code --help}.
+     * @return The parsed arguments.
+     * @throws UsageError If the arguments are invalid.
+     */
+    public static CommandLineParser parse(String[] args, PrintStream out) {
         var parser = new CommandLineParser();
 
-        for (var a : args) {
+        for (var i = 0; i < args.length; i++) {
+            var a = args[i];
             switch (a) {
                 case "--tokens" -> parser.showTokens = true;
                 case "--ast" -> parser.showAst = true;
-                case "--help" -> showUsage(System.out);
+                case "--pipeline" -> parser.pipeline = true;
+                case "--parallel-scan" -> parser.parallelScan = true;
+                case "--parallel-parse" -> parser.parallelParse = true;
+                case "--lazy" -> parser.lazyFunctions = true;
+                case "--auto-parallel" -> parser.autoParallel = true;
+                case "--cache" -> parser.cache = true;
+                case "--daemon" -> parser.daemon = true;
+                case "--serve" -> parser.serve = true;
+                case "--root" -> parser.fileRoot = value(args, ++i, a);
+                case "--help" -> showUsage(out);
+                case "--port" -> parser.port = intValue(args, ++i, a, 0, 65535);
+                case "--socket" -> parser.socket = value(args, ++i, a);
+                case "--max-concurrent" -> parser.maxConcurrent = intValue(args, ++i, a, 1, Integer.MAX_VALUE);
+                case "--queue" -> parser.queueDepth = intValue(args, ++i, a, 0, Integer.MAX_VALUE);
+                case "--timeout" -> parser.timeoutMillis = intValue(args, ++i, a, 1, Integer.MAX_VALUE);
+                case "--idle-timeout" -> parser.idleTimeoutMillis = intValue(args, ++i, a, 1, Integer.MAX_VALUE);
                 default -> {
                     if (!a.startsWith("--")) {
                         if (parser.input == null) {
                             parser.input = a;
                         } else {
-                            usageError("Too many positional arguments!");
+                            throw usageError("Too many positional arguments!");
                         }
                     } else {
-                        usageError("Unknown option '%s'!", a);
+                        throw usageError("Unknown option '%s'!", a);
                     }
                 }
             }
         }
 
-        if (parser.input == null) {
-            usageError("No input file!");
+        if (parser.serve && parser.input != null) {
+            throw usageError("Too many positional arguments!");
+        }
+        if (parser.input == null && !parser.serve) {
+            throw usageError("No input file!");
         }
 
         return parser;
     }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw usageError("Option '%s' requires a value!", option);
+        }
+        return args[index];
+    }
+
+    private static int intValue(String[] args, int index, String option, int min, int max) {
+        var value = value(args, index, option);
+        try {
+            var number = Integer.parseInt(value);
+            if (number >= min && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw usageError("Invalid value '%s' for option '%s'!", value, option);
+    }
 }
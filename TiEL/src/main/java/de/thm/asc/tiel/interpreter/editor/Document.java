@@ -0,0 +1,77 @@
+package de.thm.asc.tiel.interpreter.editor;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.error.Diagnostic;
+import de.thm.asc.tiel.interpreter.parsing.IncrementalParser;
+import de.thm.asc.tiel.interpreter.scanning.IncrementalScanner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A Document is a TiEL source text that is edited, e.g. in an editor. Its tokens and global statements are kept
+ * up to date incrementally by an {@link IncrementalScanner} and an {@link IncrementalParser}, so an edit only
+ * costs time proportional to the declarations it touches rather than to the whole text.
+ * <p>
+ * A Document is not thread-safe.
+ */
+public class Document {
+
+    private final IncrementalScanner scanner;
+    private final IncrementalParser parser;
+
+    /**
+     * Constructs a Document with the given text.
+     *
+     * @param text The initial text.
+     */
+    public Document(String text) {
+        scanner = new IncrementalScanner(text);
+        parser = new IncrementalParser(scanner);
+    }
+
+    /**
+     * Replaces a region of the text.
+     *
+     * @param offset   The start of the replaced region.
+     * @param removed  The length of the replaced region.
+     * @param inserted The text to insert instead.
+     * @throws IndexOutOfBoundsException If the region is not within the text.
+     */
+    public void change(int offset, int removed, String inserted) {
+        Objects.requireNonNull(inserted);
+        parser.update(scanner.edit(offset, removed, inserted));
+    }
+
+    /**
+     * Returns the current text.
+     *
+     * @return The text.
+     */
+    public String text() {
+        return scanner.text();
+    }
+
+    /**
+     * Returns the global statements that could be parsed without errors.
+     *
+     * @return The global statements.
+     */
+    public List<Stmt> statements() {
+        return parser.statements();
+    }
+
+    /**
+     * Returns the scanning and parsing errors in the text.
+     *
+     * @return The errors, ordered by line. Scanning errors come before parsing errors on the same line.
+     */
+    public List<Diagnostic> diagnostics() {
+        var diagnostics = new ArrayList<>(scanner.errors());
+        diagnostics.addAll(parser.errors());
+        diagnostics.sort(Comparator.comparingInt(Diagnostic::line));
+        return diagnostics;
+    }
+}
@@ -0,0 +1,91 @@
+package de.thm.asc.tiel.interpreter.editor;
+
+import de.thm.asc.tiel.interpreter.error.Diagnostic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The LanguageService provides diagnostics for the open documents of an editor, following the document
+ * synchronization of the Language Server Protocol: a document is opened with its full text, changed by edits
+ * and finally closed. Each edit only re-analyzes the affected part of the document.
+ * <p>
+ * The service may be used by several threads. Edits of the same document are applied one at a time.
+ */
+public class LanguageService {
+
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a document. A document that is already open under the same URI is replaced.
+     *
+     * @param uri  The URI identifying the document.
+     * @param text The text of the document.
+     * @return The diagnostics of the document.
+     */
+    public List<Diagnostic> open(String uri, String text) {
+        var document = new Document(text);
+        documents.put(uri, document);
+        synchronized (document) {
+            return document.diagnostics();
+        }
+    }
+
+    /**
+     * Replaces a region of the text of an open document.
+     *
+     * @param uri      The URI identifying the document.
+     * @param offset   The start of the replaced region.
+     * @param removed  The length of the replaced region.
+     * @param inserted The text to insert instead.
+     * @return The diagnostics of the document after the edit.
+     * @throws IllegalArgumentException  If the document is not open.
+     * @throws IndexOutOfBoundsException If the region is not within the text.
+     */
+    public List<Diagnostic> change(String uri, int offset, int removed, String inserted) {
+        var document = document(uri);
+        synchronized (document) {
+            document.change(offset, removed, inserted);
+            return document.diagnostics();
+        }
+    }
+
+    /**
+     * Returns the diagnostics of an open document.
+     *
+     * @param uri The URI identifying the document.
+     * @return The diagnostics of the document.
+     * @throws IllegalArgumentException If the document is not open.
+     */
+    public List<Diagnostic> diagnostics(String uri) {
+        var document = document(uri);
+        synchronized (document) {
+            return document.diagnostics();
+        }
+    }
+
+    /**
+     * Returns an open document, e.g. to inspect its statements.
+     *
+     * @param uri The URI identifying the document.
+     * @return The document. It must only be accessed while holding its lock.
+     * @throws IllegalArgumentException If the document is not open.
+     */
+    public Document document(String uri) {
+        var document = documents.get(uri);
+        if (document == null) {
+            throw new IllegalArgumentException("Document " + uri + " is not open.");
+        }
+        return document;
+    }
+
+    /**
+     * Closes a document. Closing a document that is not open has no effect.
+     *
+     * @param uri The URI identifying the document.
+     */
+    public void close(String uri) {
+        documents.remove(uri);
+    }
+}
@@ -0,0 +1,20 @@
+package de.thm.asc.tiel.interpreter.error;
+
+/**
+ * A Diagnostic describes an error in a program without aborting its analysis, e.g. to be shown in an editor.
+ *
+ * @param line    The line number where the error occurred.
+ * @param message The error message describing the issue.
+ */
+public record Diagnostic(int line, String message) {
+
+    /**
+     * Returns the diagnostic in the format used by the interpreter to report errors.
+     *
+     * @return A formatted string representing the diagnostic.
+     */
+    @Override
+    public String toString() {
+        return String.format("Error on line %s: %s", line, message);
+    }
+}
@@ -1,18 +1,86 @@
 package de.thm.asc.tiel.interpreter.error;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a runtime error in the TiEL interpreter.
  * This exception is thrown when an operation encounters an invalid state,
  * such as accessing an undefined variable or performing an illegal operation.
+ * <p>
+ * Runtime errors are reported to the user and may be frequent in hosts running many scripts, so they do not
+ * capture a Java stack trace. Instead, they record the line of the failing operation and the TiEL functions that
+ * were being called.
  */
 public class RuntimeError extends RuntimeException {
 
     /**
-     * Constructs a new runtime error with the specified message.
+     * The maximum number of recorded stack frames. Further (outer) frames are omitted.
+     */
+    public static final int MAX_FRAMES = 64;
+
+    /**
+     * The line number where the error occurred, or 0 if it is not known.
+     */
+    public final int line;
+
+    private List<StackFrame> callStack; // Created when the first frame is added
+
+    /**
+     * Constructs a new runtime error with the specified message and an unknown line.
      *
      * @param message The error message describing the issue.
      */
     public RuntimeError(String message) {
-        super(message);
+        this(message, 0);
+    }
+
+    /**
+     * Constructs a new runtime error with the specified message and line number.
+     *
+     * @param message The error message describing the issue.
+     * @param line    The line number where the error occurred, or 0 if it is not known.
+     */
+    public RuntimeError(String message, int line) {
+        super(message, null, false, false);
+        this.line = line;
+    }
+
+    /**
+     * Returns this error if its line is known, or an equal error located at the given line otherwise.
+     *
+     * @param line The line number where the error occurred.
+     * @return The located error.
+     */
+    public RuntimeError at(int line) {
+        if (this.line != 0 || callStack != null) {
+            return this;
+        }
+        return new RuntimeError(getMessage(), line);
+    }
+
+    /**
+     * Records a function call the error has propagated through. Frames are added from the innermost call outwards.
+     *
+     * @param function The name of the called function.
+     * @param line     The line number of the call, or 0 if the function was called by the host.
+     */
+    public void addFrame(String function, int line) {
+        if (callStack == null) {
+            callStack = new ArrayList<>();
+        }
+        if (callStack.size() < MAX_FRAMES) {
+            callStack.add(new StackFrame(function, line));
+        }
+    }
+
+    /**
+     * Returns the function calls that were active when the error occurred.
+     *
+     * @return The frames, starting with the innermost call, or an empty list if the error occurred outside of
+     * functions.
+     */
+    public List<StackFrame> callStack() {
+        return callStack == null ? List.of() : List.copyOf(callStack);
     }
 }
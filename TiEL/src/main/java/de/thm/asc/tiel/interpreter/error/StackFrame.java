@@ -0,0 +1,20 @@
+package de.thm.asc.tiel.interpreter.error;
+
+/**
+ * A function call that was active when a {@link RuntimeError} occurred.
+ *
+ * @param function The name of the called function.
+ * @param line     The line number of the call, or 0 if the function was called by the host.
+ */
+public record StackFrame(String function, int line) {
+
+    /**
+     * Returns the frame in the format used by the interpreter to report errors.
+     *
+     * @return A formatted string representing the frame.
+     */
+    @Override
+    public String toString() {
+        return line > 0 ? String.format("in %s called on line %s", function, line) : String.format("in %s", function);
+    }
+}
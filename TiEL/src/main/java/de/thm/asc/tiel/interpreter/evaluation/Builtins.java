@@ -0,0 +1,371 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * The built-in functions of TiEL, which are defined in the global environment of every run. They do not hold
+ * any state, so all runs share the same instances.
+ */
+final class Builtins {
+
+    /**
+     * {@code print(value)} writes a value and a line break to the output of the run.
+     */
+    static final NativeFunction PRINT = new NativeFunction("print", 1, (evaluator, arguments) -> {
+        evaluator.context().out().println(Evaluator.stringify(arguments.getFirst()));
+        return null;
+    });
+
+    /**
+     * {@code spawn(f, args...)} starts calling the function {@code f} with the given arguments on another thread
+     * and returns a future for its result. See {@link ExecutionContext} for the variables visible to the function.
+     */
+    static final NativeFunction SPAWN = new NativeFunction("spawn", TiELCallable.VARIADIC, (evaluator, arguments) -> {
+        if (arguments.isEmpty()) {
+            throw new RuntimeError("Expected at least 1 arguments but got 0.");
+        }
+
+        var function = Evaluator.checkCall(arguments.getFirst(), arguments.size() - 1);
+        return evaluator.context().spawn(function, new ArrayList<>(arguments.subList(1, arguments.size())));
+    });
+
+    /**
+     * {@code await(h)} waits for the function started by {@code spawn} to finish and returns its result. If the
+     * function failed, {@code await} fails with the same error.
+     */
+    static final NativeFunction AWAIT = new NativeFunction("await", 1, (evaluator, arguments) -> {
+        if (!(arguments.getFirst() instanceof TiELFuture future)) {
+            throw new RuntimeError("Can only await futures.");
+        }
+        return future.await();
+    });
+
+    /**
+     * {@code len(x)} returns the number of elements of an array or the number of characters of a string.
+     */
+    static final NativeFunction LEN = new NativeFunction("len", 1, (evaluator, arguments) -> {
+        return switch (arguments.getFirst()) {
+            case TiELArray array -> (long) array.size();
+            case String string -> (long) string.length();
+            case TiELString string -> (long) string.length();
+            case null, default -> throw new RuntimeError("Can only get the length of arrays and strings.");
+        };
+    });
+
+    /**
+     * {@code push(a, value)} appends a value to the array {@code a} and returns the new length of the array.
+     */
+    static final NativeFunction PUSH = new NativeFunction("push", 2, (evaluator, arguments) -> {
+        if (!(arguments.getFirst() instanceof TiELArray array)) {
+            throw new RuntimeError("Can only push to arrays.");
+        }
+        array.add(arguments.get(1));
+        return (long) array.size();
+    });
+
+    /**
+     * {@code map()} returns a new, empty map. {@code map(seq, f)} returns a lazy sequence of the results of the
+     * function {@code f} for the elements of the sequence or array {@code seq}.
+     */
+    static final NativeFunction MAP = new NativeFunction("map", TiELCallable.VARIADIC, (evaluator, arguments) -> {
+        return switch (arguments.size()) {
+            case 0 -> new TiELMap();
+            case 2 -> checkSequence(arguments.getFirst()).map(Evaluator.checkCall(arguments.get(1), 1));
+            default -> throw new RuntimeError(String.format("Expected 0 or 2 arguments but got %s.",
+                    arguments.size()));
+        };
+    });
+
+    /**
+     * {@code get(m, key)} returns the value of a key in the map {@code m}, or nil if the map does not contain the
+     * key.
+     */
+    static final NativeFunction GET = new NativeFunction("get", 2, (evaluator, arguments) -> {
+        return checkMap(arguments.getFirst()).get(arguments.get(1));
+    });
+
+    /**
+     * {@code put(m, key, value)} sets the value of a key in the map {@code m} and returns the value.
+     */
+    static final NativeFunction PUT = new NativeFunction("put", 3, (evaluator, arguments) -> {
+        checkMap(arguments.getFirst()).put(arguments.get(1), arguments.get(2));
+        return arguments.get(2);
+    });
+
+    /**
+     * {@code has(m, key)} checks whether the map {@code m} contains a key.
+     */
+    static final NativeFunction HAS = new NativeFunction("has", 2, (evaluator, arguments) -> {
+        return checkMap(arguments.getFirst()).has(arguments.get(1));
+    });
+
+    /**
+     * {@code size(m)} returns the number of keys in the map {@code m}.
+     */
+    static final NativeFunction SIZE = new NativeFunction("size", 1, (evaluator, arguments) -> {
+        return (long) checkMap(arguments.getFirst()).size();
+    });
+
+    /**
+     * {@code keys(m)} returns a new array of the keys in the map {@code m}, in the order in which they were added.
+     */
+    static final NativeFunction KEYS = new NativeFunction("keys", 1, (evaluator, arguments) -> {
+        return checkMap(arguments.getFirst()).keys();
+    });
+
+    /**
+     * {@code vsum(a)} returns the sum of the numbers in the array {@code a}. This and the other vector functions
+     * use SIMD instructions if available; see {@link VectorKernels}.
+     */
+    static final NativeFunction VSUM = new NativeFunction("vsum", 1, (evaluator, arguments) -> {
+        var a = checkArray(arguments.getFirst());
+        return VectorKernels.INSTANCE.sum(numbers(a), a.size());
+    });
+
+    /**
+     * {@code vdot(a, b)} returns the dot product of two arrays of numbers of the same length.
+     */
+    static final NativeFunction VDOT = new NativeFunction("vdot", 2, (evaluator, arguments) -> {
+        var a = checkArray(arguments.getFirst());
+        var b = checkArray(arguments.get(1));
+        checkSameSize(a, b);
+        return VectorKernels.INSTANCE.dot(numbers(a), numbers(b), a.size());
+    });
+
+    /**
+     * {@code vadd(a, b)} returns a new array with the element-wise sums of two arrays of numbers of the same
+     * length.
+     */
+    static final NativeFunction VADD = new NativeFunction("vadd", 2, (evaluator, arguments) -> {
+        var a = checkArray(arguments.getFirst());
+        var b = checkArray(arguments.get(1));
+        checkSameSize(a, b);
+        var result = new double[a.size()];
+        VectorKernels.INSTANCE.add(numbers(a), numbers(b), result, result.length);
+        return new TiELArray(result);
+    });
+
+    /**
+     * {@code vscale(a, factor)} returns a new array with the numbers of the array {@code a} multiplied by a
+     * number.
+     */
+    static final NativeFunction VSCALE = new NativeFunction("vscale", 2, (evaluator, arguments) -> {
+        var a = checkArray(arguments.getFirst());
+        if (!Evaluator.isNumber(arguments.get(1))) {
+            throw new RuntimeError("Expected a number.");
+        }
+        var result = new double[a.size()];
+        VectorKernels.INSTANCE.scale(numbers(a), Evaluator.toDouble(arguments.get(1)), result, result.length);
+        return new TiELArray(result);
+    });
+
+    /**
+     * {@code vmin(a)} returns the smallest number in the non-empty array {@code a}.
+     */
+    static final NativeFunction VMIN = new NativeFunction("vmin", 1, (evaluator, arguments) -> {
+        var a = checkNotEmpty(checkArray(arguments.getFirst()));
+        return VectorKernels.INSTANCE.min(numbers(a), a.size());
+    });
+
+    /**
+     * {@code vmax(a)} returns the largest number in the non-empty array {@code a}.
+     */
+    static final NativeFunction VMAX = new NativeFunction("vmax", 1, (evaluator, arguments) -> {
+        var a = checkNotEmpty(checkArray(arguments.getFirst()));
+        return VectorKernels.INSTANCE.max(numbers(a), a.size());
+    });
+
+    /**
+     * {@code range(a, b)} returns a lazy sequence of the integers from {@code a} (inclusive) to {@code b}
+     * (exclusive). See {@link TiELSequence} for how sequences are run.
+     */
+    static final NativeFunction RANGE = new NativeFunction("range", 2, (evaluator, arguments) -> {
+        return TiELSequence.range(checkInteger(arguments.getFirst()), checkInteger(arguments.get(1)));
+    });
+
+    /**
+     * {@code filter(seq, f)} returns a lazy sequence of the elements of the sequence or array {@code seq} for which
+     * the function {@code f} returns a truthy value.
+     */
+    static final NativeFunction FILTER = new NativeFunction("filter", 2, (evaluator, arguments) -> {
+        return checkSequence(arguments.getFirst()).filter(Evaluator.checkCall(arguments.get(1), 1));
+    });
+
+    /**
+     * {@code take(seq, n)} returns a lazy sequence of at most the first {@code n} elements of the sequence or array
+     * {@code seq}.
+     */
+    static final NativeFunction TAKE = new NativeFunction("take", 2, (evaluator, arguments) -> {
+        return checkSequence(arguments.getFirst()).take(checkInteger(arguments.get(1)));
+    });
+
+    /**
+     * {@code reduce(seq, f, init)} runs the sequence or array {@code seq} and combines its elements from left to
+     * right by calling the function {@code f} with the result so far, starting with {@code init}, and the next
+     * element.
+     */
+    static final NativeFunction REDUCE = new NativeFunction("reduce", 3, (evaluator, arguments) -> {
+        var sequence = checkSequence(arguments.getFirst());
+        return sequence.reduce(evaluator, Evaluator.checkCall(arguments.get(1), 2), arguments.get(2));
+    });
+
+    /**
+     * {@code next(g)} runs the generator {@code g} up to its next {@code yield} and returns the yielded value, or
+     * nil if the generator has finished. See {@link TiELGenerator}.
+     */
+    static final NativeFunction NEXT = new NativeFunction("next", 1, (evaluator, arguments) -> {
+        return checkGenerator(arguments.getFirst()).next();
+    });
+
+    /**
+     * {@code done(g)} checks whether the generator {@code g} has finished, i.e. whether {@code next(g)} would
+     * return nil because the function has returned.
+     */
+    static final NativeFunction DONE = new NativeFunction("done", 1, (evaluator, arguments) -> {
+        return checkGenerator(arguments.getFirst()).done();
+    });
+
+    /**
+     * {@code openLines(path)} returns a lazy sequence of the lines of a text file. The file is only read while the
+     * sequence is run, line by line; see {@link LineReader}.
+     */
+    static final NativeFunction OPEN_LINES = new NativeFunction("openLines", 1, (evaluator, arguments) -> {
+        var name = checkString(arguments.getFirst());
+        var path = evaluator.context().files().resolve(name);
+        if (!Files.isRegularFile(path)) {
+            throw new RuntimeError(String.format("File '%s' not found.", name));
+        }
+        return TiELSequence.lines(path);
+    });
+
+    /**
+     * {@code readAll(path)} returns the content of a text file as a string.
+     */
+    static final NativeFunction READ_ALL = new NativeFunction("readAll", 1, (evaluator, arguments) -> {
+        return evaluator.context().files().readAll(checkString(arguments.getFirst()));
+    });
+
+    /**
+     * {@code writeLines(path, lines)} replaces the content of a text file by the elements of an array or sequence,
+     * each followed by a line break, and returns the number of lines written.
+     */
+    static final NativeFunction WRITE_LINES = new NativeFunction("writeLines", 2, (evaluator, arguments) -> {
+        var lines = checkSequence(arguments.get(1));
+        var count = new long[1];
+        try (var writer = evaluator.context().files().write(checkString(arguments.getFirst()), false)) {
+            lines.forEach(evaluator, line -> {
+                writer.writeLine(Evaluator.stringify(line));
+                count[0]++;
+            });
+        }
+        return count[0];
+    });
+
+    /**
+     * {@code appendLine(path, line)} appends a value and a line break to a text file, creating the file if
+     * necessary.
+     */
+    static final NativeFunction APPEND_LINE = new NativeFunction("appendLine", 2, (evaluator, arguments) -> {
+        try (var writer = evaluator.context().files().write(checkString(arguments.getFirst()), true)) {
+            writer.writeLine(Evaluator.stringify(arguments.get(1)));
+        }
+        return null;
+    });
+
+    private Builtins() {
+    }
+
+    private static TiELMap checkMap(Object value) {
+        if (!(value instanceof TiELMap map)) {
+            throw new RuntimeError("Expected a map.");
+        }
+        return map;
+    }
+
+    private static String checkString(Object value) {
+        if (!(value instanceof String || value instanceof TiELString)) {
+            throw new RuntimeError("Expected a string.");
+        }
+        return value.toString();
+    }
+
+    private static TiELGenerator checkGenerator(Object value) {
+        if (!(value instanceof TiELGenerator generator)) {
+            throw new RuntimeError("Expected a generator.");
+        }
+        return generator;
+    }
+
+    private static TiELSequence checkSequence(Object value) {
+        return switch (value) {
+            case TiELSequence sequence -> sequence;
+            case TiELArray array -> TiELSequence.of(array);
+            case null, default -> throw new RuntimeError("Expected a sequence or an array.");
+        };
+    }
+
+    /**
+     * Checks that a value is an integer. Doubles with an integral value are integers as well, e.g. the elements of
+     * a number array or the result of {@code 10 / 2}.
+     */
+    private static long checkInteger(Object value) {
+        return switch (value) {
+            case Long integer -> integer;
+            case Double d -> {
+                if (d != Math.rint(d)) {
+                    throw new RuntimeError("Expected an integer.");
+                }
+                if (d < -Evaluator.MAX_EXACT || d > Evaluator.MAX_EXACT) {
+                    throw new RuntimeError(String.format("Expected an integer between %s and %s.",
+                            -Evaluator.MAX_EXACT, Evaluator.MAX_EXACT));
+                }
+                yield d.longValue();
+            }
+            case null, default -> throw new RuntimeError("Expected an integer.");
+        };
+    }
+
+    private static TiELArray checkArray(Object value) {
+        if (!(value instanceof TiELArray array)) {
+            throw new RuntimeError("Expected an array of numbers.");
+        }
+        return array;
+    }
+
+    private static double[] numbers(TiELArray array) {
+        var numbers = array.numbers();
+        if (numbers == null) {
+            throw new RuntimeError("Expected an array of numbers.");
+        }
+        return numbers;
+    }
+
+    private static void checkSameSize(TiELArray a, TiELArray b) {
+        if (a.size() != b.size()) {
+            throw new RuntimeError("Arrays must have the same length.");
+        }
+    }
+
+    private static TiELArray checkNotEmpty(TiELArray array) {
+        if (array.size() == 0) {
+            throw new RuntimeError("Array must not be empty.");
+        }
+        return array;
+    }
+
+    /**
+     * Defines the built-in functions in the given environment.
+     *
+     * @param builtins The environment enclosing the global variables of a run.
+     */
+    static void define(Environment builtins) {
+        for (var function : new NativeFunction[]{PRINT, SPAWN, AWAIT, LEN, PUSH, MAP, GET, PUT, HAS, SIZE, KEYS,
+                VSUM, VDOT, VADD, VSCALE, VMIN, VMAX, RANGE, FILTER, TAKE, REDUCE, NEXT, DONE,
+                OPEN_LINES, READ_ALL, WRITE_LINES, APPEND_LINE}) {
+            builtins.define(function.name(), function);
+        }
+    }
+}
@@ -12,14 +12,24 @@ import java.util.Map;
  */
 class Environment {
 
-    private final Environment enclosing;
-    private final Map<String, Object> values = new HashMap<>();
+    final Environment enclosing;
+    private final Map<String, Object> values;
 
     /**
      * Constructs a global environment with no enclosing scope.
      */
     Environment() {
-        this.enclosing = null;
+        this(new HashMap<>());
+    }
+
+    /**
+     * Constructs an environment with no enclosing scope that stores its variables in the given map. Assignments
+     * are written to the map directly.
+     *
+     * @param values The variables of the environment.
+     */
+    Environment(Map<String, Object> values) {
+        this(null, values);
     }
 
     /**
@@ -28,7 +38,18 @@ class Environment {
      * @param enclosing The enclosing environment, providing outer scope access.
      */
     Environment(Environment enclosing) {
+        this(enclosing, new HashMap<>());
+    }
+
+    /**
+     * Constructs an environment with a given enclosing environment that stores its variables in the given map.
+     *
+     * @param enclosing The enclosing environment, or {@code null} for none.
+     * @param values    The variables of the environment.
+     */
+    Environment(Environment enclosing, Map<String, Object> values) {
         this.enclosing = enclosing;
+        this.values = values;
     }
 
     /**
@@ -86,6 +107,28 @@ class Environment {
         values.put(name, value);
     }
 
+    /**
+     * Copies this environment and all enclosing local scopes, e.g. for a function running on another thread.
+     * Scopes without an enclosing scope are shared with the copy rather than copied.
+     *
+     * @return The copy.
+     */
+    Environment copy() {
+        if (enclosing == null) {
+            return this;
+        }
+        return new Environment(enclosing.copy(), new HashMap<>(values));
+    }
+
+    /**
+     * Returns the variables defined in this environment, not including enclosing scopes.
+     *
+     * @return The modifiable map of variables.
+     */
+    Map<String, Object> values() {
+        return values;
+    }
+
     /**
      * Returns a string representation of the environment, including enclosed scopes.
      *
@@ -9,45 +9,77 @@ import de.thm.asc.tiel.interpreter.scanning.TokenType;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * The Evaluator class interprets and executes TiEL language expressions and statements.
  * It maintains an execution environment and supports variable resolution, function calls,
- * and basic control flow operations.
+ * and basic control flow operations. The global variables, the output stream and the limits of a run are
+ * kept in an {@link ExecutionContext}.
  */
 public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
 
     /**
-     * The global environment for storing global variables and functions.
+     * The largest magnitude of an integer (Long). Up to this magnitude, all integers are exactly representable
+     * as doubles; larger integral values are Doubles.
      */
-    private final Environment globals = new Environment();
+    static final long MAX_EXACT = 1L << 53;
+
+    /**
+     * The state and limits of the run.
+     */
+    private final ExecutionContext context;
     /**
      * The current execution environment, initially set to the global environment.
      */
-    private Environment environment = globals;
+    private Environment environment;
+    /**
+     * The generator whose body this evaluator runs, or {@code null}.
+     */
+    private final TiELGenerator.Producer generator;
 
     /**
-     * Constructs an Evaluator and defines built-in functions.
+     * Constructs an Evaluator for an unlimited run that prints to the given stream.
+     *
+     * @param out The stream receiving the program output.
      */
     public Evaluator(PrintStream out) {
-        globals.define("print", new TiELCallable() {
-            @Override
-            public int arity() {
-                return 1;
-            }
+        this(new ExecutionContext(out));
+    }
 
-            @Override
-            public Object call(Evaluator evaluator, List<Object> arguments) {
-                out.println(stringify(arguments.getFirst()));
-                return null;
-            }
+    /**
+     * Constructs an Evaluator for a run in the given context.
+     *
+     * @param context The context holding the global variables, the output stream and the limits of the run.
+     */
+    public Evaluator(ExecutionContext context) {
+        this(context, context.globals, null);
+    }
 
-            @Override
-            public String toString() {
-                return "<native fn>";
-            }
-        });
+    /**
+     * Constructs an Evaluator running the body of a generator.
+     *
+     * @param context   The context of the generator.
+     * @param generator The generator receiving the values of {@code yield}.
+     */
+    Evaluator(ExecutionContext context, TiELGenerator.Producer generator) {
+        this(context, context.globals, generator);
+    }
+
+    /**
+     * Constructs an Evaluator for a run in the given context, starting in the given environment.
+     *
+     * @param context     The context of the run.
+     * @param environment The environment to evaluate in.
+     * @param generator   The generator whose body is run, or {@code null}.
+     */
+    private Evaluator(ExecutionContext context, Environment environment, TiELGenerator.Producer generator) {
+        this.context = context;
+        this.environment = environment;
+        this.generator = generator;
     }
 
     /**
@@ -61,6 +93,15 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
         }
     }
 
+    /**
+     * Interprets a single global statement.
+     *
+     * @param statement The statement to interpret.
+     */
+    public void interpret(Stmt statement) {
+        execute(statement);
+    }
+
     /**
      * Evaluates an expression.
      *
@@ -105,7 +146,7 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
      * @param object The object to check.
      * @return True if the object is truthy, false otherwise.
      */
-    private boolean isTruthy(Object object) {
+    static boolean isTruthy(Object object) {
         if (object == null) return false;
         if (object instanceof Boolean b) return b;
         return true;
@@ -122,7 +163,15 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
         if (a == null && b == null) return true;
         if (a == null) return false;
 
-        return a.equals(b);
+        // An integer equals a double if the double has its value, just as if both were doubles
+        if (a instanceof Long l && b instanceof Double) a = (double) l;
+        else if (a instanceof Double && b instanceof Long l) b = (double) l;
+
+        return TiELString.flatten(a).equals(TiELString.flatten(b));
+    }
+
+    private static boolean isString(Object object) {
+        return object instanceof String || object instanceof TiELString;
     }
 
     /**
@@ -131,9 +180,14 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
      * @param object The object to stringify.
      * @return The string representation of the object.
      */
-    private String stringify(Object object) {
+    static String stringify(Object object) {
         if (object == null) return "nil";
 
+        if (object instanceof Long l) {
+            // Integers look like the equal doubles, which use scientific notation from 10^7 on
+            return l > -10_000_000 && l < 10_000_000 ? l.toString() : stringify((double) l);
+        }
+
         if (object instanceof Double) {
             var text = object.toString();
             if (text.endsWith(".0")) {
@@ -145,6 +199,68 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
         return object.toString();
     }
 
+    /**
+     * Checks whether a value is a number, i.e. an integer (Long) or a Double.
+     *
+     * @param object The value to check.
+     * @return True if the value is a number, false otherwise.
+     */
+    static boolean isNumber(Object object) {
+        return object instanceof Double || object instanceof Long;
+    }
+
+    /**
+     * Converts a number to a double.
+     *
+     * @param number The number, an integer (Long) or a Double.
+     * @return The value of the number as a double.
+     */
+    static double toDouble(Object number) {
+        return number instanceof Long l ? l : (double) number;
+    }
+
+    /**
+     * Returns the TiEL value of an integer: a Long if the integer is exactly representable as a double, i.e. at
+     * most {@link #MAX_EXACT} in magnitude, and the nearest double otherwise. Since doubles compute exactly with
+     * such integers, integers thus behave exactly like the doubles all numbers used to be.
+     *
+     * @param value The integer.
+     * @return The value.
+     */
+    static Object integer(long value) {
+        return value >= -MAX_EXACT && value <= MAX_EXACT ? (Object) value : (double) value;
+    }
+
+    /**
+     * Adds two integers, falling back to doubles if the sum is not exactly representable as a double.
+     */
+    private static Object add(long a, long b) {
+        var result = a + b; // Cannot overflow, since both are at most MAX_EXACT in magnitude
+        if (result < -MAX_EXACT || result > MAX_EXACT) return (double) a + (double) b;
+        return result;
+    }
+
+    /**
+     * Subtracts two integers, falling back to doubles if the difference is not exactly representable as a double.
+     */
+    private static Object subtract(long a, long b) {
+        var result = a - b;
+        if (result < -MAX_EXACT || result > MAX_EXACT) return (double) a - (double) b;
+        return result;
+    }
+
+    /**
+     * Multiplies two integers, falling back to doubles if the product is not exactly representable as a double.
+     */
+    private static Object multiply(long a, long b) {
+        var result = a * b;
+        if (Math.multiplyHigh(a, b) != result >> 63 || result < -MAX_EXACT || result > MAX_EXACT) {
+            return (double) a * (double) b;
+        }
+        if (result == 0 && (a | b) < 0) return -0.0; // Like 0 * -1 with doubles
+        return result;
+    }
+
     /**
      * Ensures that two operands are numbers, throwing an error if not.
      *
@@ -153,8 +269,8 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
      * @param right    The right operand.
      */
     private void checkNumberOperands(Token operator, Object left, Object right) {
-        if (left instanceof Double && right instanceof Double) return;
-        throw new RuntimeError(String.format("Operands to '%s' must be numbers.", operator.lexeme()));
+        if (isNumber(left) && isNumber(right)) return;
+        throw new RuntimeError(String.format("Operands to '%s' must be numbers.", operator.lexeme()), operator.line());
     }
 
 
@@ -165,8 +281,8 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
      * @param operand  The operand.
      */
     private void checkNumberOperand(Token operator, Object operand) {
-        if (operand instanceof Double) return;
-        throw new RuntimeError(String.format("Operand to '%s' must be a number.", operator.lexeme()));
+        if (isNumber(operand)) return;
+        throw new RuntimeError(String.format("Operand to '%s' must be a number.", operator.lexeme()), operator.line());
     }
 
     /**
@@ -176,44 +292,149 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
      * @return The variable's value.
      */
     private Object lookUpVariable(Token name) {
-        return environment.get(name.lexeme());
+        try {
+            return environment.get(name.lexeme());
+        } catch (RuntimeError e) {
+            throw e.at(name.line());
+        }
+    }
+
+    /**
+     * Ensures that a value is an array, throwing an error if not.
+     *
+     * @param bracket The bracket of the index.
+     * @param object  The indexed value.
+     * @return The array.
+     */
+    private TiELArray checkArray(Token bracket, Object object) {
+        if (object instanceof TiELArray array) return array;
+        throw new RuntimeError("Can only index arrays.", bracket.line());
+    }
+
+    /**
+     * Ensures that a value is a valid index into an array, throwing an error if not.
+     *
+     * @param bracket The bracket of the index.
+     * @param array   The indexed array.
+     * @param index   The index.
+     * @return The index as an int.
+     */
+    private int checkIndex(Token bracket, TiELArray array, Object index) {
+        if (index instanceof Long l) {
+            if (l >= 0 && l < array.size()) return (int) (long) l;
+        } else if (!(index instanceof Double d) || d != Math.floor(d)) {
+            throw new RuntimeError("Array index must be an integer.", bracket.line());
+        } else if (d >= 0 && d < array.size()) {
+            return (int) (double) d;
+        }
+        throw new RuntimeError(String.format("Index %s out of bounds for length %d.", stringify(index), array.size()),
+                bracket.line());
+    }
+
+    @Override
+    public Object visitArrayExpr(ArrayExpr expr) {
+        var array = new TiELArray(expr.elements.size());
+        if (context.isParallel(expr)) {
+            for (var value : evaluateInParallel(expr.elements)) {
+                array.add(value);
+            }
+        } else {
+            for (var element : expr.elements) {
+                array.add(evaluate(element));
+            }
+        }
+        return array;
     }
 
     @Override
     public Object visitAssignExpr(AssignExpr expr) {
         var value = evaluate(expr.value);
 
-        environment.assign(expr.name.lexeme(), value);
+        try {
+            environment.assign(expr.name.lexeme(), value);
+        } catch (RuntimeError e) {
+            throw e.at(expr.name.line());
+        }
 
         return value;
     }
 
+    /**
+     * Evaluates independent pure operands, forking those marked by the analysis to the pool of the context.
+     * The operands are completed in order, so an error is reported for the same operand as in sequential
+     * evaluation; the forked operands that are still running are cancelled then.
+     *
+     * @param operands The operands to evaluate.
+     * @return The values of the operands.
+     */
+    private Object[] evaluateInParallel(List<Expr> operands) {
+        var tasks = new Operand[operands.size()];
+        for (var i = 0; i < tasks.length; i++) {
+            var operand = operands.get(i);
+            if (context.isForked(operand)) {
+                // The operands only read the environment, so it can be shared
+                tasks[i] = new Operand(new Evaluator(context.fork(), environment, null), operand);
+                if (ForkJoinTask.getPool() == context.pool()) {
+                    tasks[i].fork();
+                } else {
+                    context.pool().execute(tasks[i]);
+                }
+            }
+        }
+
+        var values = new Object[tasks.length];
+        try {
+            for (var i = 0; i < tasks.length; i++) {
+                values[i] = tasks[i] != null ? tasks[i].result() : evaluate(operands.get(i));
+            }
+        } catch (RuntimeError | StackOverflowError e) {
+            for (var task : tasks) {
+                if (task != null) task.abandon();
+            }
+            throw e;
+        }
+        return values;
+    }
+
     @Override
     public Object visitBinaryExpr(BinaryExpr expr) {
-        var left = evaluate(expr.left);
-        var right = evaluate(expr.right);
+        Object left;
+        Object right;
+        if (context.isParallel(expr)) {
+            var values = evaluateInParallel(List.of(expr.left, expr.right));
+            left = values[0];
+            right = values[1];
+        } else {
+            left = evaluate(expr.left);
+            right = evaluate(expr.right);
+        }
 
         return switch (expr.operator.type()) {
             case EQUAL_EQUAL -> isEqual(left, right);
             case LESS -> {
+                if (left instanceof Long a && right instanceof Long b) yield a < b;
                 checkNumberOperands(expr.operator, left, right);
-                yield (double) left < (double) right;
+                yield toDouble(left) < toDouble(right);
             }
             case MINUS -> {
+                if (left instanceof Long a && right instanceof Long b) yield subtract(a, b);
                 checkNumberOperands(expr.operator, left, right);
-                yield (double) left - (double) right;
+                yield toDouble(left) - toDouble(right);
             }
             case PLUS -> {
+                if (left instanceof Long a && right instanceof Long b) yield add(a, b);
+                if (isString(left) && isString(right)) yield TiELString.concat(left, right);
                 checkNumberOperands(expr.operator, left, right);
-                yield (double) left + (double) right;
+                yield toDouble(left) + toDouble(right);
             }
             case SLASH -> {
                 checkNumberOperands(expr.operator, left, right);
-                yield (double) left / (double) right;
+                yield toDouble(left) / toDouble(right);
             }
             case STAR -> {
+                if (left instanceof Long a && right instanceof Long b) yield multiply(a, b);
                 checkNumberOperands(expr.operator, left, right);
-                yield (double) left * (double) right;
+                yield toDouble(left) * toDouble(right);
             }
             default -> null; // Unreachable
         };
@@ -223,22 +444,107 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
     public Object visitCallExpr(CallExpr expr) {
         var callee = evaluate(expr.callee);
 
-        var arguments = new ArrayList<>();
-        for (var argument : expr.arguments) {
-            arguments.add(evaluate(argument));
+        List<Object> arguments;
+        if (context.isParallel(expr)) {
+            arguments = Arrays.asList(evaluateInParallel(expr.arguments));
+        } else {
+            arguments = new ArrayList<>();
+            for (var argument : expr.arguments) {
+                arguments.add(evaluate(argument));
+            }
+        }
+
+        return call(callee, arguments, expr.paren.line());
+    }
+
+    /**
+     * Calls a function value with already evaluated arguments.
+     *
+     * @param callee    The value to call.
+     * @param arguments The arguments of the call.
+     * @param line      The line number of the call, or 0 if the host calls the function.
+     * @return The result of the call.
+     * @throws RuntimeError If the value is not a function, the number of arguments does not match, or the call fails.
+     */
+    Object call(Object callee, List<Object> arguments, int line) {
+        TiELCallable function;
+        try {
+            function = checkCall(callee, arguments.size());
+        } catch (RuntimeError e) {
+            throw e.at(line);
+        }
+        return invoke(function, arguments, line);
+    }
+
+    /**
+     * Calls a function that has already been checked by {@link #checkCall}. Built-in functions that call a
+     * function argument repeatedly, like {@code reduce}, check it once and then call it through this method.
+     *
+     * @param function  The function to call.
+     * @param arguments The arguments of the call, whose number matches the arity of the function.
+     * @param line      The line number of the call, or 0 if the host or a built-in function calls the function.
+     * @return The result of the call.
+     * @throws RuntimeError If the call fails.
+     */
+    Object invoke(TiELCallable function, List<Object> arguments, int line) {
+        try {
+            context.enterCall();
+        } catch (RuntimeError e) {
+            throw e.at(line);
+        }
+        try {
+            return function.call(this, arguments);
+        } catch (RuntimeError e) {
+            e.addFrame(function.name(), line);
+            throw e;
+        } finally {
+            context.exitCall();
         }
+    }
 
+    /**
+     * Checks whether a value can be called with the given number of arguments.
+     *
+     * @param callee The value to call.
+     * @param count  The number of arguments.
+     * @return The value as a callable.
+     * @throws RuntimeError If the value is not a function or the number of arguments does not match.
+     */
+    static TiELCallable checkCall(Object callee, int count) {
         if (!(callee instanceof TiELCallable function)) {
             throw new RuntimeError("Can only call functions.");
         }
 
-        if (arguments.size() != function.arity()) {
-            throw new RuntimeError(
-                    String.format("Expected %s arguments but got %s.", function.arity(), arguments.size())
-            );
+        if (function.arity() != TiELCallable.VARIADIC && count != function.arity()) {
+            throw new RuntimeError(String.format("Expected %s arguments but got %s.", function.arity(), count));
         }
+        return function;
+    }
 
-        return function.call(this, arguments);
+    /**
+     * Returns the context of the run this evaluator belongs to.
+     *
+     * @return The context.
+     */
+    ExecutionContext context() {
+        return context;
+    }
+
+    @Override
+    public Object visitIndexExpr(IndexExpr expr) {
+        var array = checkArray(expr.bracket, evaluate(expr.object));
+        return array.get(checkIndex(expr.bracket, array, evaluate(expr.index)));
+    }
+
+    @Override
+    public Object visitIndexAssignExpr(IndexAssignExpr expr) {
+        var object = evaluate(expr.object);
+        var index = evaluate(expr.index);
+        var value = evaluate(expr.value);
+
+        var array = checkArray(expr.bracket, object);
+        array.set(checkIndex(expr.bracket, array, index), value);
+        return value;
     }
 
     @Override
@@ -266,6 +572,10 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
         return switch (expr.operator.type()) {
             case NOT -> !isTruthy(right);
             case MINUS -> {
+                if (right instanceof Long l) {
+                    // -0 is a double, as before
+                    yield l != 0 ? (Object) (-l) : -0.0;
+                }
                 checkNumberOperand(expr.operator, right);
                 yield -(double) right;
             }
@@ -290,11 +600,60 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
         return null;
     }
 
+    /**
+     * Runs a counted loop. The bounds and the step are evaluated once. The counter is a local long if all of them
+     * are integers, otherwise a local double. Each iteration declares the loop variable with the value of the
+     * counter in a new scope, which is also the scope of the body if it is a block, so that the loop adds no
+     * scope to look variables up in. Assigning the loop variable therefore does not change the number of
+     * iterations.
+     */
+    @Override
+    public Void visitForStmt(ForStmt stmt) {
+        var start = evaluate(stmt.start);
+        var end = evaluate(stmt.end);
+        var step = stmt.step == null ? (Object) 1L : evaluate(stmt.step);
+        if (!isNumber(start) || !isNumber(end) || !isNumber(step)) {
+            throw new RuntimeError("Loop bounds and step must be numbers.", stmt.name.line());
+        }
+        if (toDouble(step) == 0) {
+            throw new RuntimeError("Loop step must not be zero.", stmt.name.line());
+        }
+
+        if (start instanceof Long first && end instanceof Long last && step instanceof Long increment) {
+            for (long i = first, s = increment; s > 0 ? i <= last : i >= last; ) {
+                iterate(stmt, i);
+                i += s; // Cannot overflow, since all of them are at most MAX_EXACT in magnitude
+            }
+        } else {
+            double last = toDouble(end);
+            double s = toDouble(step);
+            for (double i = toDouble(start); s > 0 ? i <= last : i >= last; i += s) {
+                iterate(stmt, i);
+            }
+        }
+        return null;
+    }
+
+    private void iterate(ForStmt stmt, Object counter) {
+        context.step();
+        var scope = new Environment(environment);
+        scope.values().put(stmt.name.lexeme(), counter);
+        if (stmt.body instanceof BlockStmt block) {
+            executeBlock(block.statements, scope);
+        } else {
+            executeBlock(List.of(stmt.body), scope);
+        }
+    }
+
     @Override
     public Void visitFunctionDeclStmt(FunctionDeclStmt stmt) {
         var function = new TiELFunction(stmt, environment);
 
-        environment.define(stmt.name.lexeme(), function);
+        try {
+            environment.define(stmt.name.lexeme(), function);
+        } catch (RuntimeError e) {
+            throw e.at(stmt.name.line());
+        }
 
         return null;
     }
@@ -321,15 +680,82 @@ public class Evaluator implements ExprVisitor<Object>, StmtVisitor<Void> {
     public Void visitVarDeclStmt(VarDeclStmt stmt) {
         var value = evaluate(stmt.initializer);
 
-        environment.define(stmt.name.lexeme(), value);
+        try {
+            environment.define(stmt.name.lexeme(), value);
+        } catch (RuntimeError e) {
+            throw e.at(stmt.name.line());
+        }
         return null;
     }
 
     @Override
     public Void visitWhileStmt(WhileStmt stmt) {
         while (isTruthy(evaluate(stmt.condition))) {
+            context.step();
             execute(stmt.body);
         }
         return null;
     }
+
+    @Override
+    public Void visitYieldStmt(YieldStmt stmt) {
+        Object value = null;
+        if (stmt.value != null) value = evaluate(stmt.value);
+
+        if (generator == null) {
+            throw new RuntimeError("Can only yield in generators.", stmt.keyword.line());
+        }
+        try {
+            generator.suspend(value);
+        } catch (RuntimeError e) {
+            throw e.at(stmt.keyword.line());
+        }
+        return null;
+    }
+
+    /**
+     * An operand evaluated by another thread of the pool.
+     */
+    private static final class Operand extends RecursiveTask<Object> {
+
+        private final Evaluator evaluator;
+        private final Expr expr;
+        private Throwable error; // Kept instead of thrown, so that join does not wrap or copy it
+
+        Operand(Evaluator evaluator, Expr expr) {
+            this.evaluator = evaluator;
+            this.expr = expr;
+        }
+
+        @Override
+        protected Object compute() {
+            try {
+                return evaluator.evaluate(expr);
+            } catch (RuntimeError | StackOverflowError e) {
+                error = e;
+                return null;
+            }
+        }
+
+        /**
+         * Waits for the value of the operand, helping with other tasks meanwhile.
+         *
+         * @return The value.
+         * @throws RuntimeError If the evaluation has failed.
+         */
+        Object result() {
+            var value = join();
+            if (error instanceof RuntimeError e) throw e;
+            if (error instanceof StackOverflowError e) throw e;
+            return value;
+        }
+
+        /**
+         * Stops the evaluation, since its value is no longer needed.
+         */
+        void abandon() {
+            evaluator.context.cancel();
+            cancel(false);
+        }
+    }
 }
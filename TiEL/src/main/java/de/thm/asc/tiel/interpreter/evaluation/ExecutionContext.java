@@ -0,0 +1,412 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.analysis.PurityAnalysis;
+import de.thm.asc.tiel.interpreter.ast.expr.Expr;
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * An ExecutionContext holds the state of a single run of a program: the global variables, the stream receiving
+ * the output of {@code print}, and the limits of the run. Since all mutable state of a run lives in its context
+ * and its {@link Evaluator}, the statements of a program can be shared by any number of concurrent runs.
+ * <p>
+ * A context is cheap to create and must only be used by one run at a time.
+ * <p>
+ * A program can run functions concurrently by {@code spawn(f, args...)}, which returns a future whose result
+ * {@code await(future)} waits for. Each spawned function runs on its own thread (by default a virtual thread)
+ * with its own evaluator and call depth, and shares the following with the rest of the run:
+ * <ul>
+ *     <li>Global variables and host variables are shared by all threads. Every single read, assignment and
+ *     declaration of such a variable is atomic, but compound updates like {@code x = x + 1} are not.</li>
+ *     <li>Local variables captured by the spawned function are copied when it is spawned. Assignments to them
+ *     by the function are not visible to the spawning thread, and vice versa.</li>
+ *     <li>The output stream is shared; every {@code print} writes its line atomically.</li>
+ *     <li>The time limit of the run applies to spawned functions as well, and so does the maximum call depth,
+ *     counted per thread. A run does not wait for spawned functions that are not awaited.</li>
+ * </ul>
+ * <p>
+ * With {@link #setAutoParallel}, the run additionally evaluates independent pure operands in parallel on a
+ * {@link ForkJoinPool}, as found by a {@link PurityAnalysis}. Such operands can neither print nor assign variables,
+ * so the run behaves exactly like a sequential one, only faster. Operands are only forked up to a fork depth
+ * derived from the parallelism of the pool, which yields a few tasks per worker; below this cutoff, and while a
+ * worker has enough queued tasks anyway, they are evaluated sequentially.
+ * <p>
+ * The file built-in functions such as {@code openLines} and {@code writeLines} are disabled unless a root
+ * directory has been set by {@link #setFileRoot}; they can only access files below it.
+ */
+public class ExecutionContext {
+
+    /**
+     * The call depth limit that does not restrict the call depth.
+     */
+    public static final int UNLIMITED_CALL_DEPTH = Integer.MAX_VALUE;
+
+    private static final int CHECK_INTERVAL = 1024; // Number of steps between checks of the clock and interrupts
+
+    private static final Executor DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final int SURPLUS_TASKS = 3; // Number of queued tasks above which a worker stops forking
+
+    final Environment globals;
+    private final PrintStream out;
+    private final long deadline; // In terms of System.nanoTime()
+    private final boolean timed;
+    private final int maxCallDepth;
+    private Executor executor = DEFAULT_EXECUTOR;
+    private PurityAnalysis analysis; // Null unless operands are evaluated in parallel
+    private ForkJoinPool pool;
+    private int maxForkDepth;
+    private FileAccess files; // Null unless the program may access files
+
+    private final ExecutionContext forkedFrom; // The context of the thread that forked this one, if any
+    private final int forkDepth;
+    private volatile boolean cancelled;
+
+    private int callDepth;
+    private int steps;
+
+    /**
+     * Constructs an unlimited ExecutionContext.
+     *
+     * @param out The stream receiving the program output.
+     */
+    public ExecutionContext(PrintStream out) {
+        this(out, null, UNLIMITED_CALL_DEPTH);
+    }
+
+    /**
+     * Constructs an ExecutionContext with limits. A run exceeding a limit is aborted with a {@link RuntimeError}.
+     *
+     * @param out          The stream receiving the program output.
+     * @param timeout      The time a run may take, starting now, or {@code null} for no time limit.
+     * @param maxCallDepth The maximum number of nested function calls.
+     */
+    public ExecutionContext(PrintStream out, Duration timeout, int maxCallDepth) {
+        this(out, timeout, maxCallDepth, null);
+    }
+
+    /**
+     * Constructs an ExecutionContext with limits and variables provided by the host, e.g. the bindings of a
+     * script engine. The program can read and assign these variables, and shadow them by declaring its own
+     * global variables of the same name. The map is used directly, so assignments are visible to the caller.
+     *
+     * @param out          The stream receiving the program output.
+     * @param timeout      The time a run may take, starting now, or {@code null} for no time limit.
+     * @param maxCallDepth The maximum number of nested function calls.
+     * @param variables    The variables provided by the host, or {@code null} for none.
+     */
+    public ExecutionContext(PrintStream out, Duration timeout, int maxCallDepth, Map<String, Object> variables) {
+        if (maxCallDepth < 1) {
+            throw new IllegalArgumentException("The maximum call depth must be positive.");
+        }
+
+        this.out = out;
+        this.timed = timeout != null;
+        this.deadline = timed ? System.nanoTime() + timeout.toNanos() : 0;
+        this.maxCallDepth = maxCallDepth;
+
+        // The built-in functions enclose the host variables, which enclose the global variables, so that both the
+        // host and the program can declare variables named like built-in functions
+        var builtins = new GlobalEnvironment(null);
+        Builtins.define(builtins);
+        this.globals = new GlobalEnvironment(variables == null ? builtins
+                : new Environment(builtins, Collections.synchronizedMap(variables)));
+        this.forkedFrom = null;
+        this.forkDepth = 0;
+    }
+
+    /**
+     * Constructs a context for a function started by {@code spawn} or an operand evaluated in parallel.
+     *
+     * @param parent     The context of the spawning or forking thread.
+     * @param forkedFrom The context of the forking thread, or {@code null} for a spawned function.
+     */
+    private ExecutionContext(ExecutionContext parent, ExecutionContext forkedFrom) {
+        this.globals = parent.globals;
+        this.out = parent.out;
+        this.deadline = parent.deadline;
+        this.timed = parent.timed;
+        this.maxCallDepth = parent.maxCallDepth;
+        this.executor = parent.executor;
+        this.analysis = parent.analysis;
+        this.pool = parent.pool;
+        this.maxForkDepth = parent.maxForkDepth;
+        this.files = parent.files;
+        this.forkedFrom = forkedFrom;
+        this.forkDepth = forkedFrom == null ? 0 : forkedFrom.forkDepth + 1;
+        this.callDepth = forkedFrom == null ? 0 : forkedFrom.callDepth;
+    }
+
+    /**
+     * Defines a global variable, e.g. to pass an input to the program.
+     *
+     * @param name  The name of the variable.
+     * @param value The value of the variable: a Double, Long (integer), String, Boolean or {@code null}.
+     * @throws RuntimeError If the variable is already defined.
+     */
+    public void define(String name, Object value) {
+        globals.define(name, value instanceof Long l ? Evaluator.integer(l) : value);
+    }
+
+    /**
+     * Defines a Java method as a global function under its name, e.g. one of the functions returned by
+     * {@link JavaFunction#exported(Class)}.
+     *
+     * @param function The function.
+     * @throws RuntimeError If a variable of the same name is already defined.
+     */
+    public void define(JavaFunction function) {
+        globals.define(function.name(), function);
+    }
+
+    /**
+     * Returns the global variables declared by the program, including its functions, but not the built-in
+     * functions, the Java functions and the variables provided by the host. The values are converted by {@link #toHost(Object)}.
+     *
+     * @return A snapshot of the declared global variables.
+     */
+    public Map<String, Object> declarations() {
+        var declarations = globals.values();
+        declarations.values().removeIf(value -> value instanceof JavaFunction);
+        declarations.replaceAll((name, value) -> toHost(value));
+        return declarations;
+    }
+
+    /**
+     * Sets the executor running the functions started by {@code spawn}, e.g. a
+     * {@link java.util.concurrent.ForkJoinPool} of a fixed size. By default, every function runs on its own
+     * virtual thread.
+     *
+     * @param executor The executor.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Allows the file built-in functions to read and write the files below a directory. Paths given by the
+     * program are resolved against this directory, and paths leading outside of it are rejected.
+     *
+     * @param root The directory, or {@code null} to disable the file functions again.
+     */
+    public void setFileRoot(Path root) {
+        this.files = root == null ? null : new FileAccess(root);
+    }
+
+    /**
+     * Returns the file access of the run.
+     *
+     * @return The file access.
+     * @throws RuntimeError If no file root has been set.
+     */
+    FileAccess files() {
+        if (files == null) {
+            throw new RuntimeError("File access is disabled.");
+        }
+        return files;
+    }
+
+    /**
+     * Makes the run evaluate the independent pure operands found by the given analysis in parallel on the common
+     * {@link ForkJoinPool}.
+     *
+     * @param analysis The analysis of the program run in this context.
+     */
+    public void setAutoParallel(PurityAnalysis analysis) {
+        setAutoParallel(analysis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Makes the run evaluate the independent pure operands found by the given analysis in parallel.
+     *
+     * @param analysis The analysis of the program run in this context.
+     * @param pool     The pool evaluating the forked operands.
+     */
+    public void setAutoParallel(PurityAnalysis analysis, ForkJoinPool pool) {
+        this.analysis = Objects.requireNonNull(analysis);
+        this.pool = Objects.requireNonNull(pool);
+        // About four tasks per worker balance the load without drowning the workers in tiny tasks
+        this.maxForkDepth = 32 - Integer.numberOfLeadingZeros(pool.getParallelism() - 1) + 2;
+    }
+
+    /**
+     * Calls a function of a program, e.g. one returned by {@link #declarations()}, in this context.
+     *
+     * @param function  The function to call.
+     * @param arguments The arguments of the call.
+     * @return The result of the call, converted by {@link #toHost(Object)}.
+     * @throws RuntimeError If the value is not a function, the number of arguments does not match, or the call
+     *                      fails or exceeds a limit of the context.
+     */
+    public Object call(Object function, List<Object> arguments) {
+        return toHost(new Evaluator(this).call(function, arguments, 0));
+    }
+
+    /**
+     * Converts a TiEL value to the value a host expects: integers become Doubles, like all numbers before TiEL
+     * had integers, and strings built by {@code +} become Strings. Other values are returned unchanged.
+     *
+     * @param value The TiEL value.
+     * @return The value for the host.
+     */
+    public static Object toHost(Object value) {
+        return switch (value) {
+            case Long l -> (double) l;
+            case TiELString string -> string.toString();
+            case null, default -> value;
+        };
+    }
+
+    /**
+     * Checks whether a value can be called by {@link #call(Object, List)}.
+     *
+     * @param value The value to check.
+     * @return True if the value is a function, false otherwise.
+     */
+    public static boolean isFunction(Object value) {
+        return value instanceof TiELCallable;
+    }
+
+    /**
+     * Returns the stream receiving the program output.
+     *
+     * @return The output stream.
+     */
+    public PrintStream out() {
+        return out;
+    }
+
+    /**
+     * Starts calling a function on another thread. The function runs in a new context sharing the global
+     * variables, the output and the limits of this one, but with its own call depth.
+     *
+     * @param function  The function to call.
+     * @param arguments The arguments of the call, whose number matches the arity of the function.
+     * @return The future for the result of the function.
+     */
+    TiELFuture spawn(TiELCallable function, List<Object> arguments) {
+        var task = function instanceof TiELFunction f ? f.copy() : function;
+        var context = new ExecutionContext(this, null);
+        return new TiELFuture(CompletableFuture.supplyAsync(
+                () -> new Evaluator(context).call(task, arguments, 0), executor));
+    }
+
+    /**
+     * Creates a generator for a call of a generator function. Its body will run on another thread, started by the
+     * executor of {@code spawn} when the first value is requested, in a new context sharing the global variables,
+     * the output and the limits of this one, but with its own call depth.
+     *
+     * @param function  The generator function.
+     * @param arguments The arguments of the call, whose number matches the arity of the function.
+     * @return The generator.
+     */
+    TiELGenerator generate(TiELFunction function, List<Object> arguments) {
+        return new TiELGenerator(function, arguments, new ExecutionContext(this, null), executor);
+    }
+
+    /**
+     * Checks whether the operands of an expression are to be evaluated in parallel at this point of the run.
+     *
+     * @param expr The binary expression, call or array.
+     * @return True if the expression has independent operands and the fork depth has not been reached yet.
+     */
+    boolean isParallel(Expr expr) {
+        if (analysis == null || forkDepth >= maxForkDepth || !analysis.isParallel(expr)) {
+            return false;
+        }
+        // Enough queued tasks indicate that all workers are busy, so forking would not help
+        return !ForkJoinTask.inForkJoinPool() || ForkJoinTask.getSurplusQueuedTaskCount() <= SURPLUS_TASKS;
+    }
+
+    /**
+     * Checks whether an operand of a parallel expression is evaluated by another thread.
+     *
+     * @param operand The operand.
+     * @return True if the operand is forked.
+     */
+    boolean isForked(Expr operand) {
+        return analysis.isForked(operand);
+    }
+
+    /**
+     * Returns a context for evaluating an operand on another thread. The context shares the global variables,
+     * the output and the limits of this one and continues its call depth.
+     *
+     * @return The new context.
+     */
+    ExecutionContext fork() {
+        return new ExecutionContext(this, this);
+    }
+
+    /**
+     * Returns the pool evaluating forked operands.
+     *
+     * @return The pool.
+     */
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    /**
+     * Stops the evaluation of a forked operand whose result is no longer needed, including the operands it has
+     * forked in turn. The evaluation fails at its next check.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Records the start of a function call.
+     *
+     * @throws RuntimeError If the call exceeds the maximum call depth or another limit.
+     */
+    void enterCall() {
+        if (callDepth == maxCallDepth) {
+            throw new RuntimeError("Maximum call depth exceeded.");
+        }
+        callDepth++;
+        step();
+    }
+
+    /**
+     * Records the end of a function call.
+     */
+    void exitCall() {
+        callDepth--;
+    }
+
+    /**
+     * Records a step of the run, e.g. a loop iteration, and checks from time to time whether the run has timed
+     * out, its thread has been interrupted or the evaluation has been cancelled.
+     *
+     * @throws RuntimeError If the run has timed out, has been interrupted or has been cancelled.
+     */
+    void step() {
+        if (++steps < CHECK_INTERVAL) return;
+        steps = 0;
+
+        if (timed && System.nanoTime() - deadline > 0) {
+            throw new RuntimeError("Execution timed out.");
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeError("Execution interrupted.");
+        }
+        for (var context = this; context != null; context = context.forkedFrom) {
+            if (context.cancelled) {
+                throw new RuntimeError("Execution cancelled.");
+            }
+        }
+    }
+}
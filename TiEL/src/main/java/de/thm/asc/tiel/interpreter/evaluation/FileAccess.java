@@ -0,0 +1,202 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Gives the file built-in functions of a run access to the files below a root directory, which is set by
+ * {@link ExecutionContext#setFileRoot}. Paths given by a program are resolved against the root, and paths leading
+ * outside of it, also by way of a symbolic link, are rejected. All files are read and written as UTF-8 through
+ * {@link FileChannel}s; see {@link LineReader} for how lines are read.
+ */
+final class FileAccess {
+
+    private static final int MAX_LENGTH = Integer.MAX_VALUE - 8; // The largest array the JVM can allocate
+
+    private final Path root;
+
+    /**
+     * Constructs the file access of a run.
+     *
+     * @param root The directory whose files may be accessed.
+     */
+    FileAccess(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolves a path given by the program.
+     *
+     * @param name The path, relative to the root.
+     * @return The absolute path.
+     * @throws RuntimeError If the path is invalid or leads outside of the root.
+     */
+    Path resolve(String name) {
+        Path path;
+        try {
+            path = root.resolve(name).normalize();
+        } catch (InvalidPathException e) {
+            throw new RuntimeError(String.format("Invalid path '%s'.", name));
+        }
+        if (!path.startsWith(root)) {
+            throw new RuntimeError(String.format("Path '%s' is outside of the file root.", name));
+        }
+
+        // Symbolic links are only resolved by the file system, so the nearest existing file is checked as well
+        var existing = path;
+        while (!Files.exists(existing) && !existing.equals(root)) {
+            existing = existing.getParent();
+        }
+        try {
+            if (!existing.toRealPath().startsWith(root.toRealPath())) {
+                throw new RuntimeError(String.format("Path '%s' is outside of the file root.", name));
+            }
+        } catch (IOException e) {
+            throw error(name, e);
+        }
+        return path;
+    }
+
+    /**
+     * Reads a whole file. Files of at least {@link LineReader#MAP_THRESHOLD} bytes are memory-mapped.
+     *
+     * @param name The path of the file, relative to the root.
+     * @return The content of the file.
+     * @throws RuntimeError If the file cannot be read or is too large for a string.
+     */
+    String readAll(String name) {
+        try (var channel = FileChannel.open(resolve(name), StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size > MAX_LENGTH) {
+                throw new RuntimeError(String.format("File '%s' is too large.", name));
+            }
+
+            var bytes = new byte[(int) size];
+            if (size >= LineReader.MAP_THRESHOLD) {
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size).get(bytes);
+            } else {
+                var buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Read until the buffer is full
+                }
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw error(name, e);
+        }
+    }
+
+    /**
+     * Opens a file for writing lines, creating it if it does not exist.
+     *
+     * @param name   The path of the file, relative to the root.
+     * @param append Whether the lines are appended to the file instead of replacing its content.
+     * @return The writer, which must be closed.
+     * @throws RuntimeError If the file cannot be opened.
+     */
+    LineWriter write(String name, boolean append) {
+        var mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try {
+            return new LineWriter(name, FileChannel.open(resolve(name), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, mode));
+        } catch (IOException e) {
+            throw error(name, e);
+        }
+    }
+
+    /**
+     * Converts an I/O error to the error reported to the program.
+     *
+     * @param name The path of the file, as given by the program.
+     * @param e    The I/O error.
+     * @return The runtime error.
+     */
+    static RuntimeError error(String name, IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return new RuntimeError(String.format("File '%s' not found.", name));
+        }
+        return new RuntimeError(String.format("Cannot access file '%s': %s", name, e));
+    }
+
+    /**
+     * Writes lines to a file, encoding them into a direct buffer that is written to the channel whenever it is
+     * full.
+     */
+    static final class LineWriter implements Closeable {
+
+        private final String name;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(LineReader.BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        private LineWriter(String name, FileChannel channel) {
+            this.name = name;
+            this.channel = channel;
+        }
+
+        /**
+         * Writes a line followed by {@code \n}.
+         *
+         * @param line The line.
+         * @throws RuntimeError If the file cannot be written.
+         */
+        void writeLine(CharSequence line) {
+            try {
+                encode(CharBuffer.wrap(line));
+                if (!buffer.hasRemaining()) drain();
+                buffer.put((byte) '\n');
+            } catch (IOException e) {
+                throw error(name, e);
+            }
+        }
+
+        private void encode(CharBuffer chars) throws IOException {
+            encoder.reset();
+            CoderResult result;
+            while ((result = encoder.encode(chars, buffer, true)).isOverflow()) {
+                drain();
+            }
+            if (result.isError()) {
+                throw new RuntimeError(String.format("Cannot write invalid characters to file '%s'.", name));
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the buffered lines and closes the file.
+         *
+         * @throws RuntimeError If the file cannot be written.
+         */
+        @Override
+        public void close() {
+            try (channel) {
+                drain();
+            } catch (IOException e) {
+                throw error(name, e);
+            }
+        }
+    }
+}
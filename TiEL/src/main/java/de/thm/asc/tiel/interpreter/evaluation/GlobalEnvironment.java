@@ -0,0 +1,93 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The environment of the global variables of a run. Since functions started by {@code spawn} share the global
+ * variables with the rest of the program, they are kept in a {@link ConcurrentHashMap}: reads never block, and
+ * every single read, assignment and declaration is atomic. Compound updates such as {@code x = x + 1} are not
+ * atomic, and the program must not rely on them being so.
+ * <p>
+ * The global environment is never copied, so all threads of a run see the same global variables.
+ */
+class GlobalEnvironment extends Environment {
+
+    private static final Object NIL = new Object(); // Stands for nil, since the map does not accept null values
+
+    private final Map<String, Object> values;
+
+    /**
+     * Constructs a global environment.
+     *
+     * @param enclosing The environment of the variables provided by the host or of the built-in functions, or
+     *                  {@code null} for none.
+     */
+    GlobalEnvironment(Environment enclosing) {
+        this(enclosing, new ConcurrentHashMap<>());
+    }
+
+    private GlobalEnvironment(Environment enclosing, Map<String, Object> values) {
+        super(enclosing, values);
+        this.values = values;
+    }
+
+    @Override
+    Object get(String name) {
+        var value = values.get(name);
+        if (value != null) {
+            return value == NIL ? null : value;
+        }
+
+        if (enclosing != null) {
+            return enclosing.get(name);
+        }
+
+        throw new RuntimeError(String.format("Undefined variable '%s'.", name));
+    }
+
+    @Override
+    void assign(String name, Object value) {
+        if (values.replace(name, encode(value)) != null) {
+            return;
+        }
+
+        if (enclosing != null) {
+            enclosing.assign(name, value);
+            return;
+        }
+
+        throw new RuntimeError(String.format("Identifier not declared '%s'.", name));
+    }
+
+    @Override
+    void define(String name, Object value) {
+        if (values.putIfAbsent(name, encode(value)) != null) {
+            throw new RuntimeError(String.format("Identifier already declared '%s'.", name));
+        }
+    }
+
+    @Override
+    Environment copy() {
+        return this;
+    }
+
+    /**
+     * Returns a snapshot of the global variables.
+     *
+     * @return The modifiable copy of the variables.
+     */
+    @Override
+    Map<String, Object> values() {
+        var snapshot = new HashMap<String, Object>();
+        values.forEach((name, value) -> snapshot.put(name, value == NIL ? null : value));
+        return snapshot;
+    }
+
+    private static Object encode(Object value) {
+        return value == null ? NIL : value;
+    }
+}
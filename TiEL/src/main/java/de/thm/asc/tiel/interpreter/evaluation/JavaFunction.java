@@ -0,0 +1,291 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Java method that a host makes callable by TiEL programs, e.g. by {@link ExecutionContext#define(JavaFunction)}
+ * or as a variable of a script engine.
+ * <p>
+ * The method is called through a {@link MethodHandle} that is composed once, when the function is created, and
+ * takes the argument list of a call directly: it gets each argument from the list, converts it to the type of its
+ * parameter, calls the method and converts the result back to a TiEL value. Calls therefore neither use
+ * reflection nor create an argument array, and primitive parameters are unboxed straight from the TiEL values.
+ * <p>
+ * The following parameter and return types are supported:
+ * <ul>
+ *     <li>{@code double}, {@code float}, {@code long} and {@code int} take TiEL numbers; the integral types only
+ *     take numbers with an integral value in their range, which may be integers or doubles, e.g. the result of
+ *     {@code 4 / 2}. Results of these types become numbers, and integers beyond the exact range of a double
+ *     become doubles, like the results of integer arithmetic in TiEL.</li>
+ *     <li>{@code boolean} takes and returns booleans, {@code String} takes and returns strings.</li>
+ *     <li>{@link Object} takes any value, converted by {@link ExecutionContext#toHost(Object)}. Returned integers
+ *     and floats of any Java type become numbers, other values are returned unchanged.</li>
+ *     <li>{@code void} methods return nil.</li>
+ * </ul>
+ * Exceptions thrown by the method, other than {@link RuntimeError}s, fail the call with a runtime error naming the
+ * exception.
+ */
+public final class JavaFunction implements TiELCallable {
+
+    /**
+     * Marks the public static methods of a class that {@link #exported(Class)} makes callable.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Export {
+        /**
+         * Returns the name of the function in TiEL.
+         *
+         * @return The name, or an empty string to use the name of the method.
+         */
+        String value() default "";
+    }
+
+    private static final MethodHandle GET;
+    private static final MethodHandle TO_DOUBLE;
+    private static final MethodHandle TO_FLOAT;
+    private static final MethodHandle TO_LONG;
+    private static final MethodHandle TO_INT;
+    private static final MethodHandle TO_BOOLEAN;
+    private static final MethodHandle TO_STRING;
+    private static final MethodHandle TO_HOST;
+    private static final MethodHandle FROM_HOST;
+    private static final MethodHandle INTEGER;
+
+    static {
+        var lookup = MethodHandles.lookup();
+        try {
+            GET = lookup.findVirtual(List.class, "get", MethodType.methodType(Object.class, int.class));
+            TO_DOUBLE = lookup.findStatic(JavaFunction.class, "toDouble",
+                    MethodType.methodType(double.class, Object.class));
+            TO_FLOAT = lookup.findStatic(JavaFunction.class, "toFloat",
+                    MethodType.methodType(float.class, Object.class));
+            TO_LONG = lookup.findStatic(JavaFunction.class, "toLong",
+                    MethodType.methodType(long.class, Object.class));
+            TO_INT = lookup.findStatic(JavaFunction.class, "toInt",
+                    MethodType.methodType(int.class, Object.class));
+            TO_BOOLEAN = lookup.findStatic(JavaFunction.class, "toBoolean",
+                    MethodType.methodType(boolean.class, Object.class));
+            TO_STRING = lookup.findStatic(JavaFunction.class, "toJavaString",
+                    MethodType.methodType(String.class, Object.class));
+            TO_HOST = lookup.findStatic(ExecutionContext.class, "toHost",
+                    MethodType.methodType(Object.class, Object.class));
+            FROM_HOST = lookup.findStatic(JavaFunction.class, "fromHost",
+                    MethodType.methodType(Object.class, Object.class));
+            INTEGER = lookup.findStatic(Evaluator.class, "integer", MethodType.methodType(Object.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String name;
+    private final int arity;
+    private final MethodHandle invoker; // (List)Object
+
+    private JavaFunction(String name, MethodHandle handle) {
+        var target = handle.asFixedArity();
+        var type = target.type();
+        this.name = name;
+        this.arity = type.parameterCount();
+
+        // Convert each parameter from the argument at its index, then feed all of them from the same list
+        var filters = new MethodHandle[arity];
+        for (var i = 0; i < arity; i++) {
+            var get = MethodHandles.insertArguments(GET, 1, i);
+            filters[i] = MethodHandles.filterReturnValue(get, parameterAdapter(type.parameterType(i), handle));
+        }
+        var invoker = returnAdapter(MethodHandles.filterArguments(target, 0, filters), handle);
+        this.invoker = MethodHandles.permuteArguments(invoker, MethodType.methodType(Object.class, List.class),
+                new int[arity]);
+    }
+
+    /**
+     * Creates a function calling a method handle, e.g. of a static method or of an instance method bound to its
+     * receiver.
+     *
+     * @param name   The name of the function in TiEL.
+     * @param handle The method handle. A variable arity handle is called with a fixed number of arguments.
+     * @return The function.
+     * @throws IllegalArgumentException If a parameter or the return type is not supported.
+     */
+    public static JavaFunction of(String name, MethodHandle handle) {
+        return new JavaFunction(name, handle);
+    }
+
+    /**
+     * Creates a function calling a public static method, named like the method or as given by its
+     * {@link Export} annotation.
+     *
+     * @param method The method.
+     * @return The function.
+     * @throws IllegalArgumentException If the method is not public and static, or a parameter or the return type
+     *                                  is not supported.
+     */
+    public static JavaFunction of(Method method) {
+        if (!Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalArgumentException(String.format("Method %s is not static.", method));
+        }
+
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("Method %s is not accessible.", method), e);
+        }
+        var export = method.getAnnotation(Export.class);
+        var name = export == null || export.value().isEmpty() ? method.getName() : export.value();
+        return new JavaFunction(name, handle);
+    }
+
+    /**
+     * Creates functions calling the methods of a class that are annotated with {@link Export}.
+     *
+     * @param type The class, whose annotated methods must be public and static.
+     * @return The functions, in no particular order.
+     * @throws IllegalArgumentException If an annotated method is not public and static, or a parameter or the
+     *                                  return type is not supported.
+     */
+    public static List<JavaFunction> exported(Class<?> type) {
+        var functions = new ArrayList<JavaFunction>();
+        for (var method : type.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Export.class)) {
+                functions.add(of(method));
+            }
+        }
+        return functions;
+    }
+
+    private static MethodHandle parameterAdapter(Class<?> type, MethodHandle handle) {
+        if (type == double.class) return TO_DOUBLE;
+        if (type == float.class) return TO_FLOAT;
+        if (type == long.class) return TO_LONG;
+        if (type == int.class) return TO_INT;
+        if (type == boolean.class) return TO_BOOLEAN;
+        if (type == String.class) return TO_STRING;
+        if (type == Object.class) return TO_HOST;
+        throw new IllegalArgumentException(String.format("Unsupported parameter type %s of %s.", type.getName(),
+                handle));
+    }
+
+    private static MethodHandle returnAdapter(MethodHandle target, MethodHandle handle) {
+        var type = target.type().returnType();
+        if (type == Object.class) return MethodHandles.filterReturnValue(target, FROM_HOST);
+        // Primitive results are widened to long or double and then boxed, so they become Longs and Doubles
+        if (type == int.class) return box(target, long.class);
+        if (type == long.class) return MethodHandles.filterReturnValue(target, INTEGER);
+        if (type == float.class || type == double.class) return box(target, double.class);
+        if (type == void.class || type == boolean.class || type == String.class) {
+            return target.asType(target.type().changeReturnType(Object.class));
+        }
+        throw new IllegalArgumentException(String.format("Unsupported return type %s of %s.", type.getName(),
+                handle));
+    }
+
+    private static MethodHandle box(MethodHandle target, Class<?> primitive) {
+        return target.asType(target.type().changeReturnType(primitive))
+                .asType(target.type().changeReturnType(Object.class));
+    }
+
+    private static double toDouble(Object value) {
+        return switch (value) {
+            case Double d -> d;
+            case Long l -> l;
+            case null, default -> throw new RuntimeError("Expected a number.");
+        };
+    }
+
+    private static float toFloat(Object value) {
+        return (float) toDouble(value);
+    }
+
+    private static long toLong(Object value) {
+        return switch (value) {
+            case Long l -> l;
+            case Double d -> {
+                if (d != Math.rint(d)) {
+                    throw new RuntimeError("Expected an integer.");
+                }
+                if (d < -0x1p63 || d >= 0x1p63) {
+                    throw new RuntimeError(String.format("Expected an integer between %s and %s.", Long.MIN_VALUE,
+                            Long.MAX_VALUE));
+                }
+                yield d.longValue();
+            }
+            case null, default -> throw new RuntimeError("Expected an integer.");
+        };
+    }
+
+    private static int toInt(Object value) {
+        var l = toLong(value);
+        if (l != (int) l) {
+            throw new RuntimeError(String.format("Expected an integer between %s and %s.", Integer.MIN_VALUE,
+                    Integer.MAX_VALUE));
+        }
+        return (int) l;
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (!(value instanceof Boolean b)) {
+            throw new RuntimeError("Expected a boolean.");
+        }
+        return b;
+    }
+
+    private static String toJavaString(Object value) {
+        return switch (value) {
+            case String string -> string;
+            case TiELString string -> string.toString();
+            case null, default -> throw new RuntimeError("Expected a string.");
+        };
+    }
+
+    private static Object fromHost(Object value) {
+        return switch (value) {
+            case Long l -> Evaluator.integer(l);
+            case Integer i -> (long) i;
+            case Short s -> (long) s;
+            case Byte b -> (long) b;
+            case Float f -> (double) f;
+            case Character c -> c.toString();
+            case null, default -> value;
+        };
+    }
+
+    @Override
+    public int arity() {
+        return arity;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Object call(Evaluator evaluator, List<Object> arguments) {
+        try {
+            return (Object) invoker.invokeExact(arguments);
+        } catch (RuntimeError | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeError(String.format("Java method failed: %s", e));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
@@ -0,0 +1,110 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a UTF-8 text file through a {@link FileChannel}, for the sequences returned by
+ * {@code openLines}. Lines end at {@code \n} or {@code \r\n}; a final line without a line break is read as well.
+ * <p>
+ * Files of at least {@link #MAP_THRESHOLD} bytes are memory-mapped in regions of {@link #MAP_REGION} bytes, so
+ * that their bytes are scanned in place without being copied by the kernel first. Smaller files are read into a
+ * direct buffer of {@link #BUFFER_SIZE} bytes. Either way, the reader only copies the bytes of a line once, into a
+ * reused array, before decoding it, and takes constant memory however large the file is.
+ */
+final class LineReader implements Closeable {
+
+    static final int BUFFER_SIZE = 1 << 16;
+    static final long MAP_THRESHOLD = 1 << 24;
+    static final long MAP_REGION = 1 << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private final boolean mapped;
+    private ByteBuffer buffer; // The current region or the bytes read but not scanned yet
+    private long offset; // The position in the file where the next region starts
+
+    private byte[] line = new byte[256];
+    private int length;
+
+    /**
+     * Opens a file for reading.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    LineReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        mapped = size >= MAP_THRESHOLD;
+        buffer = mapped ? ByteBuffer.allocate(0) : ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return The line without its line break, or null at the end of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    String readLine() throws IOException {
+        length = 0;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                return length > 0 ? line() : null;
+            }
+
+            var start = buffer.position();
+            var limit = buffer.limit();
+            var end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            append(start, end);
+            if (end < limit) {
+                buffer.position(end + 1);
+                return line();
+            }
+            buffer.position(limit);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (mapped) {
+            if (offset >= size) return false;
+            var regionSize = Math.min(MAP_REGION, size - offset);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, regionSize);
+            offset += regionSize;
+            return true;
+        }
+
+        buffer.clear();
+        var count = channel.read(buffer);
+        buffer.flip();
+        return count > 0;
+    }
+
+    private void append(int start, int end) {
+        var count = end - start;
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(2 * line.length, length + count));
+        }
+        buffer.get(start, line, length, count);
+        length += count;
+    }
+
+    private String line() {
+        var end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        return new String(line, 0, end, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
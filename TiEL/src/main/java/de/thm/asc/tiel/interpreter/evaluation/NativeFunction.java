@@ -0,0 +1,61 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import java.util.List;
+
+/**
+ * Represents a function implemented in Java, such as the built-in functions of TiEL.
+ */
+final class NativeFunction implements TiELCallable {
+
+    /**
+     * The implementation of a native function.
+     */
+    @FunctionalInterface
+    interface Body {
+        /**
+         * Executes the function.
+         *
+         * @param evaluator The evaluator of the calling thread.
+         * @param arguments The arguments of the call, whose number matches the arity of the function.
+         * @return The result of the function.
+         */
+        Object call(Evaluator evaluator, List<Object> arguments);
+    }
+
+    private final String name;
+    private final int arity;
+    private final Body body;
+
+    /**
+     * Constructs a NativeFunction.
+     *
+     * @param name  The name of the function.
+     * @param arity The number of parameters, or {@link TiELCallable#VARIADIC}.
+     * @param body  The implementation of the function.
+     */
+    NativeFunction(String name, int arity, Body body) {
+        this.name = name;
+        this.arity = arity;
+        this.body = body;
+    }
+
+    @Override
+    public int arity() {
+        return arity;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Object call(Evaluator evaluator, List<Object> arguments) {
+        return body.call(evaluator, arguments);
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
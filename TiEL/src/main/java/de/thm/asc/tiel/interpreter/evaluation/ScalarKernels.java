@@ -0,0 +1,57 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+/**
+ * The vector kernels as plain loops, used if the Vector API is not available.
+ */
+final class ScalarKernels implements VectorKernels {
+
+    @Override
+    public double sum(double[] a, int n) {
+        var sum = 0.0;
+        for (var i = 0; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int n) {
+        var sum = 0.0;
+        for (var i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void add(double[] a, double[] b, double[] result, int n) {
+        for (var i = 0; i < n; i++) {
+            result[i] = a[i] + b[i];
+        }
+    }
+
+    @Override
+    public void scale(double[] a, double factor, double[] result, int n) {
+        for (var i = 0; i < n; i++) {
+            result[i] = a[i] * factor;
+        }
+    }
+
+    @Override
+    public double min(double[] a, int n) {
+        var min = Double.POSITIVE_INFINITY;
+        for (var i = 0; i < n; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int n) {
+        var max = Double.NEGATIVE_INFINITY;
+        for (var i = 0; i < n; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,97 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vector kernels implemented with the Vector API. Each loop processes whole vectors of the preferred size
+ * of the CPU and the remaining elements one by one. Sums are accumulated lane by lane and only added up at the
+ * end.
+ */
+final class SimdKernels implements VectorKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double sum(double[] a, int n) {
+        var sums = DoubleVector.zero(SPECIES);
+        var i = 0;
+        for (var bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            sums = sums.add(DoubleVector.fromArray(SPECIES, a, i));
+        }
+
+        var sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int n) {
+        var sums = DoubleVector.zero(SPECIES);
+        var i = 0;
+        for (var bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            sums = DoubleVector.fromArray(SPECIES, a, i).fma(DoubleVector.fromArray(SPECIES, b, i), sums);
+        }
+
+        var sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void add(double[] a, double[] b, double[] result, int n) {
+        var i = 0;
+        for (var bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(result, i);
+        }
+        for (; i < n; i++) {
+            result[i] = a[i] + b[i];
+        }
+    }
+
+    @Override
+    public void scale(double[] a, double factor, double[] result, int n) {
+        var i = 0;
+        for (var bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(factor).intoArray(result, i);
+        }
+        for (; i < n; i++) {
+            result[i] = a[i] * factor;
+        }
+    }
+
+    @Override
+    public double min(double[] a, int n) {
+        var mins = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        var i = 0;
+        for (var bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            mins = mins.min(DoubleVector.fromArray(SPECIES, a, i));
+        }
+
+        var min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < n; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int n) {
+        var maxs = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        var i = 0;
+        for (var bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            maxs = maxs.max(DoubleVector.fromArray(SPECIES, a, i));
+        }
+
+        var max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < n; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,159 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Represents an array in the TiEL programming language: a growable sequence of values, created by an array
+ * literal such as {@code [1, 2, 3]} and extended by {@code push}.
+ * <p>
+ * As long as an array only holds numbers, they are stored unboxed in a {@code double[]}, integers as the equal
+ * doubles. Storing any other value switches the array to an {@code Object[]} for good. Arrays of numbers thus take about a third of the memory and
+ * can be traversed without chasing a pointer per element.
+ * <p>
+ * Arrays are not synchronized. Functions started by {@code spawn} may read a shared array, but must not modify it
+ * while other threads access it.
+ */
+public final class TiELArray {
+
+    private static final double[] NO_NUMBERS = {};
+
+    private double[] numbers; // The elements while all of them are numbers, null afterwards
+    private Object[] objects; // The elements once any of them is not a number
+    private int size;
+
+    /**
+     * Constructs an empty array.
+     *
+     * @param capacity The number of elements the array can hold before it has to grow.
+     */
+    TiELArray(int capacity) {
+        numbers = capacity == 0 ? NO_NUMBERS : new double[capacity];
+    }
+
+    /**
+     * Constructs an array of numbers, taking ownership of the given storage.
+     *
+     * @param numbers The elements.
+     */
+    TiELArray(double[] numbers) {
+        this.numbers = numbers;
+        size = numbers.length;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return The length of the array.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an element.
+     *
+     * @param index The index of the element, between 0 (inclusive) and the size (exclusive).
+     * @return The element.
+     */
+    public Object get(int index) {
+        return numbers != null ? (Object) numbers[index] : objects[index];
+    }
+
+    /**
+     * Replaces an element.
+     *
+     * @param index The index of the element, between 0 (inclusive) and the size (exclusive).
+     * @param value The new element.
+     */
+    void set(int index, Object value) {
+        if (numbers != null) {
+            if (isStorable(value)) {
+                numbers[index] = Evaluator.toDouble(value);
+                return;
+            }
+            generalize(numbers.length);
+        }
+        objects[index] = value;
+    }
+
+    /**
+     * Appends an element, growing the storage if necessary.
+     *
+     * @param value The element to append.
+     */
+    void add(Object value) {
+        if (numbers != null) {
+            if (isStorable(value)) {
+                if (size == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, grow(size));
+                }
+                numbers[size++] = Evaluator.toDouble(value);
+                return;
+            }
+            generalize(size == numbers.length ? grow(size) : numbers.length);
+        } else if (size == objects.length) {
+            objects = Arrays.copyOf(objects, grow(size));
+        }
+        objects[size++] = value;
+    }
+
+    /**
+     * Returns the elements as numbers, for the vector built-in functions. Only the first {@link #size()} elements
+     * of the returned array are valid.
+     *
+     * @return The unboxed storage of the array, a copy if the numbers are stored as objects, or null if any
+     * element is not a number.
+     */
+    double[] numbers() {
+        if (numbers != null) return numbers;
+
+        var copy = new double[size];
+        for (var i = 0; i < size; i++) {
+            if (!Evaluator.isNumber(objects[i])) return null;
+            copy[i] = Evaluator.toDouble(objects[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Checks whether a value can be stored in the {@code double[]} without changing it.
+     */
+    static boolean isStorable(Object value) {
+        return Evaluator.isNumber(value); // Integers are exactly representable as doubles
+    }
+
+    /**
+     * Switches the storage to objects, boxing the numbers stored so far.
+     */
+    private void generalize(int capacity) {
+        objects = new Object[capacity];
+        for (var i = 0; i < size; i++) {
+            objects[i] = numbers[i];
+        }
+        numbers = null;
+    }
+
+    private static int grow(int size) {
+        return Math.max(8, size + (size >> 1));
+    }
+
+    /**
+     * Returns a string representation of the array.
+     *
+     * @return The elements separated by commas and enclosed in brackets, e.g. {@code [1, "a", nil]}.
+     */
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("[");
+        for (var i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            var element = get(i);
+            if (element instanceof String || element instanceof TiELString) {
+                builder.append('"').append(element).append('"');
+            } else {
+                builder.append(Evaluator.stringify(element));
+            }
+        }
+        return builder.append(']').toString();
+    }
+}
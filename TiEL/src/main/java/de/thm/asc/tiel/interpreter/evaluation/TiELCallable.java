@@ -8,13 +8,25 @@ import java.util.List;
  */
 interface TiELCallable {
 
+    /**
+     * The arity of callables accepting any number of arguments. Such callables check their arguments themselves.
+     */
+    int VARIADIC = -1;
+
     /**
      * Returns the number of parameters required by the callable entity.
      *
-     * @return The number of parameters (arity) expected by the callable.
+     * @return The number of parameters (arity) expected by the callable, or {@link #VARIADIC}.
      */
     int arity();
 
+    /**
+     * Returns the name of the callable entity, e.g. to report the call stack of runtime errors.
+     *
+     * @return The name of the callable.
+     */
+    String name();
+
     /**
      * Executes the callable entity with the given evaluator and arguments.
      *
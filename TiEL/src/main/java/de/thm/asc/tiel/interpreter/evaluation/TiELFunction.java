@@ -2,6 +2,7 @@ package de.thm.asc.tiel.interpreter.evaluation;
 
 import de.thm.asc.tiel.interpreter.ast.stmt.FunctionDeclStmt;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,7 +37,28 @@ class TiELFunction implements TiELCallable {
     }
 
     /**
-     * Calls the function with the given evaluator and arguments.
+     * Returns a copy of the function with a copy of the local variables it has captured, so that it can be run
+     * on another thread. Global variables remain shared.
+     *
+     * @return The copy.
+     */
+    TiELFunction copy() {
+        return new TiELFunction(declaration, closure.copy());
+    }
+
+    /**
+     * Returns the name of the function.
+     *
+     * @return The name given in the declaration.
+     */
+    @Override
+    public String name() {
+        return declaration.name.lexeme();
+    }
+
+    /**
+     * Calls the function with the given evaluator and arguments. Calling a generator, i.e. a function containing
+     * {@code yield}, does not run its body but returns a {@link TiELGenerator} for it.
      *
      * @param evaluator The evaluator executing the function.
      * @param arguments The arguments passed to the function.
@@ -44,6 +66,21 @@ class TiELFunction implements TiELCallable {
      */
     @Override
     public Object call(Evaluator evaluator, List<Object> arguments) {
+        if (declaration.generator) {
+            // The caller may reuse the list, while the body only runs later
+            return evaluator.context().generate(copy(), new ArrayList<>(arguments));
+        }
+        return execute(evaluator, arguments);
+    }
+
+    /**
+     * Runs the body of the function with the given evaluator and arguments.
+     *
+     * @param evaluator The evaluator executing the function.
+     * @param arguments The arguments passed to the function.
+     * @return The result of function execution, or {@code null} if no return value is specified.
+     */
+    Object execute(Evaluator evaluator, List<Object> arguments) {
         var environment = new Environment(closure);
 
         for (var i = 0; i < declaration.params.size(); i++) {
@@ -51,7 +88,7 @@ class TiELFunction implements TiELCallable {
         }
 
         try {
-            evaluator.executeBlock(declaration.body, environment);
+            evaluator.executeBlock(declaration.body(), environment);
         } catch (ReturnException returnValue) {
             return returnValue.value;
         }
@@ -0,0 +1,59 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Represents the handle returned by {@code spawn}: the result of a function running on another thread.
+ */
+final class TiELFuture {
+
+    private final CompletableFuture<Object> result;
+
+    TiELFuture(CompletableFuture<Object> result) {
+        this.result = result;
+    }
+
+    /**
+     * Waits for the function to finish.
+     *
+     * @return The result of the function.
+     * @throws RuntimeError If the function failed, or if the waiting thread has been interrupted.
+     */
+    Object await() {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeError("Execution interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeError error) {
+                // Every waiting thread adds its own frames, so each one gets its own copy of the error
+                var copy = new RuntimeError(error.getMessage(), error.line);
+                for (var frame : error.callStack()) {
+                    copy.addFrame(frame.function(), frame.line());
+                }
+                throw copy;
+            }
+            if (e.getCause() instanceof StackOverflowError) {
+                throw new RuntimeError("Stack overflow.");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * Returns a string representation of the future.
+     *
+     * @return The string "<future>".
+     */
+    @Override
+    public String toString() {
+        return "<future>";
+    }
+}
@@ -0,0 +1,233 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+
+import java.lang.ref.Cleaner;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents the generator returned by calling a function that contains {@code yield}. The body of the function
+ * does not run when it is called, but step by step: {@code next(g)} runs it up to its next {@code yield} and returns
+ * the yielded value, and {@code done(g)} checks whether it has finished.
+ * <p>
+ * The body runs on a thread of its own, like a function started by {@code spawn} (by default a virtual thread, on
+ * which blocking is cheap), with its own evaluator and call depth. Only one of the two threads runs at a time: the
+ * caller of {@code next} hands control to the body and parks, and {@code yield} hands the value back and parks the
+ * body until the next call. The hand-off is a volatile turn flag and a pair of {@link LockSupport#park()} and
+ * {@link LockSupport#unpark(Thread)} calls in each direction, so a {@code yield} costs two thread switches but
+ * allocates nothing. The thread is only started by the first {@code next} or {@code done}.
+ * <p>
+ * Several threads may call {@code next} on the same generator; a lock, which unlike a monitor does not pin a
+ * virtual thread to its carrier while it waits, lets them take turns.
+ * <p>
+ * A generator that is dropped before its body has finished is closed once it has been garbage collected: its
+ * parked body is woken up and ends at its {@code yield}, so that it does not occupy a thread forever.
+ */
+final class TiELGenerator {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Producer producer;
+    private final Cleaner.Cleanable cleanable;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Object pending; // The value yielded by the body but not returned by next yet
+    private boolean hasPending;
+
+    /**
+     * Constructs a generator that has not started yet.
+     *
+     * @param function  The generator function.
+     * @param arguments The arguments of the call, whose number matches the arity of the function.
+     * @param context   The context the body runs in.
+     * @param executor  The executor running the body.
+     */
+    TiELGenerator(TiELFunction function, List<Object> arguments, ExecutionContext context, Executor executor) {
+        producer = new Producer(function, arguments, context, executor);
+        // The producer must not refer to this generator, or the generator would never become unreachable
+        cleanable = CLEANER.register(this, producer::close);
+    }
+
+    /**
+     * Returns the next value of the generator, running the body up to its next {@code yield}.
+     *
+     * @return The yielded value, or nil if the body has finished.
+     * @throws RuntimeError If the body has failed.
+     */
+    Object next() {
+        lock.lock();
+        try {
+            if (!fill()) return null;
+
+            var value = pending;
+            pending = null;
+            hasPending = false;
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the generator has finished, running the body up to its next {@code yield} if necessary. The
+     * yielded value is kept for the next call of {@link #next()}.
+     *
+     * @return True if the body has finished and all yielded values have been returned, false otherwise.
+     * @throws RuntimeError If the body has failed.
+     */
+    boolean done() {
+        lock.lock();
+        try {
+            return !fill();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fill() {
+        if (hasPending) return true;
+        if (producer.finished) return false;
+
+        producer.resume();
+        if (producer.finished) {
+            cleanable.clean();
+            var failure = producer.failure;
+            producer.failure = null;
+            if (failure != null) throw failure;
+            return false;
+        }
+        pending = producer.value;
+        producer.value = null;
+        hasPending = true;
+        return true;
+    }
+
+    /**
+     * Returns a string representation of the generator.
+     *
+     * @return The string "<generator>".
+     */
+    @Override
+    public String toString() {
+        return "<generator>";
+    }
+
+    /**
+     * The body of a generator and the state it shares with the threads calling {@code next}. The fields other
+     * than the turn flag are only accessed by the thread whose turn it is, and the volatile writes and reads of the
+     * flag order them.
+     */
+    static final class Producer implements Runnable {
+
+        private static final Closed CLOSED = new Closed();
+
+        private final TiELFunction function;
+        private final List<Object> arguments;
+        private final ExecutionContext context;
+        private final Executor executor;
+
+        private volatile boolean running; // Whose turn it is: the body's if true, the caller's if false
+        private volatile boolean closed;
+        private volatile Thread body;
+        private Thread caller;
+        private boolean started;
+        private boolean finished;
+        private Object value;
+        private RuntimeException failure;
+
+        private Producer(TiELFunction function, List<Object> arguments, ExecutionContext context, Executor executor) {
+            this.function = function;
+            this.arguments = arguments;
+            this.context = context;
+            this.executor = executor;
+        }
+
+        /**
+         * Runs the body until it yields or finishes. Called by the thread calling {@code next}.
+         */
+        private void resume() {
+            caller = Thread.currentThread();
+            running = true;
+            if (started) {
+                LockSupport.unpark(body);
+            } else {
+                started = true;
+                executor.execute(this);
+            }
+
+            while (running) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    // The body may still be running, so the generator cannot be used anymore
+                    close();
+                    finished = true;
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeError("Execution interrupted.");
+                }
+            }
+        }
+
+        /**
+         * Hands a value to the caller of {@code next} and waits until the next value is requested. Called by the
+         * body.
+         *
+         * @param value The yielded value.
+         */
+        void suspend(Object value) {
+            this.value = value;
+            var thread = caller; // Read before handing over, since the next caller may replace it
+            running = false;
+            LockSupport.unpark(thread);
+
+            while (!running && !closed) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new RuntimeError("Execution interrupted.");
+                }
+            }
+            if (closed) throw CLOSED;
+        }
+
+        @Override
+        public void run() {
+            body = Thread.currentThread();
+            try {
+                if (!closed) function.execute(new Evaluator(context, this), arguments);
+            } catch (RuntimeError e) {
+                e.addFrame(function.name(), 0);
+                failure = e;
+            } catch (StackOverflowError e) {
+                failure = new RuntimeError("Stack overflow.");
+            } catch (Closed e) {
+                // The generator has been dropped or its caller interrupted
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                finished = true;
+                var thread = caller;
+                running = false;
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Unwinds the body of a closed generator from its {@code yield}.
+         */
+        private static final class Closed extends RuntimeException {
+            Closed() {
+                super(null, null, false, false);
+            }
+        }
+
+        /**
+         * Makes a body waiting in {@link #suspend} end.
+         */
+        private void close() {
+            closed = true;
+            var thread = body;
+            if (thread != null) LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Represents a map in the TiEL programming language: an associative table created by {@code map()}, read by
+ * {@code get} and {@code has}, and filled by {@code put}. Two keys are the same if they are equal according to
+ * {@code ==}, so arrays, maps and functions are compared by identity.
+ * <p>
+ * The entries are stored in insertion order in parallel arrays, which {@code keys} simply traverses. An open
+ * addressing table of {@code int}s, at most half full and probed linearly, maps the hashes of the keys to their
+ * entries. Number keys are stored as the bits of their {@code double}s in a {@code long[]}, so that a probe
+ * compares them without following a pointer, and integers as the bits of the equal doubles; string keys use the
+ * hash cached by {@link String}. Each entry thus takes about 32 bytes besides its key and value, and the map only
+ * grows, by half of its size at a time.
+ * <p>
+ * Maps are not synchronized. Functions started by {@code spawn} may read a shared map, but must not modify it
+ * while other threads access it.
+ */
+public final class TiELMap {
+
+    private static final Object NUMBER = new Object(); // Marks keys that are stored in numberKeys
+    private static final Object NIL = new Object(); // Represents the key nil, since null marks no key
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L; // Spreads the hash bits over the table
+
+    private int[] table = new int[16]; // The index of the entry plus 1 for each slot, 0 if the slot is free
+    private int shift = 64 - 4; // Turns a spread hash into a slot of the table
+    private Object[] keys = new Object[8];
+    private long[] numberKeys = new long[8];
+    private Object[] values = new Object[8];
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     */
+    TiELMap() {
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of keys in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the map does not contain the key.
+     */
+    public Object get(Object key) {
+        var entry = find(TiELString.flatten(key));
+        return entry >= 0 ? values[entry] : null;
+    }
+
+    /**
+     * Checks whether the map contains a key.
+     *
+     * @param key The key.
+     * @return True if the map contains the key, false otherwise.
+     */
+    public boolean has(Object key) {
+        return find(TiELString.flatten(key)) >= 0;
+    }
+
+    /**
+     * Sets the value of a key, adding a new entry if the map does not contain the key yet.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    void put(Object key, Object value) {
+        if (size == keys.length) grow();
+
+        key = TiELString.flatten(key);
+        var entry = find(key);
+        if (entry >= 0) {
+            values[entry] = value;
+            return;
+        }
+
+        table[-entry - 1] = size + 1;
+        if (TiELArray.isStorable(key)) {
+            keys[size] = NUMBER;
+            numberKeys[size] = Double.doubleToLongBits(Evaluator.toDouble(key));
+        } else {
+            keys[size] = key == null ? NIL : key;
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Returns the keys in the order in which they were added.
+     *
+     * @return A new array of the keys.
+     */
+    TiELArray keys() {
+        var array = new TiELArray(size);
+        for (var i = 0; i < size; i++) {
+            array.add(key(i));
+        }
+        return array;
+    }
+
+    private Object key(int entry) {
+        var key = keys[entry];
+        if (key == NUMBER) return Double.longBitsToDouble(numberKeys[entry]);
+        return key == NIL ? null : key;
+    }
+
+    /**
+     * Looks up the entry of a key.
+     *
+     * @return The index of the entry, or -(slot + 1) for the free slot where the key would be inserted.
+     */
+    private int find(Object key) {
+        var mask = table.length - 1;
+        if (TiELArray.isStorable(key)) {
+            var bits = Double.doubleToLongBits(Evaluator.toDouble(key));
+            for (var slot = slot(bits); ; slot = (slot + 1) & mask) {
+                var entry = table[slot] - 1;
+                if (entry < 0) return -slot - 1;
+                if (keys[entry] == NUMBER && numberKeys[entry] == bits) return entry;
+            }
+        }
+
+        var stored = key == null ? NIL : key;
+        for (var slot = slot(stored.hashCode()); ; slot = (slot + 1) & mask) {
+            var entry = table[slot] - 1;
+            if (entry < 0) return -slot - 1;
+            if (keys[entry] == stored || keys[entry].equals(stored)) return entry;
+        }
+    }
+
+    private int slot(long hash) {
+        return (int) ((hash * GOLDEN) >>> shift);
+    }
+
+    private static long hash(Object key, long numberKey) {
+        return key == NUMBER ? numberKey : key.hashCode();
+    }
+
+    /**
+     * Grows the entries by half and rebuilds the table, so that it stays at most half full.
+     */
+    private void grow() {
+        var capacity = size + (size >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        numberKeys = Arrays.copyOf(numberKeys, capacity);
+        values = Arrays.copyOf(values, capacity);
+
+        if (table.length < 2 * capacity) {
+            table = new int[Integer.highestOneBit(2 * capacity - 1) << 1];
+            shift = 64 - Integer.numberOfTrailingZeros(table.length);
+            var mask = table.length - 1;
+            for (var entry = 0; entry < size; entry++) {
+                var slot = slot(hash(keys[entry], numberKeys[entry]));
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of the map.
+     *
+     * @return The entries separated by commas and enclosed in braces, e.g. {@code {"a": 1, 2: nil}}.
+     */
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("{");
+        for (var i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            appendValue(builder, key(i));
+            builder.append(": ");
+            appendValue(builder, values[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private static void appendValue(StringBuilder builder, Object value) {
+        if (value instanceof String || value instanceof TiELString) {
+            builder.append('"').append(value).append('"');
+        } else {
+            builder.append(Evaluator.stringify(value));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Represents a lazy sequence in the TiEL programming language: a range of integers created by {@code range}, the
+ * lines of a file opened by {@code openLines}, or the elements of an array, transformed by {@code map},
+ * {@code filter} and {@code take} and consumed by {@code reduce}.
+ * <p>
+ * A sequence does not hold any elements. It consists of its source and the list of stages added to it, and
+ * {@code map}, {@code filter} and {@code take} merely return a new sequence with one more stage. Only
+ * {@code reduce} runs the whole chain, in a single loop that pulls one element at a time from the source and
+ * passes it through all stages before pulling the next. No intermediate arrays are created, so a chain over a range
+ * of any length takes constant memory. The functions of the stages are checked once when they are added and are
+ * then called through {@link Evaluator#invoke}, with argument lists that are reused for every element.
+ * <p>
+ * Sequences are immutable and can be reduced any number of times, also by functions started by {@code spawn}. A
+ * sequence over an array sees the elements the array has when it is reduced, and a sequence over a file opens the
+ * file anew for every run and closes it at the end of the run.
+ */
+public final class TiELSequence {
+
+    private static final int MAP = 0;
+    private static final int FILTER = 1;
+    private static final int TAKE = 2;
+
+    private final TiELArray array; // The source array, if any
+    private final Path file; // The source file, if any; the source is the range if both are null
+    private final long start;
+    private final long end; // Exclusive
+    private final int[] kinds; // The kind of each stage, MAP, FILTER or TAKE
+    private final Object[] operands; // The function of each MAP and FILTER stage, the limit of each TAKE stage
+
+    private TiELSequence(TiELArray array, Path file, long start, long end, int[] kinds, Object[] operands) {
+        this.array = array;
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.kinds = kinds;
+        this.operands = operands;
+    }
+
+    /**
+     * Constructs the sequence of the integers from {@code start} (inclusive) to {@code end} (exclusive).
+     *
+     * @param start The first integer.
+     * @param end   The integer after the last one.
+     * @return The sequence, which is empty if {@code end} is not greater than {@code start}.
+     */
+    static TiELSequence range(long start, long end) {
+        return new TiELSequence(null, null, start, end, new int[0], new Object[0]);
+    }
+
+    /**
+     * Constructs the sequence of the elements of an array.
+     *
+     * @param array The array.
+     * @return The sequence.
+     */
+    static TiELSequence of(TiELArray array) {
+        return new TiELSequence(array, null, 0, 0, new int[0], new Object[0]);
+    }
+
+    /**
+     * Constructs the sequence of the lines of a UTF-8 text file, which are read by a {@link LineReader}.
+     *
+     * @param file The path of the file, which has already been checked by {@link FileAccess#resolve}.
+     * @return The sequence.
+     */
+    static TiELSequence lines(Path file) {
+        return new TiELSequence(null, file, 0, 0, new int[0], new Object[0]);
+    }
+
+    /**
+     * Returns a sequence that passes each element of this sequence to a function and yields its results.
+     *
+     * @param function A function of one parameter.
+     * @return The new sequence.
+     */
+    TiELSequence map(TiELCallable function) {
+        return with(MAP, function);
+    }
+
+    /**
+     * Returns a sequence of the elements of this sequence for which a function returns a truthy value.
+     *
+     * @param function A function of one parameter.
+     * @return The new sequence.
+     */
+    TiELSequence filter(TiELCallable function) {
+        return with(FILTER, function);
+    }
+
+    /**
+     * Returns a sequence of at most the first {@code limit} elements of this sequence. Once they have been
+     * yielded, {@code reduce} stops pulling elements from the source.
+     *
+     * @param limit The maximum number of elements.
+     * @return The new sequence.
+     */
+    TiELSequence take(long limit) {
+        return with(TAKE, Math.max(limit, 0));
+    }
+
+    private TiELSequence with(int kind, Object operand) {
+        var stages = kinds.length;
+        var newKinds = Arrays.copyOf(kinds, stages + 1);
+        var newOperands = Arrays.copyOf(operands, stages + 1);
+        newKinds[stages] = kind;
+        newOperands[stages] = operand;
+        return new TiELSequence(array, file, start, end, newKinds, newOperands);
+    }
+
+    /**
+     * Runs the sequence, combining its elements with a function from left to right.
+     *
+     * @param evaluator The evaluator of the calling thread.
+     * @param function  A function of two parameters, the result so far and the next element.
+     * @param initial   The result for an empty sequence.
+     * @return The result of the last call of the function, or {@code initial} if the sequence is empty.
+     */
+    Object reduce(Evaluator evaluator, TiELCallable function, Object initial) {
+        // The callees copy their arguments into their environments, so the list can be reused
+        var pair = new Object[2];
+        var pairArguments = Arrays.asList(pair);
+        return run(evaluator, (result, element) -> {
+            pair[0] = result;
+            pair[1] = element;
+            return evaluator.invoke(function, pairArguments, 0);
+        }, initial);
+    }
+
+    /**
+     * Runs the sequence, passing its elements to a Java function, e.g. to write them to a file.
+     *
+     * @param evaluator The evaluator of the calling thread.
+     * @param action    The function receiving the elements.
+     */
+    void forEach(Evaluator evaluator, Consumer<Object> action) {
+        run(evaluator, (result, element) -> {
+            action.accept(element);
+            return null;
+        }, null);
+    }
+
+    private Object run(Evaluator evaluator, BinaryOperator<Object> combine, Object initial) {
+        try (var lines = file == null ? null : new LineReader(file)) {
+            return run(evaluator, combine, initial, lines);
+        } catch (IOException e) {
+            throw FileAccess.error(file.toString(), e);
+        }
+    }
+
+    private Object run(Evaluator evaluator, BinaryOperator<Object> combine, Object initial, LineReader lines)
+            throws IOException {
+        var argument = new Object[1];
+        var arguments = Arrays.asList(argument);
+
+        var taken = new long[kinds.length];
+        var result = initial;
+        var index = 0;
+        var number = start;
+        var last = false;
+
+        elements:
+        while (!last) {
+            Object element;
+            if (array != null) {
+                if (index >= array.size()) break;
+                element = array.get(index++);
+            } else if (lines != null) {
+                element = lines.readLine();
+                if (element == null) break;
+            } else {
+                if (number >= end) break;
+                element = number++;
+            }
+
+            for (var stage = 0; stage < kinds.length; stage++) {
+                switch (kinds[stage]) {
+                    case MAP -> element = call(evaluator, operands[stage], argument, arguments, element);
+                    case FILTER -> {
+                        if (!Evaluator.isTruthy(call(evaluator, operands[stage], argument, arguments, element))) {
+                            continue elements;
+                        }
+                    }
+                    default -> {
+                        var limit = (long) operands[stage];
+                        if (taken[stage] == limit) break elements;
+                        // Stop after this element rather than computing the next one in vain
+                        if (++taken[stage] == limit) last = true;
+                    }
+                }
+            }
+
+            result = combine.apply(result, element);
+        }
+        return result;
+    }
+
+    private static Object call(Evaluator evaluator, Object function, Object[] argument, List<Object> arguments,
+                               Object element) {
+        argument[0] = element;
+        return evaluator.invoke((TiELCallable) function, arguments, 0);
+    }
+
+    /**
+     * Returns a string representation of the sequence.
+     *
+     * @return The string {@code <sequence>}, since the elements are not known before the sequence is run.
+     */
+    @Override
+    public String toString() {
+        return "<sequence>";
+    }
+}
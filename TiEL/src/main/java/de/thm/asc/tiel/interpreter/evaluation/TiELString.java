@@ -0,0 +1,109 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+/**
+ * Represents a string built by {@code +} in the TiEL programming language, so that a loop like
+ * {@code while ... do s = s + part;} takes linear instead of quadratic time.
+ * <p>
+ * A TiELString is a prefix of a {@link StringBuilder} that may be shared by several strings. Appending to the
+ * string that ends where the builder ends appends to the builder in place and returns a longer string sharing it;
+ * the shorter string still sees its own prefix. Only appending to a string that has been appended to before copies
+ * it into a new builder. Repeated appends thus take amortized constant time.
+ * <p>
+ * The characters are copied into a {@link String} only when needed, i.e. when the string is printed, compared by
+ * {@code ==} or used as a key of a map, and this copy is cached. Short results of {@code +} are plain Strings,
+ * since copying them costs less than the builder. Hosts receive plain Strings from
+ * {@link ExecutionContext#declarations()} and {@link ExecutionContext#call}, but may find TiELStrings, as
+ * {@link CharSequence}s, inside arrays and maps.
+ */
+public final class TiELString implements CharSequence {
+
+    private static final int MIN_LENGTH = 64; // Shorter results of + are plain Strings
+
+    private final StringBuilder builder; // Shared by the strings appended to each other; guarded by itself
+    private final int length;
+    private String string; // The cached copy of the characters, null until needed
+
+    private TiELString(StringBuilder builder, int length) {
+        this.builder = builder;
+        this.length = length;
+    }
+
+    /**
+     * Concatenates two strings.
+     *
+     * @param left  The left operand of {@code +}, a String or a TiELString.
+     * @param right The right operand of {@code +}, a String or a TiELString.
+     * @return The concatenation, a String or a TiELString.
+     */
+    static Object concat(Object left, Object right) {
+        var suffix = right.toString();
+        if (left instanceof TiELString string) {
+            return string.append(suffix);
+        }
+
+        var prefix = (String) left;
+        var length = prefix.length() + suffix.length();
+        if (length < MIN_LENGTH) {
+            return prefix.concat(suffix);
+        }
+        return new TiELString(new StringBuilder(2 * length).append(prefix).append(suffix), length);
+    }
+
+    private TiELString append(String suffix) {
+        synchronized (builder) {
+            if (builder.length() == length) {
+                builder.append(suffix);
+                return new TiELString(builder, builder.length());
+            }
+        }
+
+        // Another string has been appended already, so the builder cannot be extended
+        var copy = new StringBuilder(2 * (length + suffix.length())).append(toString()).append(suffix);
+        return new TiELString(copy, copy.length());
+    }
+
+    /**
+     * Replaces a TiELString by a String, e.g. to compare it or to pass it to the host.
+     *
+     * @param value Any value.
+     * @return The characters of the value if it is a TiELString, otherwise the value itself.
+     */
+    static Object flatten(Object value) {
+        return value instanceof TiELString string ? string.toString() : value;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Returns the characters of the string, copying them on the first call.
+     *
+     * @return The characters as a String.
+     */
+    @Override
+    public String toString() {
+        var result = string;
+        if (result == null) {
+            synchronized (builder) {
+                result = builder.substring(0, length);
+            }
+            string = result; // A race only copies the characters twice
+        }
+        return result;
+    }
+}
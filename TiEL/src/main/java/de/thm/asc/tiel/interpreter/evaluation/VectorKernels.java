@@ -0,0 +1,46 @@
+package de.thm.asc.tiel.interpreter.evaluation;
+
+/**
+ * The numeric loops behind the vector built-in functions such as {@code vsum} and {@code vdot}. They operate on
+ * the first {@code n} elements of {@code double[]} arrays, which may be longer.
+ * <p>
+ * If the JVM has been started with {@code --add-modules jdk.incubator.vector}, the loops are implemented with the
+ * Vector API, which processes as many elements per instruction as the SIMD registers of the CPU hold. Otherwise,
+ * plain loops are used. Since the SIMD implementation adds up the elements in a different order, sums and dot
+ * products may differ from the plain loops in the last bits.
+ */
+interface VectorKernels {
+
+    /**
+     * The implementation used by the built-in functions.
+     */
+    VectorKernels INSTANCE = load();
+
+    double sum(double[] a, int n);
+
+    double dot(double[] a, double[] b, int n);
+
+    void add(double[] a, double[] b, double[] result, int n);
+
+    void scale(double[] a, double factor, double[] result, int n);
+
+    double min(double[] a, int n);
+
+    double max(double[] a, int n);
+
+    /**
+     * Returns the SIMD implementation if the Vector API is available, otherwise the plain loops.
+     *
+     * @return The implementation.
+     */
+    private static VectorKernels load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new SimdKernels();
+            } catch (LinkageError e) {
+                // Fall back to the plain loops
+            }
+        }
+        return new ScalarKernels();
+    }
+}
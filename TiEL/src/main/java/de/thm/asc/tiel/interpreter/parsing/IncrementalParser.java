@@ -0,0 +1,194 @@
+package de.thm.asc.tiel.interpreter.parsing;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.error.Diagnostic;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.scanning.IncrementalScanner;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import de.thm.asc.tiel.interpreter.scanning.TokenSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.EOF;
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.FUN;
+
+/**
+ * The IncrementalParser keeps the global statements of a text up to date while the text is edited. It parses the
+ * tokens of an {@link IncrementalScanner} one global statement at a time and remembers, for every statement, which
+ * tokens the parser has examined. After an edit, all statements that did not examine a changed token are reused,
+ * and parsing continues behind the changed tokens only until it reaches the start of an old statement again.
+ * <p>
+ * A syntax error does not hide the rest of the program: the statement containing the error is skipped up to the
+ * next {@code fun} keyword, where parsing resumes.
+ */
+public class IncrementalParser {
+
+    /**
+     * A global statement, or the tokens skipped after a syntax error. Token indices refer to the scanner.
+     */
+    private static final class Segment {
+        int first; // The index of the first token
+        int end; // The index of the first token behind the segment
+        int examined; // The index of the first token the parser did not look at
+        int line; // The line of the first token when the segment was parsed
+        Stmt statement; // The parsed statement, or null after a syntax error
+        String error; // The message of the syntax error, or null
+        int errorLine; // The line of the syntax error, relative to the line of the first token
+    }
+
+    /**
+     * Hands out the tokens of the scanner starting at a given index and counts how many have been fetched.
+     */
+    private final class Window implements TokenSource {
+        private final int first;
+        private int fetched;
+
+        Window(int first) {
+            this.first = first;
+        }
+
+        @Override
+        public Token nextToken() {
+            return scanner.token(Math.min(first + fetched++, scanner.tokenCount() - 1));
+        }
+    }
+
+    private final IncrementalScanner scanner;
+    private List<Segment> segments = new ArrayList<>();
+
+    /**
+     * Constructs an IncrementalParser and parses the current tokens of the given scanner.
+     *
+     * @param scanner The scanner supplying the tokens.
+     */
+    public IncrementalParser(IncrementalScanner scanner) {
+        this.scanner = scanner;
+        for (var position = 0; scanner.type(position) != EOF; ) {
+            var segment = parse(position);
+            segments.add(segment);
+            position = segment.end;
+        }
+    }
+
+    /**
+     * Updates the statements after the tokens of the scanner have changed.
+     *
+     * @param change The change of the tokens, as returned by {@link IncrementalScanner#edit(int, int, String)}.
+     */
+    public void update(IncrementalScanner.Change change) {
+        var changed = change.first();
+        var changedEnd = change.first() + change.removed(); // Index of the first unchanged old token
+        var delta = change.inserted() - change.removed();
+
+        // Segments that did not examine a changed token are kept
+        var kept = 0;
+        while (kept < segments.size() && segments.get(kept).examined <= changed) {
+            kept++;
+        }
+
+        var position = kept < segments.size() ? segments.get(kept).first
+                : kept == 0 ? 0 : segments.get(kept - 1).end;
+
+        // Parse until a segment ends where an old segment behind the changed tokens started
+        var parsed = new ArrayList<Segment>();
+        var reused = kept;
+        while (scanner.type(position) != EOF) {
+            while (reused < segments.size() && (segments.get(reused).first < changedEnd
+                    || segments.get(reused).first + delta < position)) {
+                reused++;
+            }
+            if (reused < segments.size() && segments.get(reused).first + delta == position) {
+                break;
+            }
+
+            var segment = parse(position);
+            parsed.add(segment);
+            position = segment.end;
+        }
+        if (scanner.type(position) == EOF) {
+            reused = segments.size();
+        }
+
+        var updated = new ArrayList<Segment>(kept + parsed.size() + segments.size() - reused);
+        updated.addAll(segments.subList(0, kept));
+        updated.addAll(parsed);
+        for (var segment : segments.subList(reused, segments.size())) {
+            segment.first += delta;
+            segment.end += delta;
+            segment.examined += delta;
+            updated.add(segment);
+        }
+        segments = updated;
+    }
+
+    /**
+     * Returns the global statements that could be parsed without errors. Statements whose tokens have moved to
+     * other lines are parsed again, so that their tokens carry the current line numbers; all other statements
+     * are the same objects as before the last edit.
+     *
+     * @return The global statements.
+     */
+    public List<Stmt> statements() {
+        var statements = new ArrayList<Stmt>(segments.size());
+        for (var i = 0; i < segments.size(); i++) {
+            var segment = segments.get(i);
+            if (segment.line != scanner.line(segment.first)) {
+                segment = parse(segment.first);
+                segments.set(i, segment);
+            }
+            if (segment.statement != null) {
+                statements.add(segment.statement);
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Returns the syntax errors in the text.
+     *
+     * @return The syntax errors, at most one per global statement, ordered by their position.
+     */
+    public List<Diagnostic> errors() {
+        var errors = new ArrayList<Diagnostic>();
+        for (var segment : segments) {
+            if (segment.error != null) {
+                errors.add(new Diagnostic(scanner.line(segment.first) + segment.errorLine, segment.error));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Parses the global statement starting at the given token.
+     *
+     * @param first The index of the first token.
+     * @return The parsed segment.
+     */
+    private Segment parse(int first) {
+        var segment = new Segment();
+        segment.first = first;
+        segment.line = scanner.line(first);
+
+        var window = new Window(first);
+        var parser = new Parser(window);
+        try {
+            segment.statement = parser.next();
+            segment.end = first + window.fetched - (parser.hasLookahead() ? 1 : 0);
+            segment.examined = first + window.fetched;
+        } catch (ParsingError e) {
+            segment.error = e.getMessage();
+            segment.errorLine = e.line - segment.line;
+
+            // Resume at the next function declaration, which may be the token the error was reported at
+            var resume = Math.max(first + 1, first + window.fetched - 1);
+            while (scanner.type(resume) != FUN && scanner.type(resume) != EOF) {
+                resume++;
+            }
+            segment.end = resume;
+            segment.examined = Math.max(first + window.fetched, resume + 1);
+        }
+        segment.examined = Math.min(segment.examined, scanner.tokenCount());
+        return segment;
+    }
+}
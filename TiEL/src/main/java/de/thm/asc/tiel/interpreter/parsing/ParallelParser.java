@@ -0,0 +1,218 @@
+package de.thm.asc.tiel.interpreter.parsing;
+
+import de.thm.asc.tiel.interpreter.ast.stmt.Stmt;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import de.thm.asc.tiel.interpreter.scanning.TokenSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.*;
+
+/**
+ * The ParallelParser parses programs consisting of many global function declarations concurrently. A cheap
+ * pre-scan over the tokens finds the global {@code fun} declarations by brace matching. The token list is then
+ * cut into batches at the boundaries of these declarations, the batches are parsed on a {@link ForkJoinPool}
+ * and their statements are concatenated in source order.
+ * <p>
+ * A {@code fun} at brace depth 0 can only start a global declaration, which extends to the brace closing its
+ * body, so the parser would reach every batch boundary between two statements. Each batch is terminated by an
+ * EOF token carrying the line of the token following the batch, and since the parser never expects {@code fun}
+ * within a statement, a batch fails exactly where the sequential parser would. Thus the first error of all
+ * batches in source order is the error {@link Parser#parse()} reports.
+ * <p>
+ * With lazy functions, each batch is parsed by a lazy {@link Parser}, so the bodies of the declarations are only
+ * pre-checked up front, exactly as in sequential lazy parsing.
+ */
+public class ParallelParser {
+
+    /**
+     * The minimum number of tokens per batch, so that tiny functions are not parsed in separate tasks.
+     */
+    private static final int MIN_BATCH_SIZE = 4096;
+
+    private final List<Token> tokens; // The tokens to parse, ending with an EOF token
+    private final ForkJoinPool pool; // The pool parsing the batches
+    private final int batchSize; // The minimum number of tokens per batch
+    private final boolean lazyFunctions; // Whether function bodies are only checked and parsed on first use
+
+    /**
+     * Constructs a ParallelParser that parses the given tokens on the common pool.
+     *
+     * @param tokens The list of tokens to parse. The last token must be of type EOF.
+     */
+    public ParallelParser(List<Token> tokens) {
+        this(tokens, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ParallelParser that parses the given tokens on the common pool.
+     *
+     * @param tokens        The list of tokens to parse. The last token must be of type EOF.
+     * @param lazyFunctions Whether the bodies of function declarations are parsed lazily.
+     */
+    public ParallelParser(List<Token> tokens, boolean lazyFunctions) {
+        this(tokens, ForkJoinPool.commonPool(), MIN_BATCH_SIZE, lazyFunctions);
+    }
+
+    /**
+     * Constructs a ParallelParser that parses the given tokens on the given pool.
+     *
+     * @param tokens The list of tokens to parse. The last token must be of type EOF.
+     * @param pool   The pool parsing the batches.
+     */
+    public ParallelParser(List<Token> tokens, ForkJoinPool pool) {
+        this(tokens, pool, MIN_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a ParallelParser that parses the given tokens on the given pool in batches of (at least)
+     * the given number of tokens.
+     *
+     * @param tokens    The list of tokens to parse. The last token must be of type EOF.
+     * @param pool      The pool parsing the batches.
+     * @param batchSize The minimum number of tokens per batch. Batches are extended to the next declaration boundary.
+     */
+    public ParallelParser(List<Token> tokens, ForkJoinPool pool, int batchSize) {
+        this(tokens, pool, batchSize, false);
+    }
+
+    /**
+     * Constructs a ParallelParser that parses the given tokens on the given pool in batches of (at least)
+     * the given number of tokens, optionally parsing function bodies lazily as {@link Parser} does.
+     *
+     * @param tokens        The list of tokens to parse. The last token must be of type EOF.
+     * @param pool          The pool parsing the batches.
+     * @param batchSize     The minimum number of tokens per batch. Batches are extended to the next declaration
+     *                      boundary.
+     * @param lazyFunctions Whether the bodies of function declarations are parsed lazily.
+     */
+    public ParallelParser(List<Token> tokens, ForkJoinPool pool, int batchSize, boolean lazyFunctions) {
+        this.tokens = tokens;
+        this.pool = pool;
+        this.batchSize = Math.max(1, batchSize);
+        this.lazyFunctions = lazyFunctions;
+    }
+
+    /**
+     * Parses the token list into a list of statements.
+     *
+     * @return A list of parsed statements.
+     * @throws ParsingError The first error in source order, as reported by {@link Parser#parse()}.
+     */
+    public List<Stmt> parse() {
+        var bounds = batchBounds();
+        var batches = new ArrayList<ForkJoinTask<Batch>>(bounds.size() - 1);
+        for (var i = 0; i + 1 < bounds.size(); i++) {
+            var from = bounds.get(i);
+            var to = bounds.get(i + 1);
+            batches.add(pool.submit(() -> parseBatch(from, to)));
+        }
+
+        var statements = new ArrayList<Stmt>();
+        for (var batch : batches) {
+            var result = batch.join();
+            if (result.error != null) throw result.error;
+            statements.addAll(result.statements);
+        }
+        return statements;
+    }
+
+    /**
+     * Finds the boundaries of the global function declarations and groups the tokens into batches that
+     * start and end at such boundaries.
+     *
+     * @return The start positions of all batches followed by the position of the EOF token.
+     */
+    private List<Integer> batchBounds() {
+        var end = tokens.size() - 1;
+        var bounds = new ArrayList<Integer>();
+        bounds.add(0);
+
+        var batchStart = 0;
+        var depth = 0;
+        for (var i = 0; i < end; i++) {
+            switch (tokens.get(i).type()) {
+                case LEFT_BRACE -> depth++;
+                case RIGHT_BRACE -> depth = Math.max(0, depth - 1);
+                case FUN -> {
+                    if (depth > 0) continue;
+
+                    if (i - batchStart >= batchSize) {
+                        bounds.add(i);
+                        batchStart = i;
+                    }
+                    i = functionEnd(i, end) - 1;
+                }
+                default -> {
+                }
+            }
+        }
+        if (bounds.get(bounds.size() - 1) != end) {
+            bounds.add(end);
+        }
+        return bounds;
+    }
+
+    /**
+     * Finds the end of a function declaration by matching the braces of its body.
+     *
+     * @param start The position of the {@code fun} token.
+     * @param end   The position of the EOF token.
+     * @return The position after the brace closing the body, or the EOF position if the body is not closed.
+     */
+    private int functionEnd(int start, int end) {
+        var i = start + 1;
+        while (i < end && tokens.get(i).type() != LEFT_BRACE) i++;
+
+        var depth = 0;
+        for (; i < end; i++) {
+            switch (tokens.get(i).type()) {
+                case LEFT_BRACE -> depth++;
+                case RIGHT_BRACE -> {
+                    if (--depth == 0) return i + 1;
+                }
+                default -> {
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Parses the tokens of a batch, followed by an EOF token on the line of the next token.
+     *
+     * @param from The position of the first token of the batch.
+     * @param to   The position after the last token of the batch.
+     * @return The parsed statements or the first error.
+     */
+    private Batch parseBatch(int from, int to) {
+        var eof = new Token(EOF, "", null, tokens.get(to).line());
+        var source = new TokenSource() {
+            private int current = from;
+
+            @Override
+            public Token nextToken() {
+                return current < to ? tokens.get(current++) : eof;
+            }
+        };
+
+        try {
+            return new Batch(new Parser(source, lazyFunctions).parse(), null);
+        } catch (ParsingError e) {
+            return new Batch(null, e);
+        }
+    }
+
+    /**
+     * The result of parsing a batch.
+     *
+     * @param statements The parsed statements, or null if parsing failed.
+     * @param error      The error parsing failed with, if any.
+     */
+    private record Batch(List<Stmt> statements, ParsingError error) {
+    }
+}
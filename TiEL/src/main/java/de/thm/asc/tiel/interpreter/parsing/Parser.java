@@ -4,29 +4,97 @@ import de.thm.asc.tiel.interpreter.ast.expr.*;
 import de.thm.asc.tiel.interpreter.ast.stmt.*;
 import de.thm.asc.tiel.interpreter.error.ParsingError;
 import de.thm.asc.tiel.interpreter.scanning.Token;
+import de.thm.asc.tiel.interpreter.scanning.TokenSource;
 import de.thm.asc.tiel.interpreter.scanning.TokenType;
 
 import static de.thm.asc.tiel.interpreter.scanning.TokenType.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * The Parser class is responsible for parsing a list of tokens into an Abstract Syntax Tree (AST).
  * It processes statements and expressions according to the language's grammar rules.
+ * <p>
+ * Tokens are pulled from a {@link TokenSource} on demand. Since the grammar is LL(1), the parser only
+ * keeps the current lookahead token and the previously consumed token, so a streaming
+ * {@link de.thm.asc.tiel.interpreter.scanning.Scanner} never has to materialize the whole token list.
  */
 public class Parser {
 
-    private final List<Token> tokens;
-    private int current = 0;
+    // Binding powers of the infix operators, indexed by the ordinal of their token type. Higher powers bind
+    // more tightly; tokens with a power of GROUPING do not continue an expression.
+    static final int INDEX = -1; // Pending index brackets, which do not continue an expression either
+    static final int GROUPING = 0;
+    static final int ASSIGNMENT = 1;
+    static final int UNARY = 8;
+    static final int[] BINDING_POWERS = new int[TokenType.values().length];
+
+    static {
+        BINDING_POWERS[EQUAL.ordinal()] = ASSIGNMENT;
+        BINDING_POWERS[OR.ordinal()] = 2;
+        BINDING_POWERS[AND.ordinal()] = 3;
+        BINDING_POWERS[EQUAL_EQUAL.ordinal()] = 4;
+        BINDING_POWERS[LESS.ordinal()] = 5;
+        BINDING_POWERS[MINUS.ordinal()] = 6;
+        BINDING_POWERS[PLUS.ordinal()] = 6;
+        BINDING_POWERS[SLASH.ordinal()] = 7;
+        BINDING_POWERS[STAR.ordinal()] = 7;
+    }
+
+    private final TokenSource source;
+    private final boolean lazyFunctions; // Whether function bodies are only checked and parsed on first use
+    private Token next; // Lookahead token, fetched lazily from the source
+    private Token previous; // Most recently consumed token
+    private boolean inFunction; // Whether a function body is being parsed
+    private boolean yields; // Whether the function body being parsed contains a yield statement so far
+
+    // Operand stack of the expression parser
+    private Expr[] operands = new Expr[16];
+    private int operandCount;
+
+    // Operator stack of the expression parser. Each pending operator has its token (or the opening parenthesis
+    // or bracket of a grouping, call, array or index), its binding power (UNARY for prefix operators, INDEX for
+    // indexes, GROUPING for the other brackets) and, for calls, arrays and indexes, the position of the first
+    // argument, element or the index on the operand stack (-1 otherwise).
+    private Token[] operators = new Token[16];
+    private int[] powers = new int[16];
+    private int[] arguments = new int[16];
+    private int operatorCount;
 
     /**
      * Constructs a new Parser with the provided list of tokens.
      *
-     * @param tokens The list of tokens to parse.
+     * @param tokens The list of tokens to parse. The last token must be of type EOF.
      */
     public Parser(List<Token> tokens) {
-        this.tokens = tokens;
+        this(tokens.iterator()::next);
+    }
+
+    /**
+     * Constructs a new Parser that pulls its tokens from the given source.
+     *
+     * @param source The source supplying the tokens to parse.
+     */
+    public Parser(TokenSource source) {
+        this(source, false);
+    }
+
+    /**
+     * Constructs a new Parser that pulls its tokens from the given source.
+     * <p>
+     * If {@code lazyFunctions} is set, the bodies of function declarations are only brace-matched and
+     * syntax-checked by a {@link PreParser}. Their tokens are kept in the {@link FunctionDeclStmt}, and
+     * their AST is built when {@link FunctionDeclStmt#body()} is first called. Syntax errors are reported
+     * just like in eager mode.
+     *
+     * @param source        The source supplying the tokens to parse.
+     * @param lazyFunctions Whether the bodies of function declarations are parsed lazily.
+     */
+    public Parser(TokenSource source, boolean lazyFunctions) {
+        this.source = source;
+        this.lazyFunctions = lazyFunctions;
     }
 
     /**
@@ -37,13 +105,35 @@ public class Parser {
     public List<Stmt> parse() {
         var statements = new ArrayList<Stmt>();
 
-        while (!isAtEnd()) {
-            statements.add(global());
+        Stmt statement;
+        while ((statement = next()) != null) {
+            statements.add(statement);
         }
 
         return statements;
     }
 
+    /**
+     * Parses the next global statement, pulling only the tokens it consists of from the token source.
+     *
+     * @return The parsed statement, or {@code null} if all tokens have been consumed.
+     */
+    public Stmt next() {
+        if (isAtEnd()) return null;
+
+        return global();
+    }
+
+    /**
+     * Checks whether the parser has fetched a token from its source that it has not consumed yet, e.g. because
+     * it had to look behind an if statement for an else branch.
+     *
+     * @return {@code true} if the lookahead token has been fetched, otherwise {@code false}.
+     */
+    boolean hasLookahead() {
+        return next != null;
+    }
+
     /**
      * Parses a global declaration statement.
      * NOTE: This method differs from `declaration` in that function declarations are allowed.
@@ -69,15 +159,6 @@ public class Parser {
     }
 
 
-    /**
-     * Parses an expression.
-     *
-     * @return The parsed expression.
-     */
-    private Expr expression() {
-        return assignment();
-    }
-
     /**
      * Parses a statement.
      *
@@ -86,7 +167,9 @@ public class Parser {
     private Stmt statement() {
         if (match(IF)) return ifStatement();
         if (match(RETURN)) return returnStatement();
+        if (match(YIELD)) return yieldStatement();
         if (match(WHILE)) return whileStatement();
+        if (match(FOR)) return forStatement();
         if (match(LEFT_BRACE)) return new BlockStmt(block());
 
         return expressionStatement();
@@ -129,6 +212,28 @@ public class Parser {
         return new ReturnStmt(keyword, value);
     }
 
+    /**
+     * Parses a yield statement, which makes the enclosing function a generator.
+     *
+     * @return The parsed yield statement.
+     */
+    private Stmt yieldStatement() {
+        var keyword = previous();
+        if (!inFunction) {
+            throw new ParsingError("Can't yield outside of a function.", keyword.line());
+        }
+        Expr value = null;
+
+        if (!check(SEMICOLON)) {
+            value = expression();
+        }
+
+        consume(SEMICOLON, "Expect ';' after yield value.");
+
+        yields = true;
+        return new YieldStmt(keyword, value);
+    }
+
     /**
      * Parses a variable declaration statement.
      *
@@ -159,6 +264,29 @@ public class Parser {
         return new WhileStmt(condition, body);
     }
 
+    /**
+     * Parses a counted for statement.
+     *
+     * @return The parsed for statement.
+     */
+    private Stmt forStatement() {
+        var name = consume(IDENTIFIER, "Expect loop variable name.");
+        consume(EQUAL, "Expect '=' after loop variable name.");
+        var start = expression();
+        consume(TO, "Expect 'to' after loop start.");
+        var end = expression();
+
+        Expr step = null;
+        if (match(STEP)) {
+            step = expression();
+        }
+
+        consume(DO, "Expect 'do' after loop bounds.");
+        var body = statement();
+
+        return new ForStmt(name, start, end, step, body);
+    }
+
     /**
      * Parses an expression statement.
      *
@@ -189,230 +317,274 @@ public class Parser {
 
         consume(LEFT_BRACE, "Expect '{' before function body.");
 
-        var body = block();
-
-        return new FunctionDeclStmt(name, parameters, body);
-    }
+        if (lazyFunctions) {
+            var tokens = bodyTokens();
+            new PreParser(tokens).block();
+            // Only global functions exist, so every yield in the body belongs to this function
+            var generator = tokens.stream().anyMatch(token -> token.type() == YIELD);
 
-    /**
-     * Parses a block statement.
-     *
-     * @return The list of parsed statements inside the block.
-     */
-    private List<Stmt> block() {
-        var statements = new ArrayList<Stmt>();
-
-        while (!check(RIGHT_BRACE) && !isAtEnd()) {
-            statements.add(declaration());
+            return new FunctionDeclStmt(name, parameters, generator, () -> new Parser(tokens).functionBody());
         }
 
-        consume(RIGHT_BRACE, "Expect '}' after block.");
-        return statements;
-    }
-
-    /**
-     * Parses an assignment statement.
-     *
-     * @return The parsed assignment statement.
-     */
-    private Expr assignment() {
-        var expr = or();
-
-        if (match(EQUAL)) {
-            var equals = previous();
-            var value = assignment();
-
-            if (expr instanceof VariableExpr v) {
-                Token name = v.name;
-                return new AssignExpr(name, value);
-            }
-
-            throw new ParsingError("Invalid assignment target.", equals.line());
-        }
+        var body = functionBody();
 
-        return expr;
+        return new FunctionDeclStmt(name, parameters, yields, body);
     }
 
     /**
-     * Parses logical OR expressions.
+     * Parses the body of a function declaration whose opening brace has already been consumed.
      *
-     * @return The parsed OR expression.
+     * @return The list of parsed statements of the body.
      */
-    private Expr or() {
-        var expr = and();
-
-        while (match(OR)) {
-            var operator = previous();
-            var right = and();
-            expr = new LogicalExpr(expr, operator, right);
+    List<Stmt> functionBody() {
+        inFunction = true;
+        yields = false;
+        try {
+            return block();
+        } finally {
+            inFunction = false;
         }
-
-        return expr;
     }
 
     /**
-     * Parses logical AND expressions.
+     * Consumes the tokens of a function body up to the matching closing brace.
      *
-     * @return The parsed AND expression.
+     * @return The tokens of the body including the closing brace, followed by an EOF token.
      */
-    private Expr and() {
-        var expr = equality();
-
-        while (match(AND)) {
-            var operator = previous();
-            var right = equality();
-            expr = new LogicalExpr(expr, operator, right);
+    private List<Token> bodyTokens() {
+        var tokens = new ArrayList<Token>();
+        var depth = 1;
+        while (depth > 0 && !isAtEnd()) {
+            var token = advance();
+            tokens.add(token);
+            if (token.type() == LEFT_BRACE) {
+                depth++;
+            } else if (token.type() == RIGHT_BRACE) {
+                depth--;
+            }
         }
-
-        return expr;
+        tokens.add(depth == 0 ? new Token(EOF, "", null, peek().line()) : peek());
+        return tokens;
     }
 
     /**
-     * Parses equality expressions (e.g., ==).
+     * Parses a block statement.
      *
-     * @return The parsed equality expression.
+     * @return The list of parsed statements inside the block.
      */
-    private Expr equality() {
-        var expr = comparison();
+    private List<Stmt> block() {
+        var statements = new ArrayList<Stmt>();
 
-        while (match(EQUAL_EQUAL)) {
-            var operator = previous();
-            var right = comparison();
-            expr = new BinaryExpr(expr, operator, right);
+        while (!check(RIGHT_BRACE) && !isAtEnd()) {
+            statements.add(declaration());
         }
 
-        return expr;
+        consume(RIGHT_BRACE, "Expect '}' after block.");
+        return statements;
     }
 
     /**
-     * Parses comparison expressions (e.g., <).
+     * Parses an expression.
+     * <p>
+     * Expressions are parsed by an operator-precedence (Pratt) parser that is driven by the
+     * {@link #BINDING_POWERS} table instead of one method per precedence level. Pending operators, grouping
+     * parentheses and call argument lists are kept on an explicit operator stack, and the expressions parsed
+     * so far on an operand stack, so neither long operator chains nor deeply nested parentheses recurse.
+     * Whenever an operator is read, all pending operators that bind at least as tightly (or, for the
+     * right-associative assignment, more tightly) are reduced first.
      *
-     * @return The parsed comparison expression.
+     * @return The parsed expression.
      */
-    private Expr comparison() {
-        var expr = term();
+    private Expr expression() {
+        operandCount = 0;
+        operatorCount = 0;
 
-        while (match(LESS)) {
-            var operator = previous();
-            var right = term();
-            expr = new BinaryExpr(expr, operator, right);
+        var operand = true; // Whether an operand (rather than an operator) is expected next
+        while (true) {
+            var token = peek();
+
+            if (operand) {
+                switch (token.type()) {
+                    case NOT, MINUS -> pushOperator(advance(), UNARY, -1);
+                    case LEFT_PAREN -> pushOperator(advance(), GROUPING, -1);
+                    case LEFT_BRACKET -> {
+                        advance();
+                        if (match(RIGHT_BRACKET)) {
+                            pushOperand(new ArrayExpr(token, List.of()));
+                            operand = false;
+                        } else {
+                            pushOperator(token, GROUPING, operandCount);
+                        }
+                    }
+                    case FALSE, TRUE, NIL, NUMBER, STRING, IDENTIFIER -> {
+                        pushOperand(primary(advance()));
+                        operand = false;
+                    }
+                    default -> throw new ParsingError("Expect expression.", token.line());
+                }
+            } else if (token.type() == LEFT_BRACKET) {
+                pushOperator(advance(), INDEX, operandCount);
+                operand = true;
+            } else if (token.type() == LEFT_PAREN) {
+                advance();
+                if (match(RIGHT_PAREN)) {
+                    finishCall(operandCount, previous());
+                } else {
+                    pushOperator(token, GROUPING, operandCount);
+                    operand = true;
+                }
+            } else {
+                var power = BINDING_POWERS[token.type().ordinal()];
+
+                if (power > GROUPING) {
+                    reduce(power == ASSIGNMENT ? power : power - 1);
+                    pushOperator(advance(), power, -1);
+                    operand = true;
+                    continue;
+                }
+
+                // Any other token ends the innermost parentheses, argument or the whole expression
+                reduce(GROUPING);
+                if (operatorCount == 0) {
+                    return operands[--operandCount];
+                }
+
+                var opener = operators[operatorCount - 1];
+                var first = arguments[operatorCount - 1];
+                if (powers[operatorCount - 1] == INDEX) {
+                    consume(RIGHT_BRACKET, "Expect ']' after index.");
+                    operatorCount--;
+                    operandCount = first;
+                    operands[first - 1] = new IndexExpr(operands[first - 1], opener, operands[first]);
+                } else if (first < 0) {
+                    consume(RIGHT_PAREN, "Expect ')' after expression.");
+                    operatorCount--;
+                } else if (match(COMMA)) {
+                    operand = true;
+                } else if (opener.type() == LEFT_BRACKET) {
+                    consume(RIGHT_BRACKET, "Expect ']' after array elements.");
+                    operatorCount--;
+                    finishArray(first, opener);
+                } else {
+                    var paren = consume(RIGHT_PAREN, "Expect ')' after arguments.");
+                    operatorCount--;
+                    finishCall(first, paren);
+                }
+            }
         }
-
-        return expr;
     }
 
     /**
-     * Parses term expressions (e.g., +, -).
+     * Creates the expression for a literal or identifier token.
      *
-     * @return The parsed term expression.
+     * @param token The consumed token.
+     * @return The parsed primary expression.
      */
-    private Expr term() {
-        var expr = factor();
-
-        while (match(MINUS, PLUS)) {
-            var operator = previous();
-            var right = factor();
-            expr = new BinaryExpr(expr, operator, right);
-        }
-
-        return expr;
+    private Expr primary(Token token) {
+        return switch (token.type()) {
+            case FALSE -> new LiteralExpr(false);
+            case TRUE -> new LiteralExpr(true);
+            case NIL -> new LiteralExpr(null);
+            case IDENTIFIER -> new VariableExpr(token);
+            default -> new LiteralExpr(token.value());
+        };
     }
 
     /**
-     * Parses factor expressions (e.g., *, /).
+     * Pops pending operators binding more tightly than the given power and replaces their operands with
+     * the resulting expressions.
      *
-     * @return The parsed factor expression.
+     * @param power The binding power to reduce down to (exclusive).
      */
-    private Expr factor() {
-        var expr = unary();
+    private void reduce(int power) {
+        while (operatorCount > 0 && powers[operatorCount - 1] > power) {
+            var token = operators[--operatorCount];
+            var right = operands[--operandCount];
+
+            if (powers[operatorCount] == UNARY) {
+                operands[operandCount++] = new UnaryExpr(token, right);
+                continue;
+            }
 
-        while (match(SLASH, STAR)) {
-            var operator = previous();
-            var right = unary();
-            expr = new BinaryExpr(expr, operator, right);
+            var left = operands[operandCount - 1];
+            operands[operandCount - 1] = switch (token.type()) {
+                case EQUAL -> {
+                    if (left instanceof VariableExpr v) {
+                        Token name = v.name;
+                        yield new AssignExpr(name, right);
+                    }
+                    if (left instanceof IndexExpr i) {
+                        yield new IndexAssignExpr(i.object, i.bracket, i.index, right);
+                    }
+
+                    throw new ParsingError("Invalid assignment target.", token.line());
+                }
+                case OR, AND -> new LogicalExpr(left, token, right);
+                default -> new BinaryExpr(left, token, right);
+            };
         }
-
-        return expr;
     }
 
     /**
-     * Parses unary expressions (e.g., not, -).
+     * Completes parsing of a function call by collecting its arguments from the operand stack.
      *
-     * @return The parsed unary expression.
+     * @param first The index of the first argument on the operand stack. The callee lies right below it.
+     * @param paren The closing parenthesis of the call.
      */
-    private Expr unary() {
-        if (match(NOT, MINUS)) {
-            var operator = previous();
-            var right = unary();
-            return new UnaryExpr(operator, right);
+    private void finishCall(int first, Token paren) {
+        var list = new ArrayList<Expr>(operandCount - first);
+        for (var i = first; i < operandCount; i++) {
+            list.add(operands[i]);
         }
+        operandCount = first;
 
-        return call();
+        operands[first - 1] = new CallExpr(operands[first - 1], paren, list);
     }
 
     /**
-     * Completes parsing of a function call by parsing its arguments.
+     * Completes parsing of an array literal by collecting its elements from the operand stack.
      *
-     * @param callee The expression representing the function being called.
-     * @return The completed function call expression.
+     * @param first   The index of the first element on the operand stack.
+     * @param bracket The opening bracket of the array.
      */
-    private Expr finishCall(Expr callee) {
-        var arguments = new ArrayList<Expr>();
-        if (!check(RIGHT_PAREN)) {
-            do {
-                arguments.add(expression());
-            } while (match(COMMA));
+    private void finishArray(int first, Token bracket) {
+        var list = new ArrayList<Expr>(operandCount - first);
+        for (var i = first; i < operandCount; i++) {
+            list.add(operands[i]);
         }
+        operandCount = first;
 
-        Token paren = consume(RIGHT_PAREN, "Expect ')' after arguments.");
-
-        return new CallExpr(callee, paren, arguments);
+        pushOperand(new ArrayExpr(bracket, list));
     }
 
     /**
-     * Parses function call expressions.
+     * Pushes an expression onto the operand stack.
      *
-     * @return The parsed call expression.
+     * @param expr The expression to push.
      */
-    private Expr call() {
-        var expr = primary();
-
-        while (true) {
-            if (match(LEFT_PAREN)) {
-                expr = finishCall(expr);
-            } else {
-                break;
-            }
+    private void pushOperand(Expr expr) {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
         }
-
-        return expr;
+        operands[operandCount++] = expr;
     }
 
     /**
-     * Parses primary expressions (literals, identifiers, and grouped expressions).
+     * Pushes a pending operator onto the operator stack.
      *
-     * @return The parsed primary expression.
+     * @param token    The operator token or opening parenthesis.
+     * @param power    The binding power of the operator.
+     * @param argument For calls, the index of the first argument on the operand stack; -1 otherwise.
      */
-    private Expr primary() {
-        if (match(FALSE)) return new LiteralExpr(false);
-        if (match(TRUE)) return new LiteralExpr(true);
-        if (match(NIL)) return new LiteralExpr(null);
-
-        if (match(NUMBER, STRING)) {
-            return new LiteralExpr(previous().value());
-        }
-
-        if (match(IDENTIFIER)) {
-            return new VariableExpr(previous());
+    private void pushOperator(Token token, int power, int argument) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            powers = Arrays.copyOf(powers, operatorCount * 2);
+            arguments = Arrays.copyOf(arguments, operatorCount * 2);
         }
-
-        if (match(LEFT_PAREN)) {
-            var expr = expression();
-            consume(RIGHT_PAREN, "Expect ')' after expression.");
-            return expr;
-        }
-
-        throw new ParsingError("Expect expression.", peek().line());
+        operators[operatorCount] = token;
+        powers[operatorCount] = power;
+        arguments[operatorCount++] = argument;
     }
 
     /**
@@ -445,7 +617,10 @@ public class Parser {
      * @return The previous token.
      */
     private Token advance() {
-        if (!isAtEnd()) current++;
+        if (!isAtEnd()) {
+            previous = next;
+            next = null;
+        }
         return previous();
     }
 
@@ -464,7 +639,10 @@ public class Parser {
      * @return The current token.
      */
     private Token peek() {
-        return tokens.get(current);
+        if (next == null) {
+            next = source.nextToken();
+        }
+        return next;
     }
 
     /**
@@ -473,21 +651,19 @@ public class Parser {
      * @return The previous token.
      */
     private Token previous() {
-        return tokens.get(current - 1);
+        return previous;
     }
 
     /**
-     * Checks if the current token matches any of the given types and advances if true.
+     * Checks if the current token matches the given type and advances if true.
      *
-     * @param types The token types to match against.
-     * @return {@code true} if a match is found, otherwise {@code false}.
+     * @param type The token type to match against.
+     * @return {@code true} if the token matches, otherwise {@code false}.
      */
-    private boolean match(TokenType... types) {
-        for (var type : types) {
-            if (check(type)) {
-                advance();
-                return true;
-            }
+    private boolean match(TokenType type) {
+        if (check(type)) {
+            advance();
+            return true;
         }
 
         return false;
@@ -0,0 +1,246 @@
+package de.thm.asc.tiel.interpreter.parsing;
+
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.scanning.Token;
+import de.thm.asc.tiel.interpreter.scanning.TokenType;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.*;
+
+/**
+ * The PreParser checks the syntax of a function body without building its AST. It follows the grammar of
+ * the {@link Parser} rule by rule and reports the same errors at the same tokens, so that syntax errors in
+ * lazily parsed functions are still detected up front.
+ * <p>
+ * Expressions are recognized with the same operator-precedence algorithm as in the parser, but the operand
+ * stack only records whether each operand is a valid assignment target, i.e. a (possibly parenthesized)
+ * variable or index.
+ */
+class PreParser {
+
+    private final List<Token> tokens;
+
+    // Operand and operator stacks as in the parser; operands only record whether they are assignment targets
+    private boolean[] operands = new boolean[16];
+    private int operandCount;
+    private Token[] operators = new Token[16];
+    private int[] powers = new int[16];
+    private int[] arguments = new int[16];
+    private int operatorCount;
+    private int current = 0;
+
+    /**
+     * Constructs a new PreParser for the given tokens.
+     *
+     * @param tokens The tokens to check. The last token must be of type EOF.
+     */
+    PreParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Checks a block whose opening brace has already been consumed, including its closing brace.
+     */
+    void block() {
+        while (!check(RIGHT_BRACE) && !isAtEnd()) {
+            declaration();
+        }
+
+        consume(RIGHT_BRACE, "Expect '}' after block.");
+    }
+
+    private void declaration() {
+        if (match(VAR)) {
+            varDeclaration();
+        } else {
+            statement();
+        }
+    }
+
+    private void statement() {
+        if (match(IF)) {
+            expression();
+            consume(THEN, "Expect 'then' after if condition.");
+            statement();
+            if (match(ELSE)) statement();
+        } else if (match(RETURN)) {
+            if (!check(SEMICOLON)) expression();
+            consume(SEMICOLON, "Expect ';' after return value.");
+        } else if (match(YIELD)) {
+            if (!check(SEMICOLON)) expression();
+            consume(SEMICOLON, "Expect ';' after yield value.");
+        } else if (match(WHILE)) {
+            expression();
+            consume(DO, "Expect 'do' after condition.");
+            statement();
+        } else if (match(FOR)) {
+            consume(IDENTIFIER, "Expect loop variable name.");
+            consume(EQUAL, "Expect '=' after loop variable name.");
+            expression();
+            consume(TO, "Expect 'to' after loop start.");
+            expression();
+            if (match(STEP)) expression();
+            consume(DO, "Expect 'do' after loop bounds.");
+            statement();
+        } else if (match(LEFT_BRACE)) {
+            block();
+        } else {
+            expression();
+            consume(SEMICOLON, "Expect ';' after expression.");
+        }
+    }
+
+    private void varDeclaration() {
+        consume(IDENTIFIER, "Expect variable name.");
+        consume(EQUAL, "Expect '=' after variable name.");
+        expression();
+        consume(SEMICOLON, "Expect ';' after variable declaration.");
+    }
+
+    private boolean expression() {
+        operandCount = 0;
+        operatorCount = 0;
+
+        var operand = true;
+        while (true) {
+            var token = peek();
+
+            if (operand) {
+                switch (token.type()) {
+                    case NOT, MINUS -> pushOperator(advance(), Parser.UNARY, -1);
+                    case LEFT_PAREN -> pushOperator(advance(), Parser.GROUPING, -1);
+                    case LEFT_BRACKET -> {
+                        advance();
+                        if (match(RIGHT_BRACKET)) {
+                            pushOperand(false);
+                            operand = false;
+                        } else {
+                            pushOperator(token, Parser.GROUPING, operandCount);
+                        }
+                    }
+                    case FALSE, TRUE, NIL, NUMBER, STRING, IDENTIFIER -> {
+                        pushOperand(advance().type() == IDENTIFIER);
+                        operand = false;
+                    }
+                    default -> throw new ParsingError("Expect expression.", token.line());
+                }
+            } else if (token.type() == LEFT_BRACKET) {
+                pushOperator(advance(), Parser.INDEX, operandCount);
+                operand = true;
+            } else if (token.type() == LEFT_PAREN) {
+                advance();
+                if (match(RIGHT_PAREN)) {
+                    operands[operandCount - 1] = false;
+                } else {
+                    pushOperator(token, Parser.GROUPING, operandCount);
+                    operand = true;
+                }
+            } else {
+                var power = Parser.BINDING_POWERS[token.type().ordinal()];
+
+                if (power > Parser.GROUPING) {
+                    reduce(power == Parser.ASSIGNMENT ? power : power - 1);
+                    pushOperator(advance(), power, -1);
+                    operand = true;
+                    continue;
+                }
+
+                reduce(Parser.GROUPING);
+                if (operatorCount == 0) {
+                    return operands[--operandCount];
+                }
+
+                var first = arguments[operatorCount - 1];
+                if (powers[operatorCount - 1] == Parser.INDEX) {
+                    consume(RIGHT_BRACKET, "Expect ']' after index.");
+                    operatorCount--;
+                    operandCount = first;
+                    operands[first - 1] = true;
+                } else if (first < 0) {
+                    consume(RIGHT_PAREN, "Expect ')' after expression.");
+                    operatorCount--;
+                } else if (match(COMMA)) {
+                    operand = true;
+                } else if (operators[operatorCount - 1].type() == LEFT_BRACKET) {
+                    consume(RIGHT_BRACKET, "Expect ']' after array elements.");
+                    operatorCount--;
+                    operandCount = first;
+                    pushOperand(false);
+                } else {
+                    consume(RIGHT_PAREN, "Expect ')' after arguments.");
+                    operatorCount--;
+                    operandCount = first;
+                    operands[first - 1] = false;
+                }
+            }
+        }
+    }
+
+    private void reduce(int power) {
+        while (operatorCount > 0 && powers[operatorCount - 1] > power) {
+            var token = operators[--operatorCount];
+
+            if (powers[operatorCount] != Parser.UNARY) {
+                operandCount--;
+                if (token.type() == EQUAL && !operands[operandCount - 1]) {
+                    throw new ParsingError("Invalid assignment target.", token.line());
+                }
+            }
+            operands[operandCount - 1] = false;
+        }
+    }
+
+    private void pushOperand(boolean assignable) {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = assignable;
+    }
+
+    private void pushOperator(Token token, int power, int argument) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            powers = Arrays.copyOf(powers, operatorCount * 2);
+            arguments = Arrays.copyOf(arguments, operatorCount * 2);
+        }
+        operators[operatorCount] = token;
+        powers[operatorCount] = power;
+        arguments[operatorCount++] = argument;
+    }
+
+    private void consume(TokenType type, String message) {
+        if (check(type)) {
+            current++;
+            return;
+        }
+
+        throw new ParsingError(message, peek().line());
+    }
+
+    private boolean check(TokenType type) {
+        if (isAtEnd()) return false;
+        return peek().type() == type;
+    }
+
+    private Token advance() {
+        return tokens.get(current++);
+    }
+
+    private boolean match(TokenType type) {
+        if (check(type)) {
+            current++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isAtEnd() {
+        return peek().type() == EOF;
+    }
+
+    private Token peek() {
+        return tokens.get(current);
+    }
+}
@@ -0,0 +1,368 @@
+package de.thm.asc.tiel.interpreter.scanning;
+
+import de.thm.asc.tiel.interpreter.error.Diagnostic;
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.EOF;
+
+/**
+ * The IncrementalScanner keeps the tokens of a text up to date while the text is edited, e.g. in an editor.
+ * After an edit, only the damaged region is scanned again: scanning restarts at the end of the last token that
+ * cannot be affected by the edit, and stops as soon as a token starts behind the edit at the (moved) start of an
+ * old token. From there on, the old tokens are reused.
+ * <p>
+ * Unlike the {@link Scanner}, the incremental scanner does not stop at the first scanning error. It records the
+ * error and continues behind the offending characters, so that a single typo does not hide the rest of the text.
+ * <p>
+ * Tokens are located by their offsets in the text. Since reused tokens may have been scanned before lines were
+ * inserted or removed in front of them, their line numbers are derived from their offsets by {@link #token(int)}.
+ */
+public class IncrementalScanner {
+
+    /**
+     * Describes how an edit changed the tokens: the tokens {@code [first, first + removed)} have been replaced by
+     * the tokens {@code [first, first + inserted)}. All other tokens are unchanged apart from their position.
+     *
+     * @param first    The index of the first changed token.
+     * @param removed  The number of removed tokens.
+     * @param inserted The number of inserted tokens.
+     */
+    public record Change(int first, int removed, int inserted) {
+    }
+
+    /**
+     * A scanning error, located at the position behind the characters that caused it.
+     *
+     * @param offset  The position behind the offending characters.
+     * @param message The error message.
+     */
+    private record LexicalError(int offset, String message) {
+    }
+
+    private char[] text;
+    private int length;
+    private int[] lineStarts = new int[16]; // Offsets of the first characters of all lines
+    private int lines;
+
+    private Token[] tokens; // The tokens of the text; the last one is always EOF
+    private int[] starts; // The offsets of the tokens
+    private int count;
+    private List<LexicalError> errors = new ArrayList<>();
+
+    // Results of the last call to scan
+    private Token[] scannedTokens = new Token[16];
+    private int[] scannedStarts = new int[16];
+    private int scanned;
+    private final List<LexicalError> scannedErrors = new ArrayList<>();
+
+    /**
+     * Constructs an IncrementalScanner and scans the given text.
+     *
+     * @param text The initial text.
+     */
+    public IncrementalScanner(String text) {
+        this.text = text.toCharArray();
+        this.length = this.text.length;
+        lineStarts[0] = 0;
+        lines = 1;
+        for (var i = 0; i < length; i++) {
+            if (this.text[i] == '\n') addLineStart(i + 1);
+        }
+
+        scan(0, position -> false);
+        tokens = Arrays.copyOf(scannedTokens, scanned);
+        starts = Arrays.copyOf(scannedStarts, scanned);
+        count = scanned;
+        errors.addAll(scannedErrors);
+    }
+
+    /**
+     * Replaces a region of the text and scans the damaged region again.
+     *
+     * @param offset   The start of the replaced region.
+     * @param removed  The length of the replaced region.
+     * @param inserted The text to insert instead.
+     * @return The change of the tokens.
+     * @throws IndexOutOfBoundsException If the region is not within the text.
+     */
+    public Change edit(int offset, int removed, String inserted) {
+        Objects.checkFromIndexSize(offset, removed, length);
+
+        // The scanner looks at most two characters beyond a token (e.g. whether "1." is followed by a digit), so
+        // tokens ending at least two characters before the edit are not affected
+        var first = firstEndingAfter(offset - 2);
+        var from = first == 0 ? 0 : starts[first - 1] + tokens[first - 1].lexeme().length();
+
+        var delta = inserted.length() - removed;
+        var end = offset + inserted.length();
+        replaceText(offset, removed, inserted);
+
+        var stop = scan(from, position -> position >= end && oldTokenAt(position - delta, first) >= 0);
+        var last = stop < 0 ? count : oldTokenAt(stop - delta, first);
+
+        // Replace the tokens [first, last) by the scanned ones and move the following ones
+        var tail = count - last;
+        var size = first + scanned + tail;
+        if (size > tokens.length) {
+            tokens = Arrays.copyOf(tokens, Math.max(size, tokens.length * 2));
+            starts = Arrays.copyOf(starts, tokens.length);
+        }
+        System.arraycopy(tokens, last, tokens, first + scanned, tail);
+        System.arraycopy(starts, last, starts, first + scanned, tail);
+        System.arraycopy(scannedTokens, 0, tokens, first, scanned);
+        System.arraycopy(scannedStarts, 0, starts, first, scanned);
+        for (var i = first + scanned; i < size; i++) {
+            starts[i] += delta;
+        }
+        if (size < count) {
+            Arrays.fill(tokens, size, count, null);
+        }
+        var removedTokens = last - first;
+        count = size;
+
+        // Errors before the scanned region are kept, those within are replaced and those behind are moved
+        var stopBefore = stop < 0 ? Integer.MAX_VALUE : stop - delta;
+        var updated = new ArrayList<LexicalError>(errors.size() + scannedErrors.size());
+        for (var error : errors) {
+            if (error.offset() <= from) updated.add(error);
+        }
+        updated.addAll(scannedErrors);
+        for (var error : errors) {
+            if (error.offset() > stopBefore) updated.add(new LexicalError(error.offset() + delta, error.message()));
+        }
+        errors = updated;
+
+        return new Change(first, removedTokens, scanned);
+    }
+
+    /**
+     * Returns the current text.
+     *
+     * @return The text.
+     */
+    public String text() {
+        return new String(text, 0, length);
+    }
+
+    /**
+     * Returns the number of tokens, including the final EOF token.
+     *
+     * @return The number of tokens.
+     */
+    public int tokenCount() {
+        return count;
+    }
+
+    /**
+     * Returns the token at the given index with its current line number.
+     *
+     * @param index The index of the token.
+     * @return The token.
+     */
+    public Token token(int index) {
+        Objects.checkIndex(index, count);
+        var token = tokens[index];
+        var line = line(index);
+        if (token.line() != line) {
+            token = new Token(token.type(), token.lexeme(), token.value(), line);
+            tokens[index] = token;
+        }
+        return token;
+    }
+
+    /**
+     * Returns the type of the token at the given index.
+     *
+     * @param index The index of the token.
+     * @return The type of the token.
+     */
+    public TokenType type(int index) {
+        Objects.checkIndex(index, count);
+        return tokens[index].type();
+    }
+
+    /**
+     * Returns the current line number of the token at the given index. Like the {@link Scanner}, this is the
+     * line on which the token ends.
+     *
+     * @param index The index of the token.
+     * @return The line number of the token.
+     */
+    public int line(int index) {
+        Objects.checkIndex(index, count);
+        var start = starts[index];
+        return lineAt(Math.max(start, start + tokens[index].lexeme().length() - 1));
+    }
+
+    /**
+     * Returns the offset of the token at the given index.
+     *
+     * @param index The index of the token.
+     * @return The position of the first character of the token in the text.
+     */
+    public int tokenStart(int index) {
+        Objects.checkIndex(index, count);
+        return starts[index];
+    }
+
+    /**
+     * Returns the scanning errors in the text.
+     *
+     * @return The scanning errors, ordered by their position.
+     */
+    public List<Diagnostic> errors() {
+        var diagnostics = new ArrayList<Diagnostic>(errors.size());
+        for (var error : errors) {
+            diagnostics.add(new Diagnostic(lineAt(error.offset()), error.message()));
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Scans the text from the given position until its end or until a token starts at a position accepted by the
+     * given predicate. The tokens and errors are stored in the scanned* fields.
+     *
+     * @param from The position to start scanning at. It must not be within a token.
+     * @param stop The predicate deciding whether scanning stops before a token starting at a position.
+     * @return The position at which scanning stopped, or -1 if the end of the text was reached.
+     */
+    private int scan(int from, IntPredicate stop) {
+        scanned = 0;
+        scannedErrors.clear();
+
+        var scanner = new Scanner(text, from, length, lineAt(from));
+        while (true) {
+            Token token;
+            try {
+                token = scanner.nextToken();
+            } catch (ScanningError e) {
+                // Continue behind the offending characters
+                scannedErrors.add(new LexicalError(scanner.position(), e.getMessage()));
+                scanner = new Scanner(text, scanner.position(), length, scanner.line());
+                continue;
+            }
+
+            if (token.type() == EOF) {
+                addScanned(token, length);
+                return -1;
+            }
+
+            var start = scanner.tokenStart();
+            if (stop.test(start)) {
+                return start;
+            }
+            addScanned(token, start);
+        }
+    }
+
+    private void addScanned(Token token, int start) {
+        if (scanned == scannedTokens.length) {
+            scannedTokens = Arrays.copyOf(scannedTokens, scanned * 2);
+            scannedStarts = Arrays.copyOf(scannedStarts, scanned * 2);
+        }
+        scannedTokens[scanned] = token;
+        scannedStarts[scanned++] = start;
+    }
+
+    /**
+     * Replaces a region of the text and updates the line starts.
+     *
+     * @param offset   The start of the replaced region.
+     * @param removed  The length of the replaced region.
+     * @param inserted The text to insert instead.
+     */
+    private void replaceText(int offset, int removed, String inserted) {
+        var delta = inserted.length() - removed;
+        if (length + delta > text.length) {
+            text = Arrays.copyOf(text, Math.max(length + delta, text.length * 2));
+        }
+        System.arraycopy(text, offset + removed, text, offset + inserted.length(), length - offset - removed);
+        inserted.getChars(0, inserted.length(), text, offset);
+        length += delta;
+
+        // Lines starting within the replaced region are dropped, lines starting behind it are moved
+        var from = linesUpTo(offset);
+        var to = linesUpTo(offset + removed);
+        var moved = Arrays.copyOfRange(lineStarts, to, lines);
+        lines = from;
+        for (var i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) == '\n') addLineStart(offset + i + 1);
+        }
+        for (var start : moved) {
+            addLineStart(start + delta);
+        }
+    }
+
+    private void addLineStart(int offset) {
+        if (lines == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+        }
+        lineStarts[lines++] = offset;
+    }
+
+    /**
+     * Returns the line number at the given position.
+     *
+     * @param offset The position in the text.
+     * @return The line number.
+     */
+    private int lineAt(int offset) {
+        return linesUpTo(offset);
+    }
+
+    /**
+     * Counts the lines starting at or before the given position.
+     *
+     * @param offset The position in the text.
+     * @return The number of lines.
+     */
+    private int linesUpTo(int offset) {
+        int low = 0, high = lines;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (lineStarts[middle] <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first token ending behind the given position.
+     *
+     * @param offset The position in the text.
+     * @return The index of the token.
+     */
+    private int firstEndingAfter(int offset) {
+        int low = 0, high = count - 1; // The EOF token ends at the end of the text
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (starts[middle] + tokens[middle].lexeme().length() > offset) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the (not yet moved) token other than EOF starting at the given position.
+     *
+     * @param offset The position in the text before the edit.
+     * @param from   The index of the first token to consider.
+     * @return The index of the token, or -1 if no token starts at the position.
+     */
+    private int oldTokenAt(int offset, int from) {
+        var index = Arrays.binarySearch(starts, from, count - 1, offset);
+        return index >= 0 ? index : -1;
+    }
+}
@@ -0,0 +1,288 @@
+package de.thm.asc.tiel.interpreter.scanning;
+
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.EOF;
+import static de.thm.asc.tiel.interpreter.scanning.TokenType.STRING;
+
+/**
+ * The ParallelScanner tokenizes large sources by splitting them into chunks at line boundaries and scanning
+ * the chunks concurrently on a {@link ForkJoinPool}. The result is identical to {@link Scanner#scanTokens()},
+ * including the line numbers of tokens and the first scanning error.
+ * <p>
+ * The line breaks of all chunks are counted first, so every chunk knows its first line. Then every chunk is
+ * scanned as if it started between two tokens, and a fix-up pass walks the chunks in order and joins tokens
+ * that cross a chunk boundary. Since chunks end with a line break, comments never do so, and only string literals
+ * can. Whenever a scan ends within a string literal, the following chunk is speculatively scanned a second time as
+ * if it started within that string, i.e. from its first quote onward. The fix-up pass picks the variant matching
+ * the actual state at the chunk boundary.
+ */
+public class ParallelScanner {
+
+    /**
+     * The minimum number of characters per chunk, so that small sources are not split needlessly.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of chunks per worker thread, giving the pool some slack to balance the load.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final String source; // The source code to be scanned
+    private final ForkJoinPool pool; // The pool scanning the chunks
+    private final int chunkSize; // The minimum number of characters per chunk
+    private int[] bounds; // Start positions of all chunks, followed by the length of the source
+    private int[] lineStarts; // Line numbers at the start of all chunks, counting every line break
+    private AtomicReferenceArray<ForkJoinTask<Chunk>> continuations; // Scans of chunks starting within a string
+
+    /**
+     * Constructs a ParallelScanner that scans the given source code on the common pool.
+     *
+     * @param source The source code to scan.
+     */
+    public ParallelScanner(String source) {
+        this(source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ParallelScanner that scans the given source code on the given pool.
+     *
+     * @param source The source code to scan.
+     * @param pool   The pool scanning the chunks.
+     */
+    public ParallelScanner(String source, ForkJoinPool pool) {
+        this(source, pool, Math.max(MIN_CHUNK_SIZE, source.length() / (pool.getParallelism() * CHUNKS_PER_THREAD)));
+    }
+
+    /**
+     * Constructs a ParallelScanner that scans the given source code on the given pool in chunks of
+     * (at least) the given size.
+     *
+     * @param source    The source code to scan.
+     * @param pool      The pool scanning the chunks.
+     * @param chunkSize The minimum number of characters per chunk. Chunks are extended to the next line break.
+     */
+    public ParallelScanner(String source, ForkJoinPool pool, int chunkSize) {
+        this.source = source;
+        this.pool = pool;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Scans the source code and returns a list of tokens.
+     *
+     * @return A list of tokens representing the scanned source code.
+     */
+    public List<Token> scanTokens() {
+        bounds = chunkBounds();
+        var count = bounds.length - 1;
+
+        var lineCounts = new ArrayList<ForkJoinTask<Integer>>(count);
+        for (var i = 0; i < count; i++) {
+            var index = i;
+            lineCounts.add(pool.submit(() -> countLines(bounds[index], bounds[index + 1])));
+        }
+        lineStarts = new int[count + 1];
+        lineStarts[0] = 1;
+        for (var i = 0; i < count; i++) {
+            lineStarts[i + 1] = lineStarts[i] + lineCounts.get(i).join();
+        }
+
+        continuations = new AtomicReferenceArray<>(count);
+        var scans = new ArrayList<ForkJoinTask<Chunk>>(count);
+        for (var i = 0; i < count; i++) {
+            var index = i;
+            scans.add(pool.submit(() -> scan(index, bounds[index], lineStarts[index], -1, 0)));
+        }
+
+        // Fix-up pass, running while later chunks are still being scanned
+        var regions = new ArrayList<Region>();
+        var size = 0;
+        var line = 1; // Line at the end of the chunks joined so far
+        var open = -1; // Start of a string literal continuing into the current chunk
+        for (var i = 0; i < count; i++) {
+            Chunk chunk;
+            if (open < 0) {
+                chunk = scans.get(i).join();
+            } else {
+                chunk = continuation(i).join();
+                if (chunk.quote < 0) {
+                    line = chunk.quoteLine;
+                    continue;
+                }
+
+                var string = new Token(STRING, source.substring(open, chunk.quote + 1),
+                        source.substring(open + 1, chunk.quote), chunk.quoteLine);
+                regions.add(new Region(List.of(string), size++));
+                open = -1;
+            }
+
+            regions.add(new Region(chunk.tokens, size));
+            size += chunk.tokens.size();
+            line = chunk.endLine;
+
+            if (chunk.error != null) {
+                // Only a string literal can be open at the end of a chunk, which ends with a line break
+                if (chunk.open < 0 || i + 1 == count) throw chunk.error;
+                open = chunk.open;
+            }
+        }
+        if (open >= 0) {
+            throw new ScanningError("Unterminated string.", line);
+        }
+
+        var tokens = new Token[size + 1];
+        var copies = new ArrayList<ForkJoinTask<?>>(regions.size());
+        for (var region : regions) {
+            copies.add(pool.submit(() -> region.copyInto(tokens)));
+        }
+        for (var copy : copies) {
+            copy.join();
+        }
+        tokens[size] = new Token(EOF, "", null, line);
+
+        return Arrays.asList(tokens);
+    }
+
+    /**
+     * Splits the source into chunks of at least {@link #chunkSize} characters that end with a line break
+     * (or the end of the source).
+     *
+     * @return The start positions of all chunks followed by the length of the source.
+     */
+    private int[] chunkBounds() {
+        var length = source.length();
+        var result = new int[length / chunkSize + 2];
+        var count = 0;
+        var position = 0;
+        result[count++] = 0;
+        while (position < length) {
+            var next = position + chunkSize;
+            if (next >= length) {
+                next = length;
+            } else {
+                var lineBreak = source.indexOf('\n', next - 1);
+                next = lineBreak < 0 ? length : lineBreak + 1;
+            }
+            result[count++] = next;
+            position = next;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the scan of a chunk that starts within a string literal, starting it if necessary.
+     *
+     * @param index The index of the chunk.
+     * @return The task scanning the chunk.
+     */
+    private ForkJoinTask<Chunk> continuation(int index) {
+        if (continuations.get(index) == null) {
+            var task = ForkJoinTask.adapt(() -> scanContinuation(index));
+            if (continuations.compareAndSet(index, null, task)) {
+                pool.execute(task);
+            }
+        }
+        return continuations.get(index);
+    }
+
+    /**
+     * Scans a chunk under the assumption that it starts within a string literal, which then ends at the
+     * first quote of the chunk.
+     *
+     * @param index The index of the chunk.
+     * @return The result of scanning the chunk.
+     */
+    private Chunk scanContinuation(int index) {
+        var from = bounds[index];
+        var to = bounds[index + 1];
+        var quote = source.indexOf('"', from);
+        if (quote < 0 || quote >= to) {
+            if (index + 1 < bounds.length - 1) continuation(index + 1);
+            return new Chunk(List.of(), -1, lineStarts[index + 1], lineStarts[index + 1], null, -1);
+        }
+        var quoteLine = lineStarts[index] + countLines(from, quote);
+        return scan(index, quote + 1, quoteLine, quote, quoteLine);
+    }
+
+    /**
+     * Scans the rest of a chunk from the given position on, assuming that the position lies between two
+     * tokens. If the chunk ends within a string literal, the scan of the following chunk starting within that
+     * literal is started speculatively.
+     *
+     * @param index     The index of the chunk.
+     * @param from      The position to start scanning at.
+     * @param line      The line number at the position.
+     * @param quote     The position of the quote that terminates a string from a preceding chunk, or -1.
+     * @param quoteLine The line number of the quote.
+     * @return The result of scanning the chunk.
+     */
+    private Chunk scan(int index, int from, int line, int quote, int quoteLine) {
+        var scanner = new Scanner(source, from, bounds[index + 1], line);
+        var tokens = new ArrayList<Token>();
+        try {
+            for (var t = scanner.nextToken(); t.type() != EOF; t = scanner.nextToken()) {
+                tokens.add(t);
+            }
+            return new Chunk(tokens, quote, quoteLine, scanner.line(), null, -1);
+        } catch (ScanningError e) {
+            var open = scanner.atEnd() ? scanner.tokenStart() : -1;
+            if (open >= 0 && source.charAt(open) == '"' && index + 1 < bounds.length - 1) {
+                continuation(index + 1);
+            }
+            return new Chunk(tokens, quote, quoteLine, scanner.line(), e, open);
+        }
+    }
+
+    /**
+     * Counts the line breaks in a region of the source.
+     *
+     * @param from The start of the region (inclusive).
+     * @param to   The end of the region (exclusive).
+     * @return The number of line breaks.
+     */
+    private int countLines(int from, int to) {
+        var lines = 0;
+        for (var i = from; i < to; i++) {
+            if (source.charAt(i) == '\n') lines++;
+        }
+        return lines;
+    }
+
+    /**
+     * The result of scanning (part of) a chunk.
+     *
+     * @param tokens    The tokens scanned.
+     * @param quote     The position of the quote terminating a string from a preceding chunk, or -1.
+     * @param quoteLine The line number of the quote, or of the end of the chunk if there is none.
+     * @param endLine   The line number at the end of the scan.
+     * @param error     The error the scan failed with, if any.
+     * @param open      The start of the token being scanned when the chunk ended, or -1.
+     */
+    private record Chunk(List<Token> tokens, int quote, int quoteLine, int endLine,
+                         ScanningError error, int open) {
+    }
+
+    /**
+     * A run of tokens that becomes part of the result.
+     *
+     * @param tokens The tokens.
+     * @param offset The position of the first token in the result.
+     */
+    private record Region(List<Token> tokens, int offset) {
+
+        void copyInto(Token[] result) {
+            for (var i = 0; i < tokens.size(); i++) {
+                result[offset + i] = tokens.get(i);
+            }
+        }
+    }
+}
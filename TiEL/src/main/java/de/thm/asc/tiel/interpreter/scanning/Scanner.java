@@ -2,7 +2,15 @@ package de.thm.asc.tiel.interpreter.scanning;
 
 import de.thm.asc.tiel.interpreter.error.ScanningError;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,9 +20,14 @@ import static de.thm.asc.tiel.interpreter.scanning.TokenType.*;
 /**
  * The Scanner class is responsible for tokenizing a given source code string.
  * It reads the input source character by character and converts it into a list of tokens,
- * which can be used for further processing in the parser
+ * which can be used for further processing in the parser.
+ * <p>
+ * When constructed from a {@link Reader} or {@link ReadableByteChannel}, the source is read in
+ * fixed-size chunks and tokens are produced on demand by {@link #nextToken()}. Only the characters
+ * of the token currently being scanned are retained, so memory use is bounded by the buffer size
+ * (or the longest token) rather than by the size of the input.
  */
-public class Scanner {
+public class Scanner implements TokenSource {
 
     /**
      * A mapping of reserved keywords to their respective token types.
@@ -31,15 +44,29 @@ public class Scanner {
         keywords.put("nil", NIL);
         keywords.put("or", OR);
         keywords.put("return", RETURN);
+        keywords.put("yield", YIELD);
         keywords.put("true", TRUE);
         keywords.put("var", VAR);
         keywords.put("while", WHILE);
+        keywords.put("for", FOR);
+        keywords.put("to", TO);
+        keywords.put("step", STEP);
         keywords.put("do", DO);
         keywords.put("not", NOT);
     }
 
-    private final String source; // The source code to be scanned
-    private final List<Token> tokens = new ArrayList<>(); // List of tokens produced by scanning
+    /**
+     * The number of characters read from a {@link Reader} at once.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_EXACT = 1L << 53; // Largest integer kept as a Long
+
+    private final Reader reader; // The reader supplying the source, or null if the whole source is buffered
+    private char[] buffer; // Buffered part of the source code to be scanned
+    private int limit; // Number of valid characters in the buffer
+    private boolean exhausted; // Whether the reader has reported the end of its input
+    private Token pending; // Token produced by the last call to scanToken, if any
+    private int offset = 0; // Position of the first buffered character in the source
     private int start = 0; // Start position of the current token
     private int current = 0; // Current position in the source
     private int line = 1; // Current line number in the source
@@ -50,7 +77,66 @@ public class Scanner {
      * @param source The source code to scan.
      */
     public Scanner(String source) {
-        this.source = source;
+        this.reader = null;
+        this.buffer = source.toCharArray();
+        this.limit = buffer.length;
+        this.exhausted = true;
+    }
+
+    /**
+     * Constructs a Scanner for a region of the given source code.
+     *
+     * @param source The source code containing the region.
+     * @param from   The start of the region (inclusive).
+     * @param to     The end of the region (exclusive).
+     * @param line   The line number at the start of the region.
+     */
+    Scanner(String source, int from, int to, int line) {
+        this.reader = null;
+        this.buffer = new char[to - from];
+        source.getChars(from, to, buffer, 0);
+        this.limit = buffer.length;
+        this.exhausted = true;
+        this.offset = from;
+        this.line = line;
+    }
+
+    /**
+     * Constructs a Scanner for a region of the given characters. The characters are not copied and must not
+     * change while the scanner is in use.
+     *
+     * @param source The characters containing the region.
+     * @param from   The start of the region (inclusive).
+     * @param to     The end of the region (exclusive).
+     * @param line   The line number at the start of the region.
+     */
+    Scanner(char[] source, int from, int to, int line) {
+        this.reader = null;
+        this.buffer = source;
+        this.limit = to;
+        this.exhausted = true;
+        this.start = from;
+        this.current = from;
+        this.line = line;
+    }
+
+    /**
+     * Constructs a Scanner that reads the source code from the given reader.
+     *
+     * @param reader The reader supplying the source code.
+     */
+    public Scanner(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Constructs a Scanner that reads the source code from the given channel using the default charset.
+     *
+     * @param channel The channel supplying the source code.
+     */
+    public Scanner(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, Charset.defaultCharset()));
     }
 
     /**
@@ -59,12 +145,70 @@ public class Scanner {
      * @return A list of tokens representing the scanned source code.
      */
     public List<Token> scanTokens() {
-        while (!isAtEnd()) {
+        var tokens = new ArrayList<Token>();
+        Token token;
+        do {
+            token = nextToken();
+            tokens.add(token);
+        } while (token.type() != EOF);
+        return tokens;
+    }
+
+    /**
+     * Scans and returns the next token of the source code.
+     *
+     * @return The next token, or an EOF token if the end of the source has been reached.
+     */
+    @Override
+    public Token nextToken() {
+        while (pending == null) {
+            if (isAtEnd()) {
+                return new Token(EOF, "", null, line);
+            }
             start = current;
             scanToken();
         }
-        tokens.add(new Token(EOF, "", null, line));
-        return tokens;
+        var token = pending;
+        pending = null;
+        return token;
+    }
+
+    /**
+     * Returns the current line number.
+     *
+     * @return The line the scanner is currently on.
+     */
+    int line() {
+        return line;
+    }
+
+    /**
+     * Returns the position of the token currently or most recently scanned.
+     *
+     * @return The position of the first character of the token in the source.
+     */
+    int tokenStart() {
+        return offset + start;
+    }
+
+    /**
+     * Returns the current position of the scanner. After a scanning error, this is the position after the
+     * characters that caused it.
+     *
+     * @return The position of the next character to scan in the source.
+     */
+    int position() {
+        return offset + current;
+    }
+
+    /**
+     * Checks whether the scanner has consumed the whole source, e.g. to tell whether a scanning error
+     * was caused by the source ending within a token.
+     *
+     * @return True if the end of the source has been reached.
+     */
+    boolean atEnd() {
+        return isAtEnd();
     }
 
     /**
@@ -77,7 +221,8 @@ public class Scanner {
             case ')' -> addToken(RIGHT_PAREN);
             case '{' -> addToken(LEFT_BRACE);
             case '}' -> addToken(RIGHT_BRACE);
-            case '[' -> arrayLiteral();
+            case '[' -> addToken(LEFT_BRACKET);
+            case ']' -> addToken(RIGHT_BRACKET);
             case ';' -> addToken(SEMICOLON);
             case ',' -> addToken(COMMA);
             case '-' -> addToken(MINUS);
@@ -87,7 +232,10 @@ public class Scanner {
             case '<' -> addToken(LESS);
             case '/' -> {
                 if (match('/')) {
-                    while (peek() != '\n' && !isAtEnd()) advance();
+                    while (peek() != '\n' && !isAtEnd()) {
+                        advance();
+                        start = current; // Comments are dropped, so their text need not stay buffered
+                    }
                 } else {
                     addToken(SLASH);
                 }
@@ -116,13 +264,13 @@ public class Scanner {
      */
     private void identifier() {
         while (isAlphaNumeric(peek())) advance();
-        var text = source.substring(start, current);
+        var text = text(start, current);
         var type = keywords.getOrDefault(text, IDENTIFIER);
         addToken(type);
     }
 
     /**
-     * Scans a numeric value.
+     * Scans a numeric value: an integer (Long) without a fractional part, a Double otherwise.
      */
     private void number() {
 
@@ -130,8 +278,10 @@ public class Scanner {
         if (peek() == '.' && isDigit(peekNext())) {
             advance();
             while (isDigit(peek())) advance();
+            addToken(NUMBER, Double.parseDouble(text(start, current)));
+            return;
         }
-        addToken(NUMBER, Double.parseDouble(source.substring(start, current)));
+        addToken(NUMBER, integer(text(start, current), 10));
 
     }
     /**
@@ -141,49 +291,25 @@ public class Scanner {
     //Hexdezimal
         advance(); //x
         while (isHex(peek())) advance();
-        int value = calcHex(source.substring(start+2, current));
-        addToken(NUMBER, (double)(value));
-    }
-
-    private int calcHex(String hex){
-        return Integer.parseInt(hex, 16);
-    }
-
-    private void arrayLiteral() {
-        //advance(); // [
-        var list = new ArrayList<Token>();
-        var tempToken = 0;
-        var ausgabe = "[";
-        while (peek() != ']' && !isAtEnd()) {
-
-            //Falls Hex Zahl
-            if(peek() == '0' && peekNext() == 'x'){
-                advance(); //0
-                int hexStart = current;
-                var x = peek();
-                advance(); //x
-                x= peek();
-                while (isHex(peek())){
-                    boolean a = isHex(peek());
-                    advance();
-                }
-                int value = calcHex(source.substring(hexStart+1, current));
-                ausgabe = ausgabe + value;
-
-            }else{
-                ausgabe += peek();
-                advance();
-            }
-
-        }
-        if (isAtEnd()) {
-            throw new ScanningError("Unterminated string.", line);
+        var hex = text(start + 2, current);
+        if (hex.isEmpty()) {
+            throw new ScanningError("Invalid hex number.", line);
         }
-        advance(); // ]
-        System.out.println(ausgabe+"]");
-        addToken(ARRAY, ausgabe+"]");
-
+        addToken(NUMBER, integer(hex, 16));
+    }
 
+    /**
+     * Converts the digits of an integer literal to a Long, or to the nearest Double if the integer is too large to
+     * be represented exactly by a double, like the results of integer arithmetic.
+     */
+    private static Object integer(String digits, int radix) {
+        try {
+            var value = Long.parseLong(digits, radix);
+            if (value <= MAX_EXACT) return value;
+        } catch (NumberFormatException e) {
+            // Exceeds the range of a long
+        }
+        return new BigInteger(digits, radix).doubleValue();
     }
 
     /**
@@ -198,7 +324,7 @@ public class Scanner {
             throw new ScanningError("Unterminated string.", line);
         }
         advance();
-        var value = source.substring(start + 1, current - 1);
+        var value = text(start + 1, current - 1);
         addToken(STRING, value);
     }
 
@@ -209,7 +335,7 @@ public class Scanner {
      * @return True if matched, false otherwise.
      */
     private boolean match(char expected) {
-        if (isAtEnd() || source.charAt(current) != expected) return false;
+        if (isAtEnd() || buffer[current] != expected) return false;
         current++;
         return true;
     }
@@ -220,7 +346,7 @@ public class Scanner {
      * @return The current character or '\0' if at the end.
      */
     private char peek() {
-        return isAtEnd() ? '\0' : source.charAt(current);
+        return isAtEnd() ? '\0' : buffer[current];
     }
 
     /**
@@ -229,7 +355,7 @@ public class Scanner {
      * @return The next character or '\0' if at the end.
      */
     private char peekNext() {
-        return (current + 1 >= source.length()) ? '\0' : source.charAt(current + 1);
+        return ensureAvailable(2) ? buffer[current + 1] : '\0';
     }
 
     /**
@@ -279,7 +405,64 @@ public class Scanner {
      * @return True if at the end, false otherwise.
      */
     private boolean isAtEnd() {
-        return current >= source.length();
+        return !ensureAvailable(1);
+    }
+
+    /**
+     * Makes sure that at least the given number of characters following the current position are buffered,
+     * reading more of the source if necessary.
+     *
+     * @param count The number of characters required.
+     * @return True if the characters are available, false if the source ends before.
+     */
+    private boolean ensureAvailable(int count) {
+        while (current + count > limit) {
+            if (!fill()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next chunk of the source into the buffer. Characters before the start of the current token
+     * are discarded; the buffer only grows if a single token does not fit into it.
+     *
+     * @return True if characters were read, false if the source is exhausted.
+     */
+    private boolean fill() {
+        if (exhausted) return false;
+
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            limit -= start;
+            current -= start;
+            offset += start;
+            start = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        try {
+            var read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                exhausted = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the buffered source text between the given positions.
+     *
+     * @param from The start position (inclusive).
+     * @param to   The end position (exclusive).
+     * @return The text between both positions.
+     */
+    private String text(int from, int to) {
+        return new String(buffer, from, to - from);
     }
 
     /**
@@ -288,11 +471,11 @@ public class Scanner {
      * @return The next character.
      */
     private char advance() {
-        return source.charAt(current++);
+        return buffer[current++];
     }
 
     /**
-     * Adds a token to the token list.
+     * Emits a token of the given type.
      *
      * @param type The type of token.
      */
@@ -301,13 +484,12 @@ public class Scanner {
     }
 
     /**
-     * Adds a token with a value to the token list.
+     * Emits a token with a value.
      *
      * @param type The type of token.
      * @param value The value of the token.
      */
     private void addToken(TokenType type, Object value) {
-        var text = source.substring(start, current);
-        tokens.add(new Token(type, text, value, line));
+        pending = new Token(type, text(start, current), value, line);
     }
 }
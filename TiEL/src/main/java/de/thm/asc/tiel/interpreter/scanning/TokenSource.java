@@ -0,0 +1,15 @@
+package de.thm.asc.tiel.interpreter.scanning;
+
+/**
+ * A TokenSource hands out the tokens of a program one at a time.
+ * Once the end of the input is reached, {@link #nextToken()} returns an {@link TokenType#EOF} token.
+ */
+public interface TokenSource {
+
+    /**
+     * Returns the next token of the input.
+     *
+     * @return The next token, or an EOF token if the input is exhausted.
+     */
+    Token nextToken();
+}
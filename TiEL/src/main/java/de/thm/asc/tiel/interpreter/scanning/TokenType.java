@@ -13,7 +13,11 @@ public enum TokenType {
     ELSE,       // Begins an else block in conditional statements
     WHILE,      // Loop keyword
     DO,         // Loop body keyword
+    FOR,        // Counted loop keyword
+    TO,         // Separates the start and end of a counted loop
+    STEP,       // Introduces the step of a counted loop
     RETURN,     // Return statement keyword
+    YIELD,      // Generator yield keyword
     AND,        // Logical AND operator
     OR,         // Logical OR operator
     NOT,        // Logical NOT operator
@@ -26,6 +30,8 @@ public enum TokenType {
     RIGHT_PAREN,    // )
     LEFT_BRACE,     // {
     RIGHT_BRACE,    // }
+    LEFT_BRACKET,   // [
+    RIGHT_BRACKET,  // ]
     COMMA,          // ,
     MINUS,          // -
     PLUS,           // +
@@ -40,7 +46,6 @@ public enum TokenType {
     IDENTIFIER,     // Variable or function name
     NUMBER,         // Numeric literal
     STRING,         // String literal
-    ARRAY,          // Array
 
     // End of file marker
     EOF            // Signals the end of the source input
@@ -0,0 +1,38 @@
+package de.thm.asc.tiel.interpreter.script;
+
+import de.thm.asc.tiel.interpreter.CompiledProgram;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * A script compiled by the {@link TiELScriptEngine}. It can be evaluated any number of times, also concurrently,
+ * without scanning and parsing the script again.
+ */
+final class TiELCompiledScript extends CompiledScript {
+
+    private final TiELScriptEngine engine;
+    private final CompiledProgram program;
+
+    TiELCompiledScript(TiELScriptEngine engine, CompiledProgram program) {
+        this.engine = engine;
+        this.program = program;
+    }
+
+    /**
+     * Executes the script with the bindings and the writer of the given context.
+     *
+     * @return Always {@code null}, since TiEL programs have no result.
+     */
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+        return engine.execute(program, context);
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,320 @@
+package de.thm.asc.tiel.interpreter.script;
+
+import de.thm.asc.tiel.interpreter.CompiledProgram;
+import de.thm.asc.tiel.interpreter.ExecutionResult;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+
+import javax.script.*;
+import java.io.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The TiELScriptEngine runs TiEL programs embedded in Java applications through {@code javax.script}.
+ * <p>
+ * Compiling a script yields a {@link CompiledProgram}, which can be evaluated any number of times, also
+ * concurrently and with different bindings. {@link #eval(String, ScriptContext)} keeps the most recently used
+ * programs, so scripts evaluated repeatedly are only scanned and parsed once.
+ * <p>
+ * The bindings of the global and the engine scope are visible to a script as global variables. Numbers are passed
+ * as TiEL numbers (Doubles). A script can assign these variables and shadow them by its own declarations; after
+ * the evaluation, the assigned and declared global variables, including the functions, are stored in the engine
+ * scope. Functions stored there can be called from Java by {@link #invokeFunction(String, Object...)}; they
+ * print to the writer of the default context.
+ */
+public class TiELScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+
+    private static final int MAX_PROGRAMS = 64; // Number of parsed programs kept by eval
+
+    private final TiELScriptEngineFactory factory;
+    private final Map<String, CompiledProgram> programs = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledProgram> eldest) {
+            return size() > MAX_PROGRAMS;
+        }
+    };
+
+    /**
+     * Constructs a TiELScriptEngine.
+     *
+     * @param factory The factory that created the engine.
+     */
+    TiELScriptEngine(TiELScriptEngineFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Evaluates a script, reusing the parsed program if the same script has been evaluated recently.
+     *
+     * @return Always {@code null}, since TiEL programs have no result.
+     */
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        CompiledProgram program;
+        synchronized (programs) {
+            program = programs.get(script);
+        }
+        if (program == null) {
+            program = compileProgram(script, context);
+            synchronized (programs) {
+                programs.put(script, program);
+            }
+        }
+        return execute(program, context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(read(reader), context);
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        return new TiELCompiledScript(this, compileProgram(script, context));
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(read(script));
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Calls a function that an evaluation has stored in the bindings of the default context. Numbers passed as
+     * arguments are converted to TiEL numbers.
+     */
+    @Override
+    public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+        var function = context.getAttribute(Objects.requireNonNull(name));
+        if (!ExecutionContext.isFunction(function)) {
+            throw new NoSuchMethodException(name);
+        }
+
+        var arguments = new ArrayList<>(args.length);
+        for (var arg : args) {
+            arguments.add(toTiEL(arg));
+        }
+
+        var out = printStream(context.getWriter());
+        try {
+            return new ExecutionContext(out).call(function, arguments);
+        } catch (RuntimeError e) {
+            throw scriptException(ExecutionResult.of(e), context);
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Not supported, since TiEL has no objects.
+     *
+     * @throws IllegalArgumentException Always.
+     */
+    @Override
+    public Object invokeMethod(Object thiz, String name, Object... args) {
+        throw new IllegalArgumentException("TiEL has no objects.");
+    }
+
+    /**
+     * Implements an interface by the functions stored in the bindings of the default context. Every method of
+     * the interface calls the function of the same name.
+     *
+     * @return The implementation, or {@code null} if a method has no matching function.
+     */
+    @Override
+    public <T> T getInterface(Class<T> clasz) {
+        if (clasz == null || !clasz.isInterface()) {
+            throw new IllegalArgumentException("Not an interface: " + clasz);
+        }
+        for (var method : clasz.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers())
+                    && !ExecutionContext.isFunction(context.getAttribute(method.getName()))) {
+                return null;
+            }
+        }
+
+        var proxy = Proxy.newProxyInstance(clasz.getClassLoader(), new Class<?>[]{clasz}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(self, method, args);
+            }
+            return invokeFunction(method.getName(), args == null ? new Object[0] : args);
+        });
+        return clasz.cast(proxy);
+    }
+
+    /**
+     * Not supported, since TiEL has no objects.
+     *
+     * @throws IllegalArgumentException Always.
+     */
+    @Override
+    public <T> T getInterface(Object thiz, Class<T> clasz) {
+        throw new IllegalArgumentException("TiEL has no objects.");
+    }
+
+    /**
+     * Executes a program with the bindings and the writer of the given context.
+     *
+     * @param program The program to execute.
+     * @param context The context of the evaluation.
+     * @return Always {@code null}, since TiEL programs have no result.
+     * @throws ScriptException If the program fails.
+     */
+    Object execute(CompiledProgram program, ScriptContext context) throws ScriptException {
+        var variables = new HashMap<String, Object>();
+        var globalScope = context.getBindings(ScriptContext.GLOBAL_SCOPE);
+        if (globalScope != null) {
+            globalScope.forEach((name, value) -> variables.put(name, toTiEL(value)));
+        }
+        var engineScope = context.getBindings(ScriptContext.ENGINE_SCOPE);
+        engineScope.forEach((name, value) -> variables.put(name, toTiEL(value)));
+        var provided = new HashMap<>(variables);
+
+        var out = printStream(context.getWriter());
+        var executionContext = new ExecutionContext(out, null, ExecutionContext.UNLIMITED_CALL_DEPTH, variables);
+        try {
+            var result = program.run(executionContext);
+            if (!result.succeeded()) {
+                throw scriptException(result, context);
+            }
+        } finally {
+            out.flush();
+
+            // Store the variables the program has assigned or declared, also if it failed halfway
+            variables.forEach((name, value) -> {
+                if (value != provided.get(name)) {
+                    engineScope.put(name, ExecutionContext.toHost(value));
+                }
+            });
+            engineScope.putAll(executionContext.declarations());
+        }
+        return null;
+    }
+
+    private static CompiledProgram compileProgram(String script, ScriptContext context) throws ScriptException {
+        try {
+            return CompiledProgram.compile(script);
+        } catch (ScanningError e) {
+            throw scriptException(ExecutionResult.of(e), context);
+        } catch (ParsingError e) {
+            throw scriptException(ExecutionResult.of(e), context);
+        }
+    }
+
+    private static ScriptException scriptException(ExecutionResult result, ScriptContext context) {
+        var fileName = context.getAttribute(ScriptEngine.FILENAME);
+        return new ScriptException(result.message(), fileName == null ? null : fileName.toString(),
+                result.line() > 0 ? result.line() : -1);
+    }
+
+    /**
+     * Converts a Java value to the corresponding TiEL value: numbers become Doubles, characters become Strings.
+     * All other values are passed unchanged.
+     */
+    private static Object toTiEL(Object value) {
+        if (value instanceof Number number && !(value instanceof Double)) {
+            return number.doubleValue();
+        }
+        if (value instanceof Character c) {
+            return c.toString();
+        }
+        return value;
+    }
+
+    private static Object invokeObjectMethod(Object self, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> self == args[0];
+            case "hashCode" -> System.identityHashCode(self);
+            default -> "TiEL implementation of " + self.getClass().getInterfaces()[0].getName();
+        };
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        var script = new StringWriter();
+        try {
+            reader.transferTo(script);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        return script.toString();
+    }
+
+    private static PrintStream printStream(Writer writer) {
+        return new PrintStream(new WriterOutputStream(writer), true, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Passes the output of {@code print}, which the interpreter writes to a {@link PrintStream}, to the writer of
+     * a script context.
+     */
+    private static final class WriterOutputStream extends OutputStream {
+        private final Writer writer;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(1024);
+        private final CharBuffer chars = CharBuffer.allocate(1024);
+
+        WriterOutputStream(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!bytes.hasRemaining()) decode();
+            bytes.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            while (len > 0) {
+                if (!bytes.hasRemaining()) decode();
+                var n = Math.min(len, bytes.remaining());
+                bytes.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            decode();
+            writer.flush();
+        }
+
+        /**
+         * Decodes the buffered bytes and writes the characters. An incomplete character at the end is kept.
+         */
+        private void decode() throws IOException {
+            bytes.flip();
+            while (true) {
+                var result = decoder.decode(bytes, chars, false);
+                chars.flip();
+                writer.write(chars.array(), 0, chars.limit());
+                chars.clear();
+                if (result.isUnderflow()) break;
+            }
+            bytes.compact();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package de.thm.asc.tiel.interpreter.script;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * The TiELScriptEngineFactory makes TiEL available through {@code javax.script}. It is registered in
+ * {@code META-INF/services}, so a {@link javax.script.ScriptEngineManager} finds the engine by the name
+ * {@code tiel}, the extension {@code tiel} or the MIME type {@code text/x-tiel}.
+ */
+public class TiELScriptEngineFactory implements ScriptEngineFactory {
+
+    private static final String NAME = "tiel";
+    private static final String ENGINE_NAME = "TiEL";
+    private static final String VERSION = "1.0";
+
+    @Override
+    public String getEngineName() {
+        return ENGINE_NAME;
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of("tiel");
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return List.of("text/x-tiel");
+    }
+
+    @Override
+    public List<String> getNames() {
+        return List.of(NAME, ENGINE_NAME);
+    }
+
+    @Override
+    public String getLanguageName() {
+        return ENGINE_NAME;
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public Object getParameter(String key) {
+        return switch (key) {
+            case ScriptEngine.NAME -> NAME;
+            case ScriptEngine.ENGINE, ScriptEngine.LANGUAGE -> ENGINE_NAME;
+            case ScriptEngine.ENGINE_VERSION, ScriptEngine.LANGUAGE_VERSION -> VERSION;
+            // Every evaluation runs in its own ExecutionContext; only the bindings may be shared
+            case "THREADING" -> "MULTITHREADED";
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns a call of a function. TiEL has no objects, so the object is ignored.
+     */
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return m + "(" + String.join(", ", args) + ")";
+    }
+
+    /**
+     * Returns a statement printing the given text.
+     *
+     * @throws IllegalArgumentException If the text contains a double quote, which TiEL strings cannot contain.
+     */
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        if (toDisplay.indexOf('"') >= 0) {
+            throw new IllegalArgumentException("TiEL strings cannot contain double quotes.");
+        }
+        return "print(\"" + toDisplay + "\")";
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        var program = new StringBuilder();
+        for (var statement : statements) {
+            program.append(statement).append(";\n");
+        }
+        return program.toString();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new TiELScriptEngine(this);
+    }
+}
@@ -0,0 +1,24 @@
+package de.thm.asc.tiel.interpreter.server;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+/**
+ * Runs the command line interpreter in the process of a {@link ScriptServer} on behalf of a client.
+ */
+@FunctionalInterface
+public interface Invoker {
+
+    /**
+     * Runs the command line interpreter.
+     *
+     * @param args      The command line arguments.
+     * @param directory The working directory of the client, against which relative paths are resolved.
+     * @param in        The standard input of the client.
+     * @param out       The stream forwarded to the standard output of the client.
+     * @param err       The stream forwarded to the standard error output of the client.
+     * @return The exit code.
+     */
+    int invoke(String[] args, Path directory, InputStream in, PrintStream out, PrintStream err);
+}
@@ -0,0 +1,219 @@
+package de.thm.asc.tiel.interpreter.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The wire format spoken between {@link ScriptClient} and {@link ScriptServer}. A connection carries any number of
+ * requests, each answered by one response before the next request is sent.
+ * <p>
+ * A request is a kind byte ({@link #SOURCE} or {@link #PATH}) followed by a string. A response is a status byte
+ * (the ordinal of {@link Response.Status}) followed by the output and the error message. Strings are written as
+ * their length in bytes followed by their UTF-8 bytes.
+ * <p>
+ * An {@link #INVOKE} request runs the command line interpreter instead. It carries the arguments, the working
+ * directory and the standard input of the client, and is answered by a sequence of frames: {@link #STDOUT} and
+ * {@link #STDERR} frames with output bytes while the interpreter runs, and a final {@link #EXIT} frame with the
+ * exit code.
+ */
+final class Protocol {
+
+    /**
+     * Request kind: the string is the source of the script.
+     */
+    static final byte SOURCE = 1;
+    /**
+     * Request kind: the string is the absolute path of the script file on the server's file system.
+     */
+    static final byte PATH = 2;
+    /**
+     * Request kind: the arguments, working directory and standard input of a command line invocation.
+     */
+    static final byte INVOKE = 3;
+
+    // Frame types of the answer to an invocation
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+
+    private static final int MAX_LENGTH = 64 * 1024 * 1024;
+    private static final int MAX_ARGS = 1024;
+    private static final Response.Status[] STATUSES = Response.Status.values();
+
+    /**
+     * A request of a client.
+     *
+     * @param kind  The kind of the request, {@link #SOURCE}, {@link #PATH} or {@link #INVOKE}.
+     * @param text  The source or the path of the script, or the working directory of an invocation.
+     * @param args  The command line arguments of an invocation, empty otherwise.
+     * @param input The standard input of an invocation, empty otherwise.
+     */
+    record Request(byte kind, String text, List<String> args, byte[] input) {
+
+        Request(byte kind, String text) {
+            this(kind, text, List.of(), new byte[0]);
+        }
+    }
+
+    private Protocol() {
+    }
+
+    static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        out.writeByte(request.kind());
+        writeString(out, request.text());
+        if (request.kind() == INVOKE) {
+            out.writeInt(request.args().size());
+            for (var arg : request.args()) {
+                writeString(out, arg);
+            }
+            writeBytes(out, request.input());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the next request of a connection.
+     *
+     * @param in The stream of the connection.
+     * @return The request, or {@code null} if the client has closed the connection.
+     * @throws IOException If reading fails or the request is malformed.
+     */
+    static Request readRequest(DataInputStream in) throws IOException {
+        var kind = in.read();
+        if (kind < 0) {
+            return null;
+        }
+        if (kind != SOURCE && kind != PATH && kind != INVOKE) {
+            throw new IOException("Unknown request kind " + kind + ".");
+        }
+
+        var text = readString(in);
+        if (kind != INVOKE) {
+            return new Request((byte) kind, text);
+        }
+
+        var count = in.readInt();
+        if (count < 0 || count > MAX_ARGS) {
+            throw new IOException("Invalid argument count " + count + ".");
+        }
+        var args = new ArrayList<String>(count);
+        for (var i = 0; i < count; i++) {
+            args.add(readString(in));
+        }
+        return new Request(INVOKE, text, args, readBytes(in));
+    }
+
+    /**
+     * Returns a stream that sends everything written to it as frames of the given type. Frames are sent when the
+     * stream is flushed, so it should be buffered.
+     *
+     * @param out  The stream of the connection. It may be shared by several frame streams.
+     * @param type The type of the frames, {@link #STDOUT} or {@link #STDERR}.
+     * @return The frame stream.
+     */
+    static OutputStream frames(DataOutputStream out, byte type) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return;
+                synchronized (out) {
+                    out.writeByte(type);
+                    out.writeInt(len);
+                    out.write(b, off, len);
+                    out.flush();
+                }
+            }
+        };
+    }
+
+    static void writeExit(DataOutputStream out, int code) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(code);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the frames answering an invocation and copies their bytes to the given streams.
+     *
+     * @param in     The stream of the connection.
+     * @param stdout The stream receiving the standard output.
+     * @param stderr The stream receiving the standard error output.
+     * @return The exit code of the invocation.
+     * @throws IOException If reading fails or a frame is malformed.
+     */
+    static int readFrames(DataInputStream in, OutputStream stdout, OutputStream stderr) throws IOException {
+        while (true) {
+            var type = in.readUnsignedByte();
+            switch (type) {
+                case STDOUT -> {
+                    stdout.write(readBytes(in));
+                    stdout.flush();
+                }
+                case STDERR -> {
+                    stderr.write(readBytes(in));
+                    stderr.flush();
+                }
+                case EXIT -> {
+                    return in.readInt();
+                }
+                default -> throw new IOException("Unknown frame type " + type + ".");
+            }
+        }
+    }
+
+    static void writeResponse(DataOutputStream out, Response response) throws IOException {
+        out.writeByte(response.status().ordinal());
+        writeString(out, response.output());
+        writeString(out, response.error());
+        out.flush();
+    }
+
+    static Response readResponse(DataInputStream in) throws IOException {
+        var status = in.readUnsignedByte();
+        if (status >= STATUSES.length) {
+            throw new IOException("Unknown response status " + status + ".");
+        }
+        return new Response(STATUSES[status], readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        var length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("Invalid length " + length + ".");
+        }
+
+        var bytes = new byte[length];
+        try {
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            throw new EOFException("Truncated message.");
+        }
+        return bytes;
+    }
+}
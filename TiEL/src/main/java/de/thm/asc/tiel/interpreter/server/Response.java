@@ -0,0 +1,33 @@
+package de.thm.asc.tiel.interpreter.server;
+
+/**
+ * The result of a script executed by the {@link ScriptServer}.
+ *
+ * @param status The outcome of the request.
+ * @param output The output the script printed before it ended, possibly empty.
+ * @param error  The error message in the format of the command line interpreter, or an empty string.
+ */
+public record Response(Status status, String output, String error) {
+
+    /**
+     * The outcome of a request.
+     */
+    public enum Status {
+        /**
+         * The script ran to completion.
+         */
+        OK,
+        /**
+         * The script could not be read, scanned or parsed, or failed at runtime.
+         */
+        ERROR,
+        /**
+         * The server was too busy to accept the script, and it has not been run.
+         */
+        REJECTED,
+        /**
+         * The script has not finished within the timeout of the server.
+         */
+        TIMEOUT
+    }
+}
@@ -0,0 +1,103 @@
+package de.thm.asc.tiel.interpreter.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A ScriptClient sends scripts to a {@link ScriptServer} over a single connection. The scripts of a client are run
+ * one after the other; concurrent scripts need one client each.
+ */
+public class ScriptClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * Connects to the server listening on the given address.
+     *
+     * @param address The address of the server.
+     * @throws IOException If the connection cannot be established.
+     */
+    public ScriptClient(SocketAddress address) throws IOException {
+        channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open();
+        try {
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * Runs the given source on the server.
+     *
+     * @param source The source of the script.
+     * @return The response of the server.
+     * @throws IOException If the connection fails.
+     */
+    public Response run(String source) throws IOException {
+        return send(new Protocol.Request(Protocol.SOURCE, source));
+    }
+
+    /**
+     * Runs a script file on the server. The file is read by the server, which therefore has to run on the same
+     * machine.
+     *
+     * @param file The script file.
+     * @return The response of the server.
+     * @throws IOException If the connection fails.
+     */
+    public Response run(Path file) throws IOException {
+        return send(new Protocol.Request(Protocol.PATH, file.toAbsolutePath().toString()));
+    }
+
+    /**
+     * Runs the command line interpreter on the server, which must have been started with an {@link Invoker}. The
+     * output of the interpreter is copied to the given streams while it runs.
+     *
+     * @param args      The command line arguments.
+     * @param directory The working directory, against which the server resolves relative paths.
+     * @param input     The standard input of the interpreter.
+     * @param out       The stream receiving the standard output.
+     * @param err       The stream receiving the standard error output.
+     * @return The exit code of the interpreter.
+     * @throws IOException If the connection fails.
+     */
+    public int invoke(List<String> args, Path directory, byte[] input, OutputStream out, OutputStream err)
+            throws IOException {
+        Protocol.writeRequest(this.out,
+                new Protocol.Request(Protocol.INVOKE, directory.toAbsolutePath().toString(), args, input));
+        return Protocol.readFrames(in, out, err);
+    }
+
+    private Response send(Protocol.Request request) throws IOException {
+        Protocol.writeRequest(out, request);
+        return Protocol.readResponse(in);
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException If closing the connection fails.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
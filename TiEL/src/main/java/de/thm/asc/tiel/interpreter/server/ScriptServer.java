@@ -0,0 +1,431 @@
+package de.thm.asc.tiel.interpreter.server;
+
+import de.thm.asc.tiel.interpreter.CompiledProgram;
+import de.thm.asc.tiel.interpreter.ExecutionResult;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ScriptServer executes TiEL scripts sent by {@link ScriptClient}s, so that running a script does not pay for
+ * starting and warming up a JVM. It listens on a local TCP port or a Unix domain socket and serves every connection on
+ * its own virtual thread, which reads the requests, admits the scripts and writes the responses. The scripts of a
+ * connection run one after the other, each on a thread of a pool of {@link Limits#maxConcurrent()} platform threads
+ * while the virtual thread waits. Scripts compute without ever blocking, so on virtual threads they would occupy
+ * all carrier threads and keep the server from accepting connections or rejecting scripts while they run.
+ * <p>
+ * Admission is limited: at most {@link Limits#maxConcurrent()} scripts run at the same time, at most
+ * {@link Limits#queueDepth()} further scripts wait for a slot, and scripts arriving beyond that are rejected.
+ * Every script has to finish within {@link Limits#timeout()} of its arrival, including the time it waited. Parsed
+ * programs are kept in memory by a hash of their source, so repeated scripts are neither scanned nor parsed again.
+ * <p>
+ * A server started with an {@link Invoker} also runs whole command line invocations, which makes it the daemon
+ * behind {@code tiel --daemon}. Invocations are not subject to the admission limits, since they stand for
+ * interpreter processes that would otherwise have been started. They run on platform threads of their own for the
+ * same reason as scripts.
+ */
+public class ScriptServer implements AutoCloseable {
+
+    /**
+     * The admission limits of a server.
+     *
+     * @param maxConcurrent The maximum number of scripts running at the same time.
+     * @param queueDepth    The maximum number of scripts waiting for a free slot.
+     * @param timeout       The time a script may take from its arrival until its end, including waiting.
+     */
+    public record Limits(int maxConcurrent, int queueDepth, Duration timeout) {
+
+        /**
+         * The default limits: one running script per core, 64 waiting scripts and a timeout of ten seconds.
+         */
+        public static final Limits DEFAULT =
+                new Limits(Runtime.getRuntime().availableProcessors(), 64, Duration.ofSeconds(10));
+
+        public Limits {
+            if (maxConcurrent < 1 || queueDepth < 0 || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Invalid server limits.");
+            }
+        }
+    }
+
+    private static final int MAX_PROGRAMS = 256; // Number of parsed programs kept in memory
+
+    private final ServerSocketChannel channel;
+    private final SocketAddress address;
+    private final Limits limits;
+    private final Invoker invoker;
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor(); // Accepts and serves
+    private final ExecutorService scripts; // Runs the admitted scripts
+    private final ExecutorService invocations = Executors.newCachedThreadPool(platformThreads("tiel-invocation-"));
+    private final Semaphore slots;
+    private final AtomicInteger admitted = new AtomicInteger(); // Running and waiting scripts
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile long lastActive = System.nanoTime(); // When the last connection was closed
+    private final Map<String, CompiledProgram> programs = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledProgram> eldest) {
+            return size() > MAX_PROGRAMS;
+        }
+    };
+
+    private ScriptServer(ServerSocketChannel channel, SocketAddress address, Limits limits, Invoker invoker) {
+        this.channel = channel;
+        this.address = address;
+        this.limits = limits;
+        this.invoker = invoker;
+        this.slots = new Semaphore(limits.maxConcurrent(), true);
+        this.scripts = Executors.newFixedThreadPool(limits.maxConcurrent(), platformThreads("tiel-script-"));
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        var count = new AtomicInteger();
+        return task -> {
+            var thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Starts a server listening on the given address.
+     *
+     * @param address The address to listen on: a local {@link java.net.InetSocketAddress} or a
+     *                {@link UnixDomainSocketAddress}. A stale socket file is replaced.
+     * @param limits  The admission limits.
+     * @return The running server.
+     * @throws IOException If the server cannot listen on the address.
+     */
+    public static ScriptServer start(SocketAddress address, Limits limits) throws IOException {
+        return start(address, limits, null);
+    }
+
+    /**
+     * Starts a server listening on the given address that also runs command line invocations.
+     *
+     * @param address The address to listen on: a local {@link java.net.InetSocketAddress} or a
+     *                {@link UnixDomainSocketAddress}. A stale socket file is replaced.
+     * @param limits  The admission limits.
+     * @param invoker The command line interpreter, or {@code null} if invocations are not supported.
+     * @return The running server.
+     * @throws IOException If the server cannot listen on the address, e.g. because another server does.
+     */
+    public static ScriptServer start(SocketAddress address, Limits limits, Invoker invoker) throws IOException {
+        ServerSocketChannel channel;
+        if (address instanceof UnixDomainSocketAddress unix) {
+            if (Files.exists(unix.getPath())) {
+                try {
+                    SocketChannel.open(address).close();
+                    throw new BindException("Another server is listening on " + unix.getPath() + ".");
+                } catch (ConnectException e) {
+                    Files.deleteIfExists(unix.getPath()); // Left behind by a server that has died
+                }
+            }
+            channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            channel = ServerSocketChannel.open();
+        }
+
+        ScriptServer server;
+        try {
+            channel.bind(address);
+            server = new ScriptServer(channel, channel.getLocalAddress(), limits, invoker);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        server.threads.submit(server::accept);
+        return server;
+    }
+
+    /**
+     * Returns the address the server listens on, e.g. to find out the port chosen for port 0.
+     *
+     * @return The local address of the server.
+     */
+    public SocketAddress address() {
+        return address;
+    }
+
+    /**
+     * Closes the server once it has had no connections for the given time.
+     *
+     * @param timeout The time without connections after which the server is closed.
+     */
+    public void closeWhenIdle(Duration timeout) {
+        var interval = Math.min(Math.max(timeout.toMillis() / 4, 10), 1000);
+        threads.submit(() -> {
+            try {
+                while (connections.get() > 0 || System.nanoTime() - lastActive < timeout.toNanos()) {
+                    Thread.sleep(interval);
+                }
+                close();
+            } catch (InterruptedException | IOException e) {
+                // The server has been closed in the meantime
+            }
+        });
+    }
+
+    /**
+     * Waits until the server has been closed.
+     *
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    /**
+     * Stops the server. Running scripts are interrupted and open connections are closed.
+     *
+     * @throws IOException If the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+            if (address instanceof UnixDomainSocketAddress unix) {
+                Files.deleteIfExists(unix.getPath());
+            }
+        } finally {
+            threads.shutdownNow();
+            scripts.shutdownNow();
+            invocations.shutdownNow();
+            closed.countDown();
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    private void accept() {
+        while (true) {
+            try {
+                var connection = channel.accept();
+                threads.submit(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // A failed connection attempt does not affect the server
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of a connection until the client closes it.
+     *
+     * @param connection The connection to the client.
+     */
+    private void serve(SocketChannel connection) {
+        connections.incrementAndGet();
+        try (connection;
+             var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+             var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)))) {
+            Protocol.Request request;
+            while ((request = Protocol.readRequest(in)) != null) {
+                if (request.kind() == Protocol.INVOKE) {
+                    invoke(request, out);
+                } else {
+                    Protocol.writeResponse(out, handle(request));
+                }
+            }
+        } catch (IOException e) {
+            // The client has gone away or sent a malformed request
+        } finally {
+            lastActive = System.nanoTime();
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs a command line invocation and streams its output to the client.
+     *
+     * @param request The invocation.
+     * @param out     The stream of the connection.
+     * @throws IOException If the connection fails.
+     */
+    private void invoke(Protocol.Request request, DataOutputStream out) throws IOException {
+        var stdout = new PrintStream(new BufferedOutputStream(Protocol.frames(out, Protocol.STDOUT)));
+        var stderr = new PrintStream(new BufferedOutputStream(Protocol.frames(out, Protocol.STDERR)));
+
+        int code;
+        if (invoker == null) {
+            stderr.println("Error: The server does not run command line invocations.");
+            code = 1;
+        } else {
+            try {
+                code = await(invocations.submit(() -> invoker.invoke(request.args().toArray(String[]::new),
+                        Path.of(request.text()), new ByteArrayInputStream(request.input()), stdout, stderr)));
+            } catch (RuntimeException | StackOverflowError e) {
+                stderr.println("Error: " + e);
+                code = 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stderr.println("Error: Server shutting down.");
+                code = 1;
+            }
+        }
+
+        stdout.flush();
+        stderr.flush();
+        Protocol.writeExit(out, code);
+    }
+
+    /**
+     * Runs a script subject to the admission limits.
+     *
+     * @param request The request of the client.
+     * @return The response to the client.
+     */
+    private Response handle(Protocol.Request request) {
+        var deadline = System.nanoTime() + limits.timeout().toNanos();
+
+        if (admitted.incrementAndGet() > limits.maxConcurrent() + limits.queueDepth()) {
+            admitted.decrementAndGet();
+            return new Response(Response.Status.REJECTED, "", "Error: Server busy.");
+        }
+        try {
+            if (!slots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return new Response(Response.Status.TIMEOUT, "", "Error: Execution timed out.");
+            }
+            try {
+                return await(scripts.submit(() -> run(request, deadline)));
+            } finally {
+                slots.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(Response.Status.ERROR, "", "Error: Server shutting down.");
+        } finally {
+            admitted.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits for a script or an invocation running on a platform thread.
+     *
+     * @param future The future of the task.
+     * @param <T>    The type of the result.
+     * @return The result of the task.
+     * @throws InterruptedException If the current thread is interrupted while waiting, which cancels the task.
+     */
+    private static <T> T await(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) throw error;
+            if (e.getCause() instanceof RuntimeException exception) throw exception;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs a script and captures its output.
+     *
+     * @param request  The request of the client.
+     * @param deadline The time the script has to finish by, in terms of {@link System#nanoTime()}.
+     * @return The response to the client.
+     */
+    private Response run(Protocol.Request request, long deadline) {
+        String source;
+        if (request.kind() == Protocol.PATH) {
+            try {
+                source = Files.readString(Path.of(request.text()), Charset.defaultCharset());
+            } catch (IOException | RuntimeException e) {
+                return new Response(Response.Status.ERROR, "", "Error: Cannot read '" + request.text() + "'.");
+            }
+        } else {
+            source = request.text();
+        }
+
+        CompiledProgram program;
+        try {
+            program = compile(source);
+        } catch (ScanningError e) {
+            return new Response(Response.Status.ERROR, "", ExecutionResult.of(e).toString());
+        } catch (ParsingError e) {
+            return new Response(Response.Status.ERROR, "", ExecutionResult.of(e).toString());
+        }
+
+        var output = new ByteArrayOutputStream();
+        var out = new PrintStream(output, true, StandardCharsets.UTF_8);
+        var timeout = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        var result = program.run(new ExecutionContext(out, timeout, ExecutionContext.UNLIMITED_CALL_DEPTH));
+        if (result.succeeded()) {
+            return new Response(Response.Status.OK, output.toString(StandardCharsets.UTF_8), "");
+        }
+        var status = System.nanoTime() - deadline >= 0 ? Response.Status.TIMEOUT : Response.Status.ERROR;
+        return new Response(status, output.toString(StandardCharsets.UTF_8), result.toString());
+    }
+
+    /**
+     * Returns the parsed program for the given source, parsing it only if it is not in memory yet.
+     *
+     * @param source The source of the program.
+     * @return The parsed program.
+     */
+    private CompiledProgram compile(String source) {
+        var key = hash(source);
+        synchronized (programs) {
+            var program = programs.get(key);
+            if (program != null) {
+                return program;
+            }
+        }
+
+        var program = CompiledProgram.compile(source);
+        synchronized (programs) {
+            programs.put(key, program);
+        }
+        return program;
+    }
+
+    private static String hash(String source) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+}
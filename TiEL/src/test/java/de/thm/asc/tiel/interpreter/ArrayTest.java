@@ -0,0 +1,89 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+class ArrayTest {
+
+    @Test
+    void arraysCanBeReadAndWritten() {
+        var sourceCode = """
+            var a = [1, 2, 3];
+            a[0] = a[1] + a[2];
+            print(a[0]);
+            print(a);
+            print(len(a));
+            print(push(a, 4));
+            print(a[3]);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "5%n[5, 2, 3]%n3%n4%n4%n");
+    }
+
+    @Test
+    void arraysHoldAnyValues() {
+        var sourceCode = """
+            var b = [1, [2, 3], 4];
+            print(b[1][1]);
+            b[0] = "one";
+            b[1][0] = nil;
+            print(b);
+            var e = [];
+            push(e, true);
+            push(e, 1.5);
+            print(e);
+            print(len("four"));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "3%n[\"one\", [nil, 3], 4]%n[true, 1.5]%n4%n");
+    }
+
+    @Test
+    void arraysGrow() {
+        var sourceCode = """
+            var squares = [];
+            var i = 0;
+            while i < 100 do {
+                push(squares, i * i);
+                i = i + 1;
+            }
+            push(squares, "end");
+            print(squares[99] + squares[10]);
+            print(squares[100]);
+            print(len(squares));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "9901%nend%n101%n");
+    }
+
+    @Test
+    void arraysAreSharedByReference() {
+        var sourceCode = """
+            fun fill(a, value) {
+                var i = 0;
+                while i < len(a) do {
+                    a[i] = value;
+                    i = i + 1;
+                }
+                return a;
+            }
+            var a = [1, 2];
+            var b = fill(a, 0);
+            print(a);
+            print(a == b);
+            print(a == [0, 0]);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "[0, 0]%ntrue%nfalse%n");
+    }
+
+    @Test
+    void invalidIndexesAreReported() {
+        Assertions.assertRuntimeError("var a = [1]; print(a[1]);", "Index 1 out of bounds for length 1.");
+        Assertions.assertRuntimeError("var a = [1]; a[-1] = 2;", "Index -1 out of bounds for length 1.");
+        Assertions.assertRuntimeError("var a = [1]; print(a[0.5]);", "Array index must be an integer.");
+        Assertions.assertRuntimeError("var a = [1]; print(a[\"0\"]);", "Array index must be an integer.");
+        Assertions.assertRuntimeError("var a = 1; print(a[0]);", "Can only index arrays.");
+        Assertions.assertRuntimeError("push(1, 2);", "Can only push to arrays.");
+        Assertions.assertRuntimeError("len(1);", "Can only get the length of arrays and strings.");
+    }
+}
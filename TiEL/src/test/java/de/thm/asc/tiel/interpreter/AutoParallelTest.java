@@ -0,0 +1,146 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.analysis.PurityAnalysis;
+import de.thm.asc.tiel.interpreter.ast.expr.BinaryExpr;
+import de.thm.asc.tiel.interpreter.ast.stmt.FunctionDeclStmt;
+import de.thm.asc.tiel.interpreter.ast.stmt.ReturnStmt;
+import de.thm.asc.tiel.interpreter.ast.stmt.VarDeclStmt;
+import de.thm.asc.tiel.interpreter.error.StackFrame;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoParallelTest {
+
+    private static final String FIB = """
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+""";
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void pureFunctionsAreRecognized() {
+        var program = CompiledProgram.compile(FIB + """
+var total = 0;
+fun square(x) { var y = x; y = y * x; return y; }
+fun count(n) { total = total + n; return total; }
+fun show(n) { print(n); return fib(n); }
+fun twice(f, x) { return f(f(x)); }
+fun redefined() { return 1; }
+redefined = nil;
+var a = fib(20) + fib(21);
+var b = square(2) + square(3);
+var c = fib(20) + count(1);
+""");
+        var analysis = new PurityAnalysis(program.statements());
+
+        assertTrue(analysis.isPure("fib"));
+        assertTrue(analysis.isPure("square"));
+        assertFalse(analysis.isPure("count"));
+        assertFalse(analysis.isPure("show"));
+        assertFalse(analysis.isPure("twice"));
+        assertFalse(analysis.isPure("redefined"));
+
+        var a = (BinaryExpr) ((VarDeclStmt) program.statements().get(8)).initializer;
+        var b = ((VarDeclStmt) program.statements().get(9)).initializer;
+        var c = ((VarDeclStmt) program.statements().get(10)).initializer;
+        assertTrue(analysis.isParallel(a));
+        assertFalse(analysis.isForked(a.left));
+        assertTrue(analysis.isForked(a.right));
+        assertFalse(analysis.isParallel(b)); // Too cheap to fork
+        assertFalse(analysis.isParallel(c)); // count has side effects
+    }
+
+    @Test
+    void localVariablesShadowFunctions() {
+        var program = CompiledProgram.compile(FIB + """
+fun apply(fib, n) {
+    return fib(n) + fib(n + 1);
+}
+""");
+        var analysis = new PurityAnalysis(program.statements());
+
+        var function = (FunctionDeclStmt) program.statements().get(1);
+        assertFalse(analysis.isPure("apply"));
+        assertFalse(analysis.isParallel(((ReturnStmt) function.body().get(0)).value));
+    }
+
+    @Test
+    void resultsAndOutputMatchSequentialExecution() {
+        var source = FIB + """
+fun sum(a, b, c) { return a + b + c; }
+fun loop(n) { var i = 0; var s = 0; while i < n do { s = s + i; i = i + 1; } return s; }
+print(fib(18) + fib(17));
+print(sum(fib(15), loop(100), fib(16)));
+var i = 0;
+while i < 3 do {
+    print(fib(10 + i) * fib(11 + i));
+    i = i + 1;
+}
+""";
+        assertEquals(run(source, false), run(source, true));
+        assertEquals(String.format("4181%n6547%n4895%n12816%n33552%n"), run(source, true));
+    }
+
+    @Test
+    void errorsMatchSequentialExecution() {
+        var source = FIB + """
+fun fail(n) {
+    if n < 1 then return n + nil;
+    return fail(n - 1);
+}
+fun spin(n) {
+    while true do {}
+    return n;
+}
+print(fib(15) + fib(14));
+print(fail(3) + spin(1));
+""";
+        var context = new ExecutionContext(new PrintStream(new ByteArrayOutputStream()), Duration.ofSeconds(10),
+                ExecutionContext.UNLIMITED_CALL_DEPTH);
+        var program = CompiledProgram.compile(source);
+        context.setAutoParallel(new PurityAnalysis(program.statements()), pool);
+
+        var result = program.run(context);
+        assertEquals("Operands to '+' must be numbers.", result.message());
+        assertEquals(6, result.line());
+        assertEquals(4, result.callStack().size());
+        assertEquals(new StackFrame("fail", 14), result.callStack().get(3));
+
+        // Errors of forked operands carry their line and call stack as well
+        var second = CompiledProgram.compile(FIB
+                + "fun fail(n) { if n < 1 then return n + nil; return fail(n - 1); } var x = fib(10) + fail(1);");
+        var secondContext = new ExecutionContext(new PrintStream(new ByteArrayOutputStream()));
+        secondContext.setAutoParallel(new PurityAnalysis(second.statements()), pool);
+        assertEquals(List.of(new StackFrame("fail", 5), new StackFrame("fail", 5)),
+                second.run(secondContext).callStack());
+    }
+
+    private String run(String source, boolean autoParallel) {
+        var out = new ByteArrayOutputStream();
+        var context = new ExecutionContext(new PrintStream(out, true, StandardCharsets.UTF_8));
+        var program = CompiledProgram.compile(source);
+        if (autoParallel) {
+            context.setAutoParallel(new PurityAnalysis(program.statements()), pool);
+        }
+        assertEquals(ExecutionResult.SUCCESS, program.run(context));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
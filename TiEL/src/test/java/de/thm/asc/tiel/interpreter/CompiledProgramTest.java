@@ -0,0 +1,144 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.error.StackFrame;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledProgramTest {
+
+    private static final String SOURCE = """
+var counter = 0;
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+while counter < 5 do {
+    counter = counter + 1;
+    print(input * 1000 + counter);
+}
+print(fib(input / 20));
+""";
+
+    @Test
+    void concurrentExecutionsAreIsolated() throws Exception {
+        var program = CompiledProgram.compile(SOURCE);
+        var threads = 200;
+        var start = new CountDownLatch(1);
+
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (var i = 0; i < threads; i++) {
+                var input = i;
+                results.add(executor.submit((Callable<String>) () -> {
+                    var out = new ByteArrayOutputStream();
+                    var context = new ExecutionContext(new PrintStream(out, true, StandardCharsets.UTF_8));
+                    context.define("input", (double) input);
+                    start.await();
+                    program.execute(context);
+                    return out.toString(StandardCharsets.UTF_8);
+                }));
+            }
+            start.countDown();
+
+            for (var i = 0; i < threads; i++) {
+                assertEquals(expectedOutput(i), results.get(i).get(), "execution " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executionsAreLimited() {
+        var loop = CompiledProgram.compile("while true do {}");
+        var timeout = assertThrows(RuntimeError.class, () -> loop.execute(
+                new ExecutionContext(System.out, Duration.ofMillis(50), ExecutionContext.UNLIMITED_CALL_DEPTH)));
+        assertEquals("Execution timed out.", timeout.getMessage());
+
+        var recursion = CompiledProgram.compile("fun f(n) { return f(n + 1); } f(0);");
+        var depth = assertThrows(RuntimeError.class, () -> recursion.execute(
+                new ExecutionContext(System.out, null, 100)));
+        assertEquals("Maximum call depth exceeded.", depth.getMessage());
+    }
+
+    @Test
+    void errorsAreReportedAsResults() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        assertEquals(ExecutionResult.SUCCESS, CompiledProgram.run("print(1);", context));
+
+        var scanning = CompiledProgram.run("var a = 1;\nvar b = $;", context);
+        assertEquals(ExecutionResult.Kind.SCANNING_ERROR, scanning.kind());
+        assertEquals(2, scanning.line());
+
+        var parsing = CompiledProgram.run("var a = 1\nvar b = 2;", context);
+        assertEquals(ExecutionResult.Kind.PARSING_ERROR, parsing.kind());
+        assertEquals("Error on line 2: Expect ';' after variable declaration.", parsing.toString());
+
+        var overflow = CompiledProgram.run("fun f(n) { return f(n + 1); } f(0);", context);
+        assertEquals(new ExecutionResult(ExecutionResult.Kind.RUNTIME_ERROR, "Stack overflow.", 0, List.of()),
+                overflow);
+    }
+
+    @Test
+    void runtimeErrorsCarryLineAndCallStack() {
+        var program = CompiledProgram.compile("""
+fun inner(x) {
+    return x + "a";
+}
+fun outer(x) {
+    return inner(x);
+}
+print(outer(1));
+""");
+        var result = program.run(new ExecutionContext(new PrintStream(OutputStream.nullOutputStream())));
+
+        assertEquals(ExecutionResult.Kind.RUNTIME_ERROR, result.kind());
+        assertEquals("Operands to '+' must be numbers.", result.message());
+        assertEquals(2, result.line());
+        assertEquals(List.of(new StackFrame("inner", 5), new StackFrame("outer", 7)), result.callStack());
+
+        var undefined = CompiledProgram.run("var a = 1;\nprint(b);",
+                new ExecutionContext(new PrintStream(OutputStream.nullOutputStream())));
+        assertEquals("Error on line 2: Undefined variable 'b'.", undefined.toString());
+
+        var error = new RuntimeError("Test.");
+        assertEquals(0, error.getStackTrace().length);
+    }
+
+    private static String expectedOutput(int input) {
+        var out = new ByteArrayOutputStream();
+        var printer = new PrintStream(out, true, StandardCharsets.UTF_8);
+        for (var counter = 1; counter <= 5; counter++) {
+            printer.println(input * 1000 + counter);
+        }
+        var n = input / 20.0;
+        printer.println(n < 2 ? format(n) : format(fib(n)));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static double fib(double n) {
+        return n < 2 ? n : fib(n - 1) + fib(n - 2);
+    }
+
+    private static String format(double value) {
+        var text = Double.toString(value);
+        return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+    }
+}
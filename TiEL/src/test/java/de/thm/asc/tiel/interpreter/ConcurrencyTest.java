@@ -0,0 +1,94 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.error.StackFrame;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyTest {
+
+    private static final String FIB = """
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+fun pfib(n, depth) {
+    if depth == 0 then return fib(n);
+    var a = spawn(pfib, n - 1, depth - 1);
+    var b = pfib(n - 2, depth - 1);
+    return await(a) + b;
+}
+""";
+
+    @Test
+    void spawnedFunctionsReturnTheirResults() {
+        Assertions.assertPrintOutput(FIB + "print(pfib(15, 4)); print(await(spawn(fib, 10)));", "610%n55%n");
+    }
+
+    @Test
+    void globalsAreSharedBetweenThreads() {
+        var sourceCode = """
+            var a = 0;
+            var b = 0;
+            fun setA() { a = 1; return nil; }
+            fun setB(value) { b = value; return nil; }
+            var first = spawn(setA);
+            var second = spawn(setB, 2);
+            await(first);
+            await(second);
+            print(a + b);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "3%n");
+    }
+
+    @Test
+    void spawnedFunctionsCanRunOnAForkJoinPool() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        var pool = new ForkJoinPool(2);
+        try {
+            context.setExecutor(pool);
+            assertEquals(ExecutionResult.SUCCESS, CompiledProgram.run(FIB + "var r = pfib(12, 5);", context));
+            assertEquals(144.0, context.declarations().get("r"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void errorsArePassedToAwait() {
+        var sourceCode = """
+            fun fail(x) {
+                return x + nil;
+            }
+            var h = spawn(fail, 1);
+            await(h);
+            """;
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        var result = CompiledProgram.run(sourceCode, context);
+
+        assertEquals("Operands to '+' must be numbers.", result.message());
+        assertEquals(2, result.line());
+        assertEquals(List.of(new StackFrame("fail", 0), new StackFrame("await", 5)), result.callStack());
+
+        Assertions.assertRuntimeError("fun f(a) { return a; } spawn(f);", "Expected 1 arguments but got 0.");
+        Assertions.assertRuntimeError("spawn();", "Expected at least 1 arguments but got 0.");
+        Assertions.assertRuntimeError("await(1);", "Can only await futures.");
+    }
+
+    @Test
+    void spawnedFunctionsAreLimited() {
+        var sourceCode = "fun loop() { while true do {} } await(spawn(loop));";
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()), Duration.ofMillis(50),
+                ExecutionContext.UNLIMITED_CALL_DEPTH);
+
+        assertEquals("Execution timed out.", CompiledProgram.run(sourceCode, context).message());
+    }
+}
@@ -0,0 +1,95 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.server.ScriptClient;
+import de.thm.asc.tiel.interpreter.server.ScriptServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaemonTest {
+
+    private Path directory;
+    private ScriptServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        directory = Files.createTempDirectory("tiel-daemon");
+        Files.writeString(directory.resolve("hello.tiel"), "print(\"Hello\");\nprint(1 + 2);\n");
+        Files.writeString(directory.resolve("broken.tiel"), "print(1);\nprint(x);\n");
+        server = ScriptServer.start(UnixDomainSocketAddress.of(directory.resolve("daemon.sock")),
+                ScriptServer.Limits.DEFAULT, TiEL::run);
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+        try (var files = Files.list(directory)) {
+            for (var file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void invocationsBehaveLikeTheCommandLineInterpreter() throws IOException {
+        for (var args : List.of(List.of("hello.tiel"), List.of("broken.tiel"),
+                List.of("--tokens", "-"), List.of("--unknown"))) {
+            var input = "print(42);".getBytes(StandardCharsets.UTF_8);
+
+            var expectedOut = new ByteArrayOutputStream();
+            var expectedErr = new ByteArrayOutputStream();
+            var expectedCode = TiEL.run(args.toArray(String[]::new), directory, new ByteArrayInputStream(input),
+                    new PrintStream(expectedOut, true, Charset.defaultCharset()),
+                    new PrintStream(expectedErr, true, Charset.defaultCharset()));
+
+            var out = new ByteArrayOutputStream();
+            var err = new ByteArrayOutputStream();
+            int code;
+            try (var client = new ScriptClient(server.address())) {
+                code = client.invoke(args, directory, input, out, err);
+            }
+
+            assertEquals(expectedCode, code, args.toString());
+            assertEquals(expectedOut.toString(Charset.defaultCharset()), out.toString(Charset.defaultCharset()));
+            assertEquals(expectedErr.toString(Charset.defaultCharset()), err.toString(Charset.defaultCharset()));
+        }
+    }
+
+    @Test
+    void scriptsCanBeNamedServe() throws IOException {
+        Files.writeString(directory.resolve("serve"), "print(\"served\");\n");
+        var out = new ByteArrayOutputStream();
+
+        var code = TiEL.run(new String[]{"serve"}, directory, new ByteArrayInputStream(new byte[0]),
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(0, code);
+        assertEquals(String.format("served%n"), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void idleServerCloses() throws Exception {
+        server.closeWhenIdle(Duration.ofMillis(100));
+        server.awaitClose();
+
+        assertTrue(Files.notExists(directory.resolve("daemon.sock")));
+        assertThrows(IOException.class, () -> new ScriptClient(server.address()));
+    }
+}
@@ -0,0 +1,113 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.AstPrinter;
+import de.thm.asc.tiel.interpreter.editor.Document;
+import de.thm.asc.tiel.interpreter.editor.LanguageService;
+import de.thm.asc.tiel.interpreter.error.Diagnostic;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentTest {
+
+    private static final String SOURCE = """
+var x = 1;
+fun a(n) {
+    if n < 1 then { return 0; } else { return a(n - 1); }
+}
+print(a(3));
+fun b() { while x < 3 do { x = x + 1; } }
+{ var y = 2; print(y); }
+fun c(p, q) { return p * q + 0xFF; }
+b();
+""";
+
+    private static final String[] FRAGMENTS = {
+            "fun d(a, b) {\n    return a + b;\n}\n", "var z = 1.5;\n", "print(z);\n", "\n", " ", "{", "}", "(", ")",
+            ";", "\"", "0x", "0xFFFFFFFFFF", "1.", "$", "fun", "// comment\n", "==", "=", "if ", "else", "not ",
+    };
+
+    @Test
+    void incrementalAnalysisMatchesAnalysisFromScratch() {
+        var random = new Random(42);
+        var printer = new AstPrinter();
+        var document = new Document(SOURCE);
+
+        for (var i = 0; i < 2000; i++) {
+            var text = document.text();
+            var offset = random.nextInt(text.length() + 1);
+            var removed = random.nextInt(4) == 0 ? random.nextInt(Math.min(10, text.length() - offset) + 1) : 0;
+            var inserted = random.nextInt(4) == 0 ? "" : FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+            document.change(offset, removed, inserted);
+
+            var expected = new Document(text.substring(0, offset) + inserted + text.substring(offset + removed));
+            assertEquals(expected.text(), document.text());
+            assertEquals(expected.diagnostics(), document.diagnostics(), document.text());
+            assertEquals(printer.print(expected.statements()), printer.print(document.statements()), document.text());
+        }
+    }
+
+    @Test
+    void validDocumentIsParsedLikeByParser() {
+        var document = new Document("");
+        document.change(0, 0, SOURCE);
+        document.change(SOURCE.indexOf("print(a(3))"), 0, "\n\nvar w = \"a\nb\";\n");
+
+        var expected = new Parser(new Scanner(document.text())).parse();
+        var printer = new AstPrinter();
+        assertEquals(List.of(), document.diagnostics());
+        assertEquals(printer.print(expected), printer.print(document.statements()));
+    }
+
+    @Test
+    void untouchedStatementsAreReused() {
+        var document = new Document(SOURCE);
+        var before = document.statements();
+
+        // Edit the body of the last function without moving any lines
+        document.change(SOURCE.indexOf("p * q"), 1, "q");
+        var after = document.statements();
+
+        assertEquals(before.size(), after.size());
+        for (var i = 0; i < before.size(); i++) {
+            if (i != 5) {
+                assertSame(before.get(i), after.get(i));
+            }
+        }
+    }
+
+    @Test
+    void errorsDoNotHideLaterErrors() {
+        var service = new LanguageService();
+        var diagnostics = service.open("test.tiel", """
+fun a() { print(1) }
+fun b() { $ }
+fun c() { return 0x; }
+fun d() { return (1; }
+""");
+
+        assertEquals(List.of(
+                new Diagnostic(1, "Expect ';' after expression."),
+                new Diagnostic(2, "Unexpected character."),
+                new Diagnostic(3, "Invalid hex number."),
+                new Diagnostic(4, "Expect ')' after expression.")
+        ), diagnostics);
+
+        diagnostics = service.change("test.tiel", "fun a() { print(1)".length(), 0, ";");
+        assertEquals(List.of(
+                new Diagnostic(2, "Unexpected character."),
+                new Diagnostic(3, "Invalid hex number."),
+                new Diagnostic(4, "Expect ')' after expression.")
+        ), diagnostics);
+
+        service.close("test.tiel");
+        assertThrows(IllegalArgumentException.class, () -> service.diagnostics("test.tiel"));
+    }
+}
@@ -0,0 +1,114 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("tiel-files");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private String run(String sourceCode) {
+        var out = new ByteArrayOutputStream();
+        var context = new ExecutionContext(new PrintStream(out, true, StandardCharsets.UTF_8));
+        context.setFileRoot(directory);
+        CompiledProgram.compile(sourceCode).execute(context);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void linesCanBeWrittenAndRead() throws IOException {
+        var sourceCode = """
+            fun append(a, line) { push(a, line); return a; }
+            print(writeLines("data.txt", ["eins", 2, "drei"]));
+            appendLine("data.txt", "vier");
+            appendLine("new.txt", nil);
+            print(reduce(openLines("data.txt"), append, []));
+            print(readAll("new.txt") == "nil\n");
+            fun square(x) { return x * x; }
+            print(writeLines("squares.txt", take(map(range(1, 1000000), square), 3)));
+            print(readAll("squares.txt"));
+            """;
+
+        assertEquals(String.format("3%n[\"eins\", \"2\", \"drei\", \"vier\"]%ntrue%n3%n1\n4\n9\n%n"),
+                run(sourceCode));
+        assertEquals("eins\n2\ndrei\nvier\n", Files.readString(directory.resolve("data.txt")));
+    }
+
+    @Test
+    void lineBreaksAreRecognized() throws IOException {
+        Files.writeString(directory.resolve("mixed.txt"), "a\r\n\nb\nc");
+        var sourceCode = """
+            fun append(a, line) { push(a, line); return a; }
+            print(reduce(openLines("mixed.txt"), append, []));
+            """;
+
+        assertEquals(String.format("[\"a\", \"\", \"b\", \"c\"]%n"), run(sourceCode));
+    }
+
+    @Test
+    void largeFilesAreStreamed() throws IOException {
+        // Larger than the threshold above which files are memory-mapped
+        var lines = 2_000_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve("large.txt"))) {
+            for (var i = 0; i < lines; i++) {
+                writer.write("Zeile " + i + " äöü\n");
+            }
+        }
+        var sourceCode = """
+            fun count(n, line) { return n + 1; }
+            fun last(previous, line) { return line; }
+            print(reduce(openLines("large.txt"), count, 0));
+            print(reduce(openLines("large.txt"), last, nil));
+            print(len(readAll("large.txt")) == %s);
+            """.formatted(Files.readString(directory.resolve("large.txt")).length());
+
+        assertEquals(String.format("%s%nZeile %s äöü%ntrue%n", lines, lines - 1), run(sourceCode));
+    }
+
+    @Test
+    void accessIsLimitedToTheRoot() {
+        assertRuntimeError("readAll(\"../secret.txt\");", "Path '../secret.txt' is outside of the file root.");
+        assertRuntimeError("openLines(\"missing.txt\");", "File 'missing.txt' not found.");
+        assertRuntimeError("readAll(1);", "Expected a string.");
+        assertRuntimeError("writeLines(\"out.txt\", 1);", "Expected a sequence or an array.");
+
+        var error = assertThrows(RuntimeError.class, () -> TiEL.process("readAll(\"data.txt\");",
+                new PrintStream(new ByteArrayOutputStream())));
+        assertEquals("File access is disabled.", error.getMessage());
+    }
+
+    private void assertRuntimeError(String sourceCode, String message) {
+        var error = assertThrows(RuntimeError.class, () -> run(sourceCode));
+        assertEquals(message, error.getMessage());
+    }
+}
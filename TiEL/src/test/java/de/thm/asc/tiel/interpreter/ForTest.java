@@ -0,0 +1,66 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.AstPrinter;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ForTest {
+
+    @Test
+    void loopsCountToTheEnd() {
+        var sourceCode = """
+            var sum = 0;
+            for i = 1 to 10 do sum = sum + i;
+            print(sum);
+            for i = 10 to 0 step -4 do print(i);
+            for x = 0 to 1 step 0.25 do print(x);
+            for i = 1 to 0 do print("never");
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "55%n10%n6%n2%n0%n0.25%n0.5%n0.75%n1%n");
+    }
+
+    @Test
+    void loopsEvaluateTheirBoundsOnce() {
+        var sourceCode = """
+            var n = 3;
+            var count = 0;
+            for i = 1 to n do {
+                n = n + 1;
+                i = i + 10;
+                count = count + 1;
+            }
+            print(count);
+            for i = 9007199254740991 to 9007199254740992 do count = count + 1;
+            print(count);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "3%n5%n");
+    }
+
+    @Test
+    void loopVariablesAreScopedToTheLoop() {
+        Assertions.assertPrintOutput("var i = 5; for i = 1 to 2 do {} print(i);", "5%n");
+        Assertions.assertRuntimeError("for i = 1 to 2 do {} print(i);", "Undefined variable 'i'.");
+    }
+
+    @Test
+    void invalidLoops() {
+        Assertions.assertRuntimeError("for i = 1 to nil do {}", "Loop bounds and step must be numbers.");
+        Assertions.assertRuntimeError("for i = 1 to 2 step 0 do {}", "Loop step must not be zero.");
+        Assertions.assertParsingError("for i = 1, 2 do {}", "Expect 'to' after loop start.");
+        Assertions.assertParsingError("for i = 1 to 2 {}", "Expect 'do' after loop bounds.");
+    }
+
+    @Test
+    void loopsArePrinted() {
+        var statements = new Parser(new Scanner("for i = a to b step 2 do print(i);").scanTokens()).parse();
+
+        assertEquals("(ForStmt i (VariableExpr a) (VariableExpr b) (LiteralExpr 2) "
+                + "(ExpressionStmt (CallExpr (VariableExpr print) (VariableExpr i))))\r\n",
+                new AstPrinter().print(statements));
+    }
+}
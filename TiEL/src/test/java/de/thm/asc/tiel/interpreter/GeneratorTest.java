@@ -0,0 +1,101 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+class GeneratorTest {
+
+    @Test
+    void generatorsYieldValuesOnDemand() {
+        var sourceCode = """
+            fun count(n) {
+                print("start");
+                for i = 1 to n do yield i;
+                print("end");
+            }
+            var g = count(2);
+            print("created");
+            print(next(g));
+            print(next(g));
+            print(done(g));
+            print(next(g));
+            print(g);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode,
+                "created%nstart%n1%n2%nend%ntrue%nnil%n<generator>%n");
+    }
+
+    @Test
+    void doneKeepsTheNextValue() {
+        var sourceCode = """
+            fun pages(size) {
+                var page = [];
+                for i = 1 to 5 do {
+                    push(page, i);
+                    if len(page) == size then {
+                        yield page;
+                        page = [];
+                    }
+                }
+                if 0 < len(page) then yield page;
+                return "ignored";
+            }
+            var g = pages(2);
+            while not done(g) do print(next(g));
+            print(done(g));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "[1, 2]%n[3, 4]%n[5]%ntrue%n");
+    }
+
+    @Test
+    void generatorsAreIndependent() {
+        var sourceCode = """
+            fun naturals() {
+                var n = 0;
+                while true do {
+                    yield n;
+                    n = n + 1;
+                }
+            }
+            fun squares(g) {
+                while not done(g) do {
+                    var n = next(g);
+                    yield n * n;
+                }
+            }
+            var a = naturals();
+            var b = squares(naturals());
+            next(a);
+            print(next(a));
+            print(next(b));
+            print(next(b));
+            print(next(b));
+            print(next(a));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "1%n0%n1%n4%n2%n");
+    }
+
+    @Test
+    void errorsAreReportedByNext() {
+        var sourceCode = """
+            fun failing() {
+                yield 1;
+                yield nil + 1;
+            }
+            var g = failing();
+            print(next(g));
+            next(g);
+            """;
+
+        Assertions.assertRuntimeError(sourceCode, "Operands to '+' must be numbers.");
+    }
+
+    @Test
+    void yieldOutsideOfFunctions() {
+        Assertions.assertParsingError("yield 1;", "Can't yield outside of a function.");
+        Assertions.assertRuntimeError("next(1);", "Expected a generator.");
+        Assertions.assertRuntimeError("done([]);", "Expected a generator.");
+    }
+}
@@ -0,0 +1,72 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+class IntegerTest {
+
+    @Test
+    void integersPrintLikeDoubles() {
+        var sourceCode = """
+            print(1 + 2);
+            print(7 / 2);
+            print(6 / 3);
+            print(1.5 + 1.5);
+            print(9999999 + 0);
+            print(10000000 + 0);
+            print(0 * -1);
+            print(-0);
+            print(0 - 0);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "3%n3.5%n2%n3%n9999999%n1.0E7%n-0%n-0%n0%n");
+    }
+
+    @Test
+    void integersEqualDoubles() {
+        var sourceCode = """
+            print(1 == 1.0);
+            print(2.0 == 4 / 2);
+            print(0 == -0);
+            print(1 < 1.5);
+            var m = map();
+            put(m, 1, "one");
+            print(get(m, 3 / 3));
+            var a = [10, 20];
+            print(a[4 / 2 - 1]);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "true%ntrue%nfalse%ntrue%none%n20%n");
+    }
+
+    @Test
+    void largeIntegersBehaveLikeDoubles() {
+        var sourceCode = """
+            var big = 9007199254740993;
+            print(big == 9007199254740992);
+            print(9007199254740992 + 1 - 9007199254740992);
+            print(9007199254740991 + 1 == 9007199254740992);
+            print(0x7FFFFFFFFFFFFFFF - 0x7FFFFFFFFFFFFFFE);
+            print(0xFFFFFFFF);
+            var a = [9007199254740992];
+            a[0] = a[0] + 1;
+            print(a[0] == 9007199254740992);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "true%n0%ntrue%n0%n4.294967295E9%ntrue%n");
+    }
+
+    @Test
+    void overflowsBecomeDoubles() {
+        var sourceCode = """
+            var max = 0x7FFFFFFFFFFFFFFF;
+            print(max + 1);
+            print(-max - 2);
+            print(max * 2);
+            print(0x10000000000000000);
+            print(99999999999999999999);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode,
+                "9.223372036854776E18%n-9.223372036854776E18%n1.8446744073709552E19%n1.8446744073709552E19%n1.0E20%n");
+    }
+}
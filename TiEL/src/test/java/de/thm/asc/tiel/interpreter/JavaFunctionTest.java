@@ -0,0 +1,150 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.error.RuntimeError;
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import de.thm.asc.tiel.interpreter.evaluation.JavaFunction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaFunctionTest {
+
+    public static class Functions {
+
+        @JavaFunction.Export
+        public static long twice(int x) {
+            return 2L * x;
+        }
+
+        @JavaFunction.Export("shout")
+        public static String upper(String s, boolean exclaim) {
+            return s.toUpperCase() + (exclaim ? "!" : "");
+        }
+
+        @JavaFunction.Export
+        public static Object describe(Object value) {
+            return value == null ? 'n' : value instanceof Double d ? d.floatValue() : value;
+        }
+
+        @JavaFunction.Export
+        public static void fail() {
+            throw new IllegalStateException("broken");
+        }
+
+        public static int notExported() {
+            return 0;
+        }
+    }
+
+    private static String run(String sourceCode, List<JavaFunction> functions) {
+        var out = new ByteArrayOutputStream();
+        var context = new ExecutionContext(new PrintStream(out, true, StandardCharsets.UTF_8));
+        functions.forEach(context::define);
+        CompiledProgram.compile(sourceCode).execute(context);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void methodsCanBeCalled() throws ReflectiveOperationException {
+        var sqrt = JavaFunction.of(Math.class.getMethod("sqrt", double.class));
+        var round = JavaFunction.of(Math.class.getMethod("round", float.class));
+        var max = JavaFunction.of("max", MethodHandles.lookup().findStatic(Math.class, "max",
+                MethodType.methodType(long.class, long.class, long.class)));
+        var length = JavaFunction.of("length", MethodHandles.lookup().findVirtual(String.class, "length",
+                MethodType.methodType(int.class)).bindTo("Hallo"));
+        var sourceCode = """
+            print(sqrt(16));
+            print(sqrt(2.25));
+            print(max(3, 7) + 1);
+            print(length());
+            print(round(2.5));
+            print(sqrt);
+            """;
+
+        assertEquals(String.format("4%n1.5%n8%n5%n3%n<native fn>%n"),
+                run(sourceCode, List.of(sqrt, max, length, round)));
+    }
+
+    @Test
+    void exportedMethodsCanBeCalled() {
+        var sourceCode = """
+            print(twice(21));
+            print(shout("a" + "b", true));
+            print(describe(nil));
+            print(describe(1));
+            print(describe("x"));
+            """;
+
+        var functions = JavaFunction.exported(Functions.class);
+        assertEquals(4, functions.size());
+        assertEquals(String.format("42%nAB!%nn%n1%nx%n"), run(sourceCode, functions));
+    }
+
+    @Test
+    void exceptionsFailTheCall() {
+        assertRuntimeError("fail();", JavaFunction.exported(Functions.class),
+                "Java method failed: java.lang.IllegalStateException: broken");
+    }
+
+    @Test
+    void javaFunctionsAreNotDeclarations() {
+        var context = new ExecutionContext(new PrintStream(new ByteArrayOutputStream()));
+        JavaFunction.exported(Functions.class).forEach(context::define);
+        CompiledProgram.compile("var x = twice(2);").execute(context);
+        assertEquals(Map.of("x", 4.0), context.declarations());
+    }
+
+    @Test
+    void argumentsAreChecked() {
+        var functions = JavaFunction.exported(Functions.class);
+        assertRuntimeError("twice(1.5);", functions, "Expected an integer.");
+        assertRuntimeError("twice(3000000000);", functions, "Expected an integer between -2147483648 and 2147483647.");
+        assertRuntimeError("shout(1, true);", functions, "Expected a string.");
+        assertRuntimeError("shout(\"a\", nil);", functions, "Expected a boolean.");
+        assertRuntimeError("twice();", functions, "Expected 1 arguments but got 0.");
+    }
+
+    @Test
+    void integralDoublesAreIntegers() throws ReflectiveOperationException {
+        var add = JavaFunction.of("add", MethodHandles.lookup().findStatic(Math.class, "addExact",
+                MethodType.methodType(long.class, long.class, long.class)));
+        var functions = new ArrayList<>(JavaFunction.exported(Functions.class));
+        functions.add(add);
+        var sourceCode = """
+            print(twice(10 / 5));
+            print(twice(-3.0));
+            print(add(9007199254740992, 2) == 9007199254740994);
+            print(add(9007199254740992, 9007199254740992));
+            """;
+
+        assertEquals(String.format("4%n-6%ntrue%n1.8014398509481984E16%n"), run(sourceCode, functions));
+        assertRuntimeError("twice(7 / 2);", functions, "Expected an integer.");
+        assertRuntimeError("add(99999999999999999999, 0);", functions,
+                "Expected an integer between -9223372036854775808 and 9223372036854775807.");
+    }
+
+    @Test
+    void unsupportedMethodsAreRejected() throws ReflectiveOperationException {
+        assertThrows(IllegalArgumentException.class,
+                () -> JavaFunction.of(String.class.getMethod("length")));
+        assertThrows(IllegalArgumentException.class,
+                () -> JavaFunction.of(Character.class.getMethod("isDigit", char.class)));
+        assertThrows(IllegalArgumentException.class,
+                () -> JavaFunction.of(List.class.getMethod("of", Object[].class)));
+    }
+
+    private static void assertRuntimeError(String sourceCode, List<JavaFunction> functions, String message) {
+        var error = assertThrows(RuntimeError.class, () -> run(sourceCode, functions));
+        assertEquals(message, error.getMessage());
+    }
+}
@@ -0,0 +1,76 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+class MapTest {
+
+    @Test
+    void mapsCanBeReadAndWritten() {
+        var sourceCode = """
+            var m = map();
+            put(m, "one", 1);
+            put(m, 2, "two");
+            print(get(m, "one") + 1);
+            print(get(m, 2));
+            print(get(m, 3));
+            print(has(m, 2));
+            print(has(m, "2"));
+            print(put(m, "one", 3));
+            print(size(m));
+            print(m);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "2%ntwo%nnil%ntrue%nfalse%n3%n2%n{\"one\": 3, 2: \"two\"}%n");
+    }
+
+    @Test
+    void keysAreComparedLikeEquality() {
+        var sourceCode = """
+            var m = map();
+            var a = [1];
+            put(m, nil, "nil");
+            put(m, true, "true");
+            put(m, a, "array");
+            put(m, 0.5, "half");
+            print(get(m, nil));
+            print(get(m, 1 == 1));
+            print(get(m, a));
+            print(has(m, [1]));
+            print(get(m, 1 / 2));
+            print(keys(m));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "nil%ntrue%narray%nfalse%nhalf%n[nil, true, [1], 0.5]%n");
+    }
+
+    @Test
+    void mapsGrow() {
+        var sourceCode = """
+            var m = map();
+            var i = 0;
+            while i < 1000 do {
+                put(m, i * 4096, i);
+                i = i + 1;
+            }
+            i = 0;
+            var sum = 0;
+            while i < 1000 do {
+                sum = sum + get(m, i * 4096);
+                i = i + 1;
+            }
+            print(size(m));
+            print(sum);
+            print(len(keys(m)));
+            print(keys(m)[999]);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "1000%n499500%n1000%n4091904%n");
+    }
+
+    @Test
+    void invalidArguments() {
+        Assertions.assertRuntimeError("get([], 1);", "Expected a map.");
+        Assertions.assertRuntimeError("put(nil, 1, 2);", "Expected a map.");
+        Assertions.assertRuntimeError("size(\"m\");", "Expected a map.");
+    }
+}
@@ -0,0 +1,162 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.AstPrinter;
+import de.thm.asc.tiel.interpreter.ast.expr.AssignExpr;
+import de.thm.asc.tiel.interpreter.ast.expr.BinaryExpr;
+import de.thm.asc.tiel.interpreter.ast.expr.Expr;
+import de.thm.asc.tiel.interpreter.ast.expr.UnaryExpr;
+import de.thm.asc.tiel.interpreter.ast.stmt.ExpressionStmt;
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.parsing.ParallelParser;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParserTest {
+
+    private static final String SOURCE = """
+var x = 1;
+fun a(n) {
+    if n < 1 then { return 0; } else { return a(n - 1); }
+}
+print(a(3));
+fun b() { while x < 3 do { x = x + 1; } }
+{ var y = 2; print(y); }
+fun c(p, q) { return p * q; }
+b();
+var arr = [1, [x, "a"], []];
+fun d(a) { a[1][0] = a[0] + c(a[0], 2); return [a[1][a[0]], [-a[0]]][0]; }
+fun e(n) { for i = n to 2 * n step -1 + 2 do for j = 0 to i do print(i * j); }
+fun f(n) { yield; for i = 0 to n do yield i * 2; }
+""";
+
+    @Test
+    void parallelParserProducesSameAst() {
+        var tokens = new Scanner(SOURCE).scanTokens();
+        var printer = new AstPrinter();
+        var expected = printer.print(new Parser(tokens).parse());
+
+        for (var batchSize = 1; batchSize < tokens.size(); batchSize++) {
+            var actual = printer.print(new ParallelParser(tokens, ForkJoinPool.commonPool(), batchSize).parse());
+            assertEquals(expected, actual, "batch size " + batchSize);
+        }
+    }
+
+    @Test
+    void parallelParserReportsSameError() {
+        var sources = new String[]{
+                SOURCE + "fun d() { print(1) }\nfun e() { print(; }",
+                SOURCE + "print(1)\nfun d() {}",
+                SOURCE + "print(fun d() {});",
+                SOURCE + "fun d() { { print(1); }\nfun e() {}",
+                "fun d(a { }\n" + SOURCE,
+        };
+
+        for (var source : sources) {
+            var tokens = new Scanner(source).scanTokens();
+            var expected = assertThrows(ParsingError.class, () -> new Parser(tokens).parse());
+            for (var batchSize = 1; batchSize < tokens.size(); batchSize += 5) {
+                var size = batchSize;
+                var actual = assertThrows(ParsingError.class,
+                        () -> new ParallelParser(tokens, ForkJoinPool.commonPool(), size).parse());
+                assertEquals(expected.getMessage(), actual.getMessage());
+                assertEquals(expected.line, actual.line);
+            }
+        }
+    }
+
+    @Test
+    void lazyFunctionsProduceSameAst() {
+        var printer = new AstPrinter();
+        var expected = printer.print(new Parser(new Scanner(SOURCE).scanTokens()).parse());
+        var actual = printer.print(new Parser(new Scanner(SOURCE), true).parse());
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void parallelLazyParserProducesSameAst() {
+        var tokens = new Scanner(SOURCE).scanTokens();
+        var printer = new AstPrinter();
+        var expected = printer.print(new Parser(tokens).parse());
+
+        for (var batchSize = 1; batchSize < tokens.size(); batchSize += 7) {
+            var actual = printer.print(new ParallelParser(tokens, ForkJoinPool.commonPool(), batchSize, true).parse());
+            assertEquals(expected, actual, "batch size " + batchSize);
+        }
+    }
+
+    @Test
+    void lazyFunctionsReportErrorsUpFront() {
+        var sources = new String[]{
+                "fun d() { print(1) }\nprint(2);",
+                "fun d() { var = 1; }",
+                "fun d() { (a) = 1; a + b = 2; }",
+                "fun d() { if x then { while y do return; } else print((1); }",
+                "fun d() { { print(1); }\nfun e() {}",
+                "fun d() { a[0] = [1][0]; f()[1] = 2; a[0] + 1 = 2; }",
+                "fun d() { print(a[1 = 2); }",
+                "fun d() { print(a[1, 2]); }",
+                "fun d() { print([1, 2); }",
+                "fun d() { print([1, ]); }",
+                "fun d() { yield 1 }",
+        };
+
+        for (var source : sources) {
+            var expected = assertThrows(ParsingError.class, () -> new Parser(new Scanner(source)).parse());
+            var actual = assertThrows(ParsingError.class, () -> new Parser(new Scanner(source), true).parse());
+            assertEquals(expected.getMessage(), actual.getMessage());
+            assertEquals(expected.line, actual.line);
+        }
+    }
+
+    @Test
+    void operatorsBindByPrecedence() {
+        var statements = new Parser(new Scanner("x = -a + b * (c - d) < f(1)(2) or not e and g == h;")).parse();
+
+        assertEquals("(ExpressionStmt (AssignExpr x (LogicalExpr or (BinaryExpr < (BinaryExpr + "
+                + "(UnaryExpr - (VariableExpr a)) (BinaryExpr * (VariableExpr b) (BinaryExpr - (VariableExpr c) "
+                + "(VariableExpr d)))) (CallExpr (CallExpr (VariableExpr f) (LiteralExpr 1)) (LiteralExpr 2))) "
+                + "(LogicalExpr and (UnaryExpr not (VariableExpr e)) (BinaryExpr == (VariableExpr g) "
+                + "(VariableExpr h))))))\r\n", new AstPrinter().print(statements));
+    }
+
+    @Test
+    void arraysAndIndexesBindLikeCalls() {
+        var statements = new Parser(new Scanner("a[i + 1][0] = -[b, f(c)[2]][0] * [];")).parse();
+
+        assertEquals("(ExpressionStmt (IndexAssignExpr (IndexExpr (VariableExpr a) (BinaryExpr + (VariableExpr i) "
+                + "(LiteralExpr 1))) (LiteralExpr 0) (BinaryExpr * (UnaryExpr - (IndexExpr (ArrayExpr "
+                + "(VariableExpr b) (IndexExpr (CallExpr (VariableExpr f) (VariableExpr c)) (LiteralExpr 2))) "
+                + "(LiteralExpr 0))) (ArrayExpr))))\r\n", new AstPrinter().print(statements));
+    }
+
+    @Test
+    void deepExpressionsDoNotOverflowTheStack() {
+        var terms = 1_000_000;
+        var depth = 100_000;
+        var source = "1" + " + 1".repeat(terms - 1) + ";\n"
+                + "(".repeat(depth) + "x" + ")".repeat(depth) + " = 1;\n"
+                + "-".repeat(depth) + "1;\n";
+
+        var statements = new Parser(new Scanner(source)).parse();
+
+        Expr sum = ((ExpressionStmt) statements.get(0)).expression;
+        var count = 1;
+        while (sum instanceof BinaryExpr binary) {
+            sum = binary.left;
+            count++;
+        }
+        assertEquals(terms, count);
+        assertInstanceOf(AssignExpr.class, ((ExpressionStmt) statements.get(1)).expression);
+        assertInstanceOf(UnaryExpr.class, ((ExpressionStmt) statements.get(2)).expression);
+
+        new Parser(new Scanner("fun f() {\n" + source + "}"), true).parse();
+    }
+}
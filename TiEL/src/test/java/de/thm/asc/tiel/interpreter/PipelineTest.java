@@ -0,0 +1,52 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.error.ParsingError;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PipelineTest {
+
+    @Test
+    void functionsDeclaredLaterAreCallableFromBodies() {
+        var sourceCode = """
+fun foo(flag) {
+    bar(1);
+    if flag then return "World!";
+}
+fun bar(i) {
+    while i < 2 do {
+        print("Hello");
+        i = i + 1;
+    }
+}
+print(foo(true));
+""";
+        var outputStream = new ByteArrayOutputStream();
+
+        Pipeline.process(new Scanner(sourceCode), new PrintStream(outputStream));
+
+        assertEquals(String.format("Hello%nWorld!%n"), outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void statementsBeforeParsingErrorAreExecuted() {
+        var sourceCode = """
+print(1);
+print(2)
+""";
+        var outputStream = new ByteArrayOutputStream();
+
+        var error = assertThrows(ParsingError.class,
+                () -> Pipeline.process(new Scanner(sourceCode), new PrintStream(outputStream)));
+
+        assertEquals("Expect ';' after expression.", error.getMessage());
+        assertEquals(String.format("1%n"), outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
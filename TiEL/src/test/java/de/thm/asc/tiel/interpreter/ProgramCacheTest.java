@@ -0,0 +1,171 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.AstPrinter;
+import de.thm.asc.tiel.interpreter.ast.AstReader;
+import de.thm.asc.tiel.interpreter.ast.AstWriter;
+import de.thm.asc.tiel.interpreter.cache.ProgramCache;
+import de.thm.asc.tiel.interpreter.evaluation.Evaluator;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProgramCacheTest {
+
+    private static final String SOURCE = """
+var greeting = "Hällo";
+fun fib(n) {
+    if n < 2 then return n;
+    return fib(n - 1) + fib(n - 2);
+}
+fun nothing() { return; }
+var i = 0;
+while i < 3 and not false do {
+    i = i + 1;
+    if i == 2 or nil then print(greeting); else { print(fib(i * 5) / -2); }
+}
+print(nothing());
+print(true);
+var list = [i, [greeting, nil], []];
+list[1][1] = fib(list[0]);
+print(list);
+for j = 0 to 6 step 3 do print(j + 0.5);
+fun evens(n) { for k = 0 to n step 2 do yield k; }
+var g = evens(4);
+while not done(g) do print(next(g));
+""";
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("tiel-cache");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void serializedAstIsEqual() throws IOException {
+        var printer = new AstPrinter();
+        var expected = printer.print(new Parser(new Scanner(SOURCE).scanTokens()).parse());
+
+        var out = new ByteArrayOutputStream();
+        AstWriter.write(new Parser(new Scanner(SOURCE), true).parse(), out);
+        var statements = AstReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(expected, printer.print(statements));
+    }
+
+    @Test
+    void cachedProgramRunsLikeParsedProgram() {
+        var cache = new ProgramCache(directory);
+        assertNull(cache.load(SOURCE));
+
+        cache.store(SOURCE, new Parser(new Scanner(SOURCE)).parse());
+        var statements = cache.load(SOURCE);
+        assertNotNull(statements);
+        assertNull(cache.load(SOURCE + " "));
+
+        var expected = new ByteArrayOutputStream();
+        TiEL.process(SOURCE, new PrintStream(expected, true, StandardCharsets.UTF_8));
+        var actual = new ByteArrayOutputStream();
+        new Evaluator(new PrintStream(actual, true, StandardCharsets.UTF_8)).interpret(statements);
+
+        assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void corruptEntriesAreIgnored() throws IOException {
+        var cache = new ProgramCache(directory);
+        cache.store(SOURCE, new Parser(new Scanner(SOURCE)).parse());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            var entry = files.findFirst().orElseThrow();
+            var bytes = Files.readAllBytes(entry);
+            Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+        }
+
+        assertNull(cache.load(SOURCE));
+    }
+
+    @Test
+    void corruptSizesAreRejected() throws IOException {
+        var out = new ByteArrayOutputStream();
+        AstWriter.write(new Parser(new Scanner("print(1);")).parse(), out);
+        var bytes = out.toByteArray();
+
+        // Replace the number of statements after the magic number and the version by Integer.MAX_VALUE
+        var content = new ByteArrayOutputStream();
+        content.write(bytes, 0, 6);
+        content.write(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        content.write(bytes, 7, bytes.length - 7);
+        assertThrows(EOFException.class, () -> AstReader.read(new ByteArrayInputStream(content.toByteArray())));
+    }
+
+    @Test
+    void deeplyNestedProgramsAreNotCached() throws IOException {
+        // Parsed iteratively, but too deeply nested for the recursive AstWriter
+        var source = "fun sum() { return 1" + " + 1".repeat(200_000) + "; }\nprint(\"ran\");";
+        var cache = new ProgramCache(directory);
+        var statements = new Parser(new Scanner(source)).parse();
+
+        cache.store(source, statements);
+        assertNull(cache.load(source));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+
+        var out = new ByteArrayOutputStream();
+        new Evaluator(new PrintStream(out, true, StandardCharsets.UTF_8)).interpret(statements);
+        assertEquals(String.format("ran%n"), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        var sources = new String[]{"print(1);", "print(2);", "print(3);"};
+
+        var unlimited = new ProgramCache(directory);
+        unlimited.store(sources[0], new Parser(new Scanner(sources[0])).parse());
+        long size;
+        try (Stream<Path> files = Files.list(directory)) {
+            var entry = files.findFirst().orElseThrow();
+            size = Files.size(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        }
+
+        // Room for two entries: storing a third one evicts the least recently used one
+        var cache = new ProgramCache(directory, 2 * size);
+        cache.store(sources[1], new Parser(new Scanner(sources[1])).parse());
+        cache.store(sources[2], new Parser(new Scanner(sources[2])).parse());
+
+        assertNull(cache.load(sources[0]));
+        assertNotNull(cache.load(sources[1]));
+        assertNotNull(cache.load(sources[2]));
+    }
+}
@@ -0,0 +1,86 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.ast.AstPrinter;
+import de.thm.asc.tiel.interpreter.error.ScanningError;
+import de.thm.asc.tiel.interpreter.parsing.Parser;
+import de.thm.asc.tiel.interpreter.scanning.ParallelScanner;
+import de.thm.asc.tiel.interpreter.scanning.Scanner;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScannerTest {
+
+    private static final String SOURCE = """
+fun fib(n) {
+    // A comment that is long enough to span several reads
+    if n == 0 then return 0;
+    else if n == 1 then return 0x1;
+    else return fib(n - 1) + fib(n - 2);
+}
+var s = "a string
+across two lines";
+print(fib(12.5));
+""";
+
+    /**
+     * A reader that returns at most one character per read, forcing the scanner to refill its buffer constantly.
+     */
+    private static Reader trickle(String source) {
+        return new StringReader(source) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    void streamingScannerProducesSameTokens() {
+        var expected = new Scanner(SOURCE).scanTokens();
+        var actual = new Scanner(trickle(SOURCE)).scanTokens();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void parserConsumesTokensOnDemand() {
+        var printer = new AstPrinter();
+        var expected = printer.print(new Parser(new Scanner(SOURCE).scanTokens()).parse());
+        var actual = printer.print(new Parser(new Scanner(trickle(SOURCE))).parse());
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void parallelScannerProducesSameTokensForAnyChunkSize() {
+        var expected = new Scanner(SOURCE).scanTokens();
+
+        for (var chunkSize = 1; chunkSize <= SOURCE.length(); chunkSize++) {
+            var actual = new ParallelScanner(SOURCE, ForkJoinPool.commonPool(), chunkSize).scanTokens();
+            assertEquals(expected, actual, "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void parallelScannerReportsSameError() {
+        var sources = new String[]{SOURCE + "var x = 1;\n@\n", SOURCE + "var s = \"open\nstring;\n"};
+
+        for (var source : sources) {
+            var expected = assertThrows(ScanningError.class, () -> new Scanner(source).scanTokens());
+            for (var chunkSize = 1; chunkSize <= source.length(); chunkSize += 7) {
+                var size = chunkSize;
+                var actual = assertThrows(ScanningError.class,
+                        () -> new ParallelScanner(source, ForkJoinPool.commonPool(), size).scanTokens());
+                assertEquals(expected.getMessage(), actual.getMessage());
+                assertEquals(expected.line, actual.line);
+            }
+        }
+    }
+}
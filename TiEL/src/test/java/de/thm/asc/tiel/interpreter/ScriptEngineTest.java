@@ -0,0 +1,91 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+import javax.script.Compilable;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptEngineTest {
+
+    public interface Math {
+        double square(double x);
+    }
+
+    private static ScriptEngine engine() {
+        var engine = new ScriptEngineManager().getEngineByName("tiel");
+        assertNotNull(engine);
+        return engine;
+    }
+
+    @Test
+    void evalUsesBindingsAndWriter() throws Exception {
+        var engine = engine();
+        var out = new StringWriter();
+        engine.getContext().setWriter(out);
+        engine.put("x", 20);
+
+        engine.eval("var y = x + 1; x = x * 2; print(\"y = \"); print(y);");
+
+        assertEquals("y = \n21\n", out.toString().replace("\r\n", "\n"));
+        assertEquals(21.0, engine.get("y"));
+        assertEquals(40.0, engine.get("x"));
+    }
+
+    @Test
+    void bindingsCanBoundRanges() throws Exception {
+        var engine = engine();
+        engine.put("n", 4);
+
+        engine.eval("fun add(sum, x) { return sum + x; } var sum = reduce(range(0, n), add, 0);");
+
+        assertEquals(6.0, engine.get("sum"));
+    }
+
+    @Test
+    void compiledScriptRunsWithDifferentBindings() throws Exception {
+        var engine = engine();
+        var script = ((Compilable) engine).compile("var result = input * input;");
+
+        for (var i = 0; i < 3; i++) {
+            var context = new SimpleScriptContext();
+            var bindings = engine.createBindings();
+            bindings.put("input", i);
+            context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+
+            script.eval(context);
+            assertEquals((double) i * i, bindings.get("result"));
+        }
+    }
+
+    @Test
+    void functionsCanBeInvokedFromJava() throws Exception {
+        var engine = engine();
+        engine.eval("fun square(x) { return x * x; } fun greet(name) { return name; }");
+
+        var invocable = (Invocable) engine;
+        assertEquals(49.0, invocable.invokeFunction("square", 7));
+        assertEquals("TiEL", invocable.invokeFunction("greet", "TiEL"));
+        assertThrows(NoSuchMethodException.class, () -> invocable.invokeFunction("missing"));
+        assertThrows(ScriptException.class, () -> invocable.invokeFunction("square", "a"));
+
+        assertEquals(9.0, invocable.getInterface(Math.class).square(3));
+        assertNull(invocable.getInterface(Runnable.class));
+    }
+
+    @Test
+    void errorsAreScriptExceptions() {
+        var engine = engine();
+
+        var syntax = assertThrows(ScriptException.class, () -> engine.eval("var a = 1;\nvar = 2;"));
+        assertEquals(2, syntax.getLineNumber());
+        assertThrows(ScriptException.class, () -> engine.eval("print(undefined);"));
+    }
+}
@@ -0,0 +1,74 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.server.Response;
+import de.thm.asc.tiel.interpreter.server.ScriptClient;
+import de.thm.asc.tiel.interpreter.server.ScriptServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScriptServerTest {
+
+    private static final InetSocketAddress ANY_PORT = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    @Test
+    void scriptsAreRunWithCapturedOutput() throws IOException {
+        try (var server = ScriptServer.start(ANY_PORT, ScriptServer.Limits.DEFAULT);
+             var client = new ScriptClient(server.address())) {
+            var source = "fun fib(n) { if n < 2 then return n; return fib(n - 1) + fib(n - 2); }\nprint(fib(10));";
+            assertEquals(new Response(Response.Status.OK, "55" + System.lineSeparator(), ""), client.run(source));
+            assertEquals(new Response(Response.Status.OK, "55" + System.lineSeparator(), ""), client.run(source));
+
+            assertEquals(new Response(Response.Status.ERROR, "", "Error on line 2: Expect ';' after expression."),
+                    client.run("print(1);\nprint(2)"));
+            assertEquals(new Response(Response.Status.ERROR, "1" + System.lineSeparator(),
+                            "Error on line 1: Can only call functions."),
+                    client.run("print(1); 2();"));
+        }
+    }
+
+    @Test
+    void scriptFilesAreRunOverUnixDomainSockets() throws IOException {
+        var directory = Files.createTempDirectory("tiel-server");
+        var socket = directory.resolve("tiel.sock");
+        var script = Files.writeString(directory.resolve("script.tiel"), "print(\"hello\");");
+        try (var server = ScriptServer.start(UnixDomainSocketAddress.of(socket), ScriptServer.Limits.DEFAULT);
+             var client = new ScriptClient(server.address())) {
+            assertEquals(new Response(Response.Status.OK, "hello" + System.lineSeparator(), ""), client.run(script));
+        } finally {
+            Files.delete(script);
+            Files.deleteIfExists(socket);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void admissionIsLimited() throws Exception {
+        var limits = new ScriptServer.Limits(1, 0, Duration.ofSeconds(1));
+        try (var server = ScriptServer.start(ANY_PORT, limits);
+             var first = new ScriptClient(server.address());
+             var second = new ScriptClient(server.address())) {
+            var endless = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return first.run("print(1); while true do {}");
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Thread.sleep(300);
+
+            assertEquals(Response.Status.REJECTED, second.run("print(2);").status());
+            assertEquals(new Response(Response.Status.TIMEOUT, "1" + System.lineSeparator(), "Error: Execution timed out."),
+                    endless.get());
+            assertEquals(Response.Status.OK, second.run("print(2);").status());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+class SequenceTest {
+
+    @Test
+    void sequencesCanBeChained() {
+        var sourceCode = """
+            fun square(x) { return x * x; }
+            fun isSmall(x) { return x < 30; }
+            fun add(sum, x) { return sum + x; }
+            fun append(a, x) { push(a, x); return a; }
+            print(reduce(range(0, 5), add, 0));
+            print(reduce(map(range(1, 4), square), append, []));
+            print(reduce(filter(map(range(0, 10), square), isSmall), append, []));
+            print(reduce(range(3, 3), add, "empty"));
+            print(reduce(map([1, 2, 3], square), add, 0));
+            print(range(0, 1));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "10%n[1, 4, 9]%n[0, 1, 4, 9, 16, 25]%nempty%n14%n<sequence>%n");
+    }
+
+    @Test
+    void elementsArePulledOneAtATime() {
+        var sourceCode = """
+            fun trace(x) { print("map"); print(x); return x; }
+            fun append(a, x) { print("reduce"); print(x); push(a, x); return a; }
+            print(reduce(take(map(range(0, 1000000000000), trace), 2), append, []));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "map%n0%nreduce%n0%nmap%n1%nreduce%n1%n[0, 1]%n");
+    }
+
+    @Test
+    void sequencesCanBeReducedAgain() {
+        var sourceCode = """
+            fun add(sum, x) { return sum + x; }
+            fun small(x) { return x < 3; }
+            var s = take(filter(range(0, 10), small), 2);
+            print(reduce(s, add, 0));
+            print(reduce(s, add, 10));
+            print(reduce(take(s, 0), add, 0));
+            print(reduce(take(range(0, 10), -1), add, 0));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "1%n11%n0%n0%n");
+    }
+
+    @Test
+    void longRangesTakeConstantMemory() {
+        var sourceCode = """
+            fun add(sum, x) { return sum + x; }
+            fun double(x) { return 2 * x; }
+            print(reduce(map(range(0, 1000000), double), add, 0) == 999999000000);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "true%n");
+    }
+
+    @Test
+    void integralDoublesAreIntegers() {
+        var sourceCode = """
+            fun add(sum, x) { return sum + x; }
+            var a = [4];
+            print(reduce(range(0, a[0]), add, 0));
+            print(reduce(range(0, 10 / 2), add, 0));
+            print(reduce(take(range(0, 10), 6 / 2), add, 0));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "6%n10%n3%n");
+    }
+
+    @Test
+    void invalidArguments() {
+        Assertions.assertRuntimeError("range(0, 1.5);", "Expected an integer.");
+        Assertions.assertRuntimeError("range(0, 99999999999999999999);",
+                "Expected an integer between -9007199254740992 and 9007199254740992.");
+        Assertions.assertRuntimeError("take(range(0, 1), nil);", "Expected an integer.");
+        Assertions.assertRuntimeError("filter(1, print);", "Expected a sequence or an array.");
+        Assertions.assertRuntimeError("map(range(0, 1), 1);", "Can only call functions.");
+        Assertions.assertRuntimeError("reduce(range(0, 1), print, 0);", "Expected 1 arguments but got 2.");
+        Assertions.assertRuntimeError("map(1);", "Expected 0 or 2 arguments but got 1.");
+    }
+}
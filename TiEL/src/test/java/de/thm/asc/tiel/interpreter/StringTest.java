@@ -0,0 +1,61 @@
+package de.thm.asc.tiel.interpreter;
+
+import de.thm.asc.tiel.interpreter.evaluation.ExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StringTest {
+
+    @Test
+    void stringsCanBeConcatenated() {
+        var sourceCode = """
+            var s = "Hello" + ", " + "World";
+            print(s + "!");
+            print(len(s));
+            print(s == "Hello, World");
+            print(["a" + "b"]);
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "Hello, World!%n12%ntrue%n[\"ab\"]%n");
+    }
+
+    @Test
+    void longStringsAreBuiltInPlace() {
+        var sourceCode = """
+            var s = "";
+            var i = 0;
+            while i < 1000 do {
+                s = s + "ab";
+                i = i + 1;
+            }
+            var t = s + "c";
+            var u = s + "d";
+            print(len(s));
+            print(len(t) + len(u));
+            print(t == s + "c" and not (t == u));
+            var m = map();
+            put(m, t, 1);
+            print(get(m, s + "c"));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "2000%n4002%ntrue%n1%n");
+    }
+
+    @Test
+    void hostsReceiveStrings() {
+        var context = new ExecutionContext(new PrintStream(OutputStream.nullOutputStream()));
+        var program = "var s = \"\"; var i = 0; while i < 100 do { s = s + \"x\"; i = i + 1; }";
+        assertEquals(ExecutionResult.SUCCESS, CompiledProgram.run(program, context));
+        assertEquals("x".repeat(100), context.declarations().get("s"));
+    }
+
+    @Test
+    void onlyStringsCanBeConcatenated() {
+        Assertions.assertRuntimeError("var x = \"A\" + 1;", "Operands to '+' must be numbers.");
+        Assertions.assertRuntimeError("var x = nil + \"A\";", "Operands to '+' must be numbers.");
+    }
+}
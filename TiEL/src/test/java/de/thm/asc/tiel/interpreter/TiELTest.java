@@ -135,4 +135,18 @@ print(myFunction());""";
 
         Assertions.assertRuntimeError(sourceCode, "Identifier already declared 'a'.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void builtinsCanBeRedeclared() {
+        var sourceCode = """
+            var size = 3;
+            var keys = 1;
+            fun next(x) { return x + size; }
+            fun range(a) { return a * keys; }
+            print(next(range(4)));
+            print(len([1, 2]));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "7%n2%n");
+    }
+}
@@ -0,0 +1,69 @@
+package de.thm.asc.tiel.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+class VectorTest {
+
+    // 19 elements, so that the SIMD loops also process a remainder
+    private static final String NUMBERS = """
+        var a = [];
+        var b = [];
+        var i = 0;
+        while i < 19 do {
+            push(a, i);
+            push(b, 19 - i);
+            i = i + 1;
+        }
+        """;
+
+    @Test
+    void reductions() {
+        var sourceCode = NUMBERS + """
+            print(vsum(a));
+            print(vdot(a, b));
+            print(vmin(b));
+            print(vmax(b));
+            print(vsum([]));
+            print(vmax([-1, -0.5, -2]));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "171%n1140%n1%n19%n0%n-0.5%n");
+    }
+
+    @Test
+    void elementWiseOperations() {
+        var sourceCode = NUMBERS + """
+            var c = vadd(a, b);
+            print(vmin(c) == 19 and vmax(c) == 19);
+            print(len(c));
+            print(vscale([1, 2, 3], 0.5));
+            var d = vscale(a, 2);
+            push(d, 1);
+            print(vsum(d));
+            print(vsum(a));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "true%n19%n[0.5, 1, 1.5]%n343%n171%n");
+    }
+
+    @Test
+    void arraysThatHeldOtherValues() {
+        var sourceCode = """
+            var a = [1, 2, 3];
+            a[0] = "one";
+            a[0] = 1;
+            print(vsum(a));
+            """;
+
+        Assertions.assertPrintOutput(sourceCode, "6%n");
+    }
+
+    @Test
+    void invalidArguments() {
+        Assertions.assertRuntimeError("vsum(1);", "Expected an array of numbers.");
+        Assertions.assertRuntimeError("vsum([1, \"2\"]);", "Expected an array of numbers.");
+        Assertions.assertRuntimeError("vdot([1, 2], [1]);", "Arrays must have the same length.");
+        Assertions.assertRuntimeError("vscale([1], nil);", "Expected a number.");
+        Assertions.assertRuntimeError("vmin([]);", "Array must not be empty.");
+    }
+}